@@ -0,0 +1,40 @@
+package bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs every benchmark of the {@code bench} package and writes the results as JSON, so that the
+ * results of two releases can be diffed.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * The main entry point of the benchmark suite.
+     *
+     * @param args an optional path for the JSON results (defaults to {@code bench-results/results.json}),
+     *             followed by an optional regular expression selecting the benchmarks to run
+     * @throws RunnerException if a benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        String resultPath = args.length > 0 ? args[0] : "bench-results/results.json";
+        String include = args.length > 1 ? args[1] : "bench\\..*";
+
+        File resultFile = new File(resultPath);
+        if (resultFile.getParentFile() != null) {
+            resultFile.getParentFile().mkdirs();
+        }
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultPath)
+                .build();
+        new Runner(options).run();
+    }
+}
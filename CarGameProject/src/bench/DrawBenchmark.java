@@ -0,0 +1,85 @@
+package bench;
+
+import game.GamePanel;
+import game.GameSimulation;
+import game.SpriteCache;
+import javafx.application.Platform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link GamePanel#draw()} against an offscreen canvas, for every obstacle count,
+ * vehicle type, way of storing the obstacles and repaint mode. The canvas is never attached to a window, so the benchmark measures the cost
+ * of issuing the drawing commands of one frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrawBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int obstacleCount;
+
+    @Param({"car", "bike", "truck"})
+    public String vehicleType;
+
+    @Param({"objects", "arrays"})
+    public String obstacleStore;
+
+    @Param({"full", "dirty"})
+    public String repaint;
+
+    private GamePanel gamePanel;
+
+    /**
+     * Starts the JavaFX toolkit, loads the sprites and builds a panel rendering a simulation holding
+     * the requested number of obstacles.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Platform.startup(() -> { });
+        SpriteCache.preload();
+        GameSimulation simulation = new GameSimulation(vehicleType, obstacleStore.equals("arrays"));
+        if (simulation.getObstacleStore() != null) {
+            ObstacleStoreBenchmark.populate(simulation, obstacleCount);
+        } else {
+            FrameBenchmark.populate(simulation, obstacleCount);
+        }
+        gamePanel = new GamePanel(simulation);
+        gamePanel.setDirtyRegions(repaint.equals("dirty"));
+    }
+
+    /**
+     * Clears the whole canvas, which also discards the drawing commands buffered by the previous call.
+     */
+    @Setup(Level.Invocation)
+    public void clear() {
+        gamePanel.getGraphicsContext2D().clearRect(0, 0, gamePanel.getWidth(), gamePanel.getHeight());
+    }
+
+    /**
+     * Draws one frame.
+     *
+     * @return the panel drawn, so the call cannot be eliminated
+     */
+    @Benchmark
+    public GamePanel draw() {
+        gamePanel.draw();
+        return gamePanel;
+    }
+}
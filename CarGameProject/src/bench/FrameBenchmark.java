@@ -0,0 +1,173 @@
+package bench;
+
+import game.GameSimulation;
+import game.Obstacle;
+import game.PlayerVehicle;
+import javafx.geometry.Rectangle2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the per-frame simulation work: moving the obstacles, checking them for
+ * collisions with the player vehicle and removing the ones that left the screen.
+ * Each benchmark runs for every obstacle count and vehicle type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int obstacleCount;
+
+    @Param({"car", "bike", "truck"})
+    public String vehicleType;
+
+    private GameSimulation simulation;
+
+    /**
+     * Builds a simulation holding the requested number of obstacles.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulation = new GameSimulation(vehicleType);
+        populate(simulation, obstacleCount);
+    }
+
+    /**
+     * State of the {@link #updateGameObjects(Removal)} benchmark, whose obstacles are removed as they
+     * leave the screen and therefore have to be put back before each call.
+     */
+    @State(Scope.Thread)
+    public static class Removal {
+        private GameSimulation simulation;
+
+        /**
+         * Builds a simulation holding the requested number of obstacles.
+         *
+         * @param benchmark the benchmark state holding the parameters
+         */
+        @Setup(Level.Trial)
+        public void setUp(FrameBenchmark benchmark) {
+            simulation = new GameSimulation(benchmark.vehicleType);
+            populate(simulation, benchmark.obstacleCount);
+        }
+
+        /**
+         * Returns every obstacle to the pool and adds them back at their starting position.
+         *
+         * @param benchmark the benchmark state holding the parameters
+         */
+        @Setup(Level.Invocation)
+        public void restore(FrameBenchmark benchmark) {
+            simulation.clearObstacles();
+            populate(simulation, benchmark.obstacleCount);
+        }
+    }
+
+    /**
+     * Fills the simulation with obstacles spread over every lane but the one of the player vehicle,
+     * so that collision checks always scan the whole list.
+     *
+     * @param simulation the simulation to fill
+     * @param count      the number of obstacles to add
+     */
+    static void populate(GameSimulation simulation, int count) {
+        for (int i = 0; i < count; i++) {
+            Obstacle obstacle = simulation.getObstaclePool().acquire(0, 2);
+            place(simulation, obstacle, i);
+            simulation.addObstacle(obstacle);
+        }
+    }
+
+    /**
+     * Places the i-th obstacle of a benchmark population. One obstacle in ten is placed just below
+     * the screen so that the removal path is exercised.
+     *
+     * @param simulation the simulation holding the obstacle
+     * @param obstacle   the obstacle to place
+     * @param i          the index of the obstacle in the population
+     */
+    static void place(GameSimulation simulation, Obstacle obstacle, int i) {
+        double laneWidth = simulation.getLaneWidth();
+        int lane = i % (GameSimulation.LANE_COUNT - 1);
+        if (lane >= simulation.getPlayerVehicle().currentLane) lane++;
+        double laneX = GameSimulation.ROAD_MARGIN + lane * laneWidth + (laneWidth - Obstacle.WIDTH) / 2;
+        double y = i % 10 == 0 ? GameSimulation.HEIGHT - 1 : (i * 37) % 500 - 100;
+        obstacle.setPosition(laneX, y);
+        obstacle.setSpeed(2 + i % 10);
+    }
+
+    /**
+     * Moves every obstacle by one tick.
+     *
+     * @return the obstacle count, so the loop cannot be eliminated
+     */
+    @Benchmark
+    public int updatePosition() {
+        List<Obstacle> obstacles = simulation.getObstacles();
+        for (int i = 0; i < obstacles.size(); i++) {
+            obstacles.get(i).updatePosition();
+        }
+        return obstacles.size();
+    }
+
+    /**
+     * Checks for collisions through the bounds of the player vehicle and of every obstacle, allocating two
+     * {@link Rectangle2D} per obstacle as the original game loop did.
+     *
+     * @return {@code true} if a collision was found
+     */
+    @Benchmark
+    public boolean checkCollisionsWithBounds() {
+        PlayerVehicle playerVehicle = simulation.getPlayerVehicle();
+        for (Obstacle obstacle : simulation.getObstacles()) {
+            Rectangle2D vehicleBounds = new Rectangle2D(playerVehicle.getX(), playerVehicle.getY(),
+                    playerVehicle.getWidth(), playerVehicle.getHeight());
+            Rectangle2D obstacleBounds = new Rectangle2D(obstacle.getX(), obstacle.getY(),
+                    obstacle.getWidth(), obstacle.getHeight());
+            if (vehicleBounds.intersects(obstacleBounds)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks for collisions through the simulation.
+     *
+     * @return {@code true} if a collision was found
+     */
+    @Benchmark
+    public boolean checkCollisions() {
+        return simulation.checkCollisions();
+    }
+
+    /**
+     * Moves every obstacle by one tick and removes the ones that left the screen.
+     *
+     * @param removal the state holding the obstacles to update
+     * @return the number of obstacles left
+     */
+    @Benchmark
+    public int updateGameObjects(Removal removal) {
+        removal.simulation.updateGameObjects();
+        return removal.simulation.getObstacles().size();
+    }
+}
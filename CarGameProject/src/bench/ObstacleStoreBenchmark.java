@@ -0,0 +1,132 @@
+package bench;
+
+import game.GameSimulation;
+import game.Obstacle;
+import game.ObstacleStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the {@link ObstacleStore} of primitive arrays: moving, culling and checking
+ * every obstacle for collisions, as done once per tick in the stress configuration.
+ * They use the same obstacle placement as {@link FrameBenchmark}, so the two can be compared.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObstacleStoreBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int obstacleCount;
+
+    @Param({"car", "bike", "truck"})
+    public String vehicleType;
+
+    private GameSimulation simulation;
+
+    /**
+     * Builds a simulation holding the requested number of obstacles in an obstacle store.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulation = new GameSimulation(vehicleType, true);
+        populate(simulation, obstacleCount);
+    }
+
+    /**
+     * State of the {@link #updateGameObjects(Cull)} benchmark, whose obstacles are culled as they
+     * leave the screen and therefore have to be put back before each call.
+     */
+    @State(Scope.Thread)
+    public static class Cull {
+        private GameSimulation simulation;
+
+        /**
+         * Builds a simulation holding the requested number of obstacles in an obstacle store.
+         *
+         * @param benchmark the benchmark state holding the parameters
+         */
+        @Setup(Level.Trial)
+        public void setUp(ObstacleStoreBenchmark benchmark) {
+            simulation = new GameSimulation(benchmark.vehicleType, true);
+        }
+
+        /**
+         * Refills the store with every obstacle at its starting position.
+         *
+         * @param benchmark the benchmark state holding the parameters
+         */
+        @Setup(Level.Invocation)
+        public void restore(ObstacleStoreBenchmark benchmark) {
+            simulation.clearObstacles();
+            populate(simulation, benchmark.obstacleCount);
+        }
+    }
+
+    /**
+     * Fills the obstacle store of the simulation, placing the i-th obstacle like {@link FrameBenchmark#place}.
+     *
+     * @param simulation the simulation to fill
+     * @param count      the number of obstacles to add
+     */
+    static void populate(GameSimulation simulation, int count) {
+        ObstacleStore store = simulation.getObstacleStore();
+        Obstacle template = new Obstacle(0, 2);
+        for (int i = 0; i < count; i++) {
+            FrameBenchmark.place(simulation, template, i);
+            int lane = (int) ((template.getX() - GameSimulation.ROAD_MARGIN) / simulation.getLaneWidth());
+            int slot = store.add(template.getX(), lane, template.getSpeed(), i % 14);
+            store.getY()[slot] = template.getY();
+            store.getPreviousY()[slot] = template.getY();
+        }
+    }
+
+    /**
+     * Moves every obstacle by one tick.
+     *
+     * @return the obstacle count, so the loop cannot be eliminated
+     */
+    @Benchmark
+    public int update() {
+        ObstacleStore store = simulation.getObstacleStore();
+        store.update();
+        return store.size();
+    }
+
+    /**
+     * Checks for collisions through the simulation.
+     *
+     * @return {@code true} if a collision was found
+     */
+    @Benchmark
+    public boolean checkCollisions() {
+        return simulation.checkCollisions();
+    }
+
+    /**
+     * Moves every obstacle by one tick and culls the ones that left the screen.
+     *
+     * @param cull the state holding the obstacles to update
+     * @return the number of obstacles left
+     */
+    @Benchmark
+    public int updateGameObjects(Cull cull) {
+        cull.simulation.updateGameObjects();
+        return cull.simulation.getObstacleCount();
+    }
+}
@@ -0,0 +1,105 @@
+package bench;
+
+import game.GameSimulation;
+import game.Obstacle;
+import game.SpriteAtlas;
+import game.SpriteBatch;
+import game.SpriteCache;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the {@link SpriteBatch} against an offscreen canvas, in sprites drawn per millisecond, for
+ * a share of rotated sprites from none to all. The batched drawing, with one transform set per rotated sprite,
+ * is compared with saving, rotating and restoring the state of the graphics context around each one. The
+ * sprites are drawn either from their own images or from the single texture of the {@link SpriteAtlas}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteBatchBenchmark {
+
+    private static final int SPRITES = 1000;
+
+    @Param({"0", "10", "100"})
+    public int rotatedPercent;
+
+    @Param({"false", "true"})
+    public boolean atlas;
+
+    private Canvas canvas;
+    private SpriteBatch batch;
+
+    /**
+     * Starts the JavaFX toolkit, loads the sprites, from the atlas or not, and fills a batch with sprites spread
+     * over the road, the requested share of them tilted as the player vehicle is when it changes lanes.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Platform.startup(() -> { });
+        canvas = new Canvas(GameSimulation.WIDTH, GameSimulation.HEIGHT);
+        batch = atlas ? new SpriteBatch(SpriteCache.getAtlas()) : new SpriteBatch(SpriteCache.getSprites());
+        Random random = new Random(42);
+        for (int i = 0; i < SPRITES; i++) {
+            double rotation = random.nextInt(100) < rotatedPercent ? random.nextDouble() * 40 - 20 : 0;
+            batch.add(random.nextInt(SpriteCache.SPRITE_COUNT),
+                    random.nextDouble() * (GameSimulation.WIDTH - Obstacle.WIDTH),
+                    random.nextDouble() * (GameSimulation.HEIGHT - Obstacle.HEIGHT),
+                    Obstacle.WIDTH, Obstacle.HEIGHT, rotation);
+        }
+    }
+
+    /**
+     * Clears the whole canvas, which also discards the drawing commands buffered by the previous call.
+     */
+    @Setup(Level.Invocation)
+    public void clear() {
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+
+    /**
+     * Draws the batch with one transform per rotated sprite.
+     *
+     * @return the graphics context, so the call cannot be eliminated
+     */
+    @Benchmark
+    @OperationsPerInvocation(SPRITES)
+    public GraphicsContext batched() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        batch.draw(gc, 1, 1);
+        return gc;
+    }
+
+    /**
+     * Draws the batch saving and restoring the state of the graphics context around each rotated sprite.
+     *
+     * @return the graphics context, so the call cannot be eliminated
+     */
+    @Benchmark
+    @OperationsPerInvocation(SPRITES)
+    public GraphicsContext saveRestore() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        batch.drawWithSaveRestore(gc);
+        return gc;
+    }
+}
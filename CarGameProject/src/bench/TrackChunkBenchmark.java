@@ -0,0 +1,69 @@
+package bench;
+
+import game.GameSimulation;
+import game.TrackGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the throughput of the {@link TrackGenerator} laying out chunks of obstacles. It is kept
+ * apart from {@link TrackGeneratorBenchmark}, as the background thread would build chunks at the same time.
+ * The generator is restarted before each iteration, so the runs do not drift to unplayable levels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackChunkBenchmark {
+
+    @Param({"car", "bike", "truck"})
+    public String vehicleType;
+
+    @Param({"80", "40"})
+    public int spawnInterval;
+
+    private GameSimulation simulation;
+    private TrackGenerator generator;
+
+    /**
+     * Builds a generator for the requested vehicle, without its background thread.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulation = new GameSimulation(vehicleType, false, 42);
+        generator = new TrackGenerator();
+    }
+
+    /**
+     * Starts a new run of the generator.
+     */
+    @Setup(Level.Iteration)
+    public void restart() {
+        generator.restart(42, GameSimulation.DEFAULT_OBSTACLE_SPEED, spawnInterval,
+                simulation.getPlayerVehicle(), simulation.getLaneWidth());
+    }
+
+    /**
+     * Lays out a chunk of {@link TrackGenerator#ROWS_PER_CHUNK} rows.
+     *
+     * @return the tick after the chunk
+     */
+    @Benchmark
+    public long generateChunk() {
+        return generator.generateChunk();
+    }
+}
@@ -0,0 +1,87 @@
+package bench;
+
+import game.GameSimulation;
+import game.TrackGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the {@link TrackGenerator}: the cost for the simulation of reading the next row, with the
+ * chunks built inline or by the background thread. The throughput of laying out chunks is measured by
+ * {@link TrackChunkBenchmark}. The generator is restarted before each iteration, so the runs do not drift to
+ * unplayable levels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackGeneratorBenchmark {
+
+    @Param({"car", "bike", "truck"})
+    public String vehicleType;
+
+    @Param({"80", "40"})
+    public int spawnInterval;
+
+    @Param({"false", "true"})
+    public boolean lookahead;
+
+    private GameSimulation simulation;
+    private TrackGenerator generator;
+
+    /**
+     * Builds a generator for the requested vehicle, starting its background thread if requested.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulation = new GameSimulation(vehicleType, false, 42);
+        generator = new TrackGenerator();
+        if (lookahead) {
+            generator.startLookahead();
+        }
+    }
+
+    /**
+     * Starts a new run of the generator.
+     */
+    @Setup(Level.Iteration)
+    public void restart() {
+        generator.restart(42, GameSimulation.DEFAULT_OBSTACLE_SPEED, spawnInterval,
+                simulation.getPlayerVehicle(), simulation.getLaneWidth());
+    }
+
+    /**
+     * Stops the background thread.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        generator.stopLookahead();
+    }
+
+    /**
+     * Reads the next row and moves past it, as the simulation does when it spawns a row.
+     *
+     * @return the tick of the row
+     */
+    @Benchmark
+    public long nextRow() {
+        long tick = generator.getNextTick();
+        generator.advance();
+        return tick;
+    }
+}
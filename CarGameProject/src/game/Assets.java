@@ -0,0 +1,260 @@
+package game;
+
+import javafx.scene.image.Image;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+
+/**
+ * The {@code Assets} class loads every image of the game, as listed in the asset manifest
+ * {@code assets/manifest.txt}, and holds them by key.
+ * <p>
+ * The images are decoded in parallel on background threads, each one straight to the size it is
+ * displayed at, so the JavaFX application thread stays free to show a splash screen while they load,
+ * and no image larger than needed is kept in memory.
+ * <p>
+ * The assets folder is looked up, in order, in the folder given with {@code -Drushhour.assetsDir}, next to
+ * the installed classes (the {@code bin} folder or the jar), in the working directory and on the class path,
+ * so the game does not depend on the folder it is started from.
+ */
+public final class Assets {
+
+    /**
+     * The number of threads decoding images.
+     */
+    private static final int LOADER_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * An image declared in the manifest.
+     */
+    private static final class Entry {
+        final String path;
+        final double width;
+        final double height;
+        final boolean preserveRatio;
+
+        Entry(String path, double width, double height, boolean preserveRatio) {
+            this.path = path;
+            this.width = width;
+            this.height = height;
+            this.preserveRatio = preserveRatio;
+        }
+    }
+
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+    private static Map<String, Entry> manifest;
+    private static String baseUrl;
+    private static CompletableFuture<Void> loading;
+    private static volatile long decodedBytes = 0;
+    private static volatile long loadTimeNanos = 0;
+
+    private Assets() {
+    }
+
+    /**
+     * Starts loading every image of the manifest on background threads, if this has not been done yet.
+     *
+     * @param onProgress called from the loader threads with the fraction of images loaded, between 0 and 1,
+     *                   after each image; may be {@code null}
+     * @return a future completed once every image is loaded
+     */
+    public static synchronized CompletableFuture<Void> loadAsync(DoubleConsumer onProgress) {
+        if (loading != null) return loading;
+
+        long start = System.nanoTime();
+        Map<String, Entry> entries = manifest();
+        ExecutorService executor = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "asset-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger loaded = new AtomicInteger();
+        int total = entries.size();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(total);
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                images.put(entry.getKey(), decode(entry.getValue()));
+                if (onProgress != null) {
+                    onProgress.accept(loaded.incrementAndGet() / (double) total);
+                }
+            }, executor));
+        }
+        loading = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).whenComplete((result, error) -> {
+            executor.shutdown();
+            loadTimeNanos = System.nanoTime() - start;
+        });
+        return loading;
+    }
+
+    /**
+     * Loads every image of the manifest and waits until they are all decoded.
+     */
+    public static void loadAll() {
+        loadAsync(null).join();
+    }
+
+    /**
+     * Decodes an image synchronously, at its display size.
+     *
+     * @param entry the image declared in the manifest
+     * @return the decoded image, which is empty if it could not be loaded
+     */
+    private static Image decode(Entry entry) {
+        Image image = new Image(baseUrl + entry.path, entry.width, entry.height, entry.preserveRatio, true);
+        if (image.isError()) {
+            System.err.println("Error loading image: " + baseUrl + entry.path);
+        }
+        synchronized (Assets.class) {
+            decodedBytes += (long) image.getWidth() * (long) image.getHeight() * 4;
+        }
+        return image;
+    }
+
+    /**
+     * Gets a loaded image, waiting for the images to be loaded if needed.
+     *
+     * @param key the key of the image in the manifest
+     * @return the decoded image
+     * @throws IllegalArgumentException if the manifest has no image with this key
+     */
+    public static Image get(String key) {
+        Image image = images.get(key);
+        if (image == null) {
+            loadAll();
+            image = images.get(key);
+            if (image == null) {
+                throw new IllegalArgumentException("Unknown asset: " + key);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Gets the keys of the images declared in the manifest.
+     *
+     * @return the keys, in the order of the manifest
+     */
+    public static synchronized List<String> getKeys() {
+        return Collections.unmodifiableList(new ArrayList<>(manifest().keySet()));
+    }
+
+    /**
+     * Gets the number of bytes of decoded pixel data held (4 bytes per pixel).
+     *
+     * @return the decoded size in bytes
+     */
+    public static long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    /**
+     * Gets the time taken to load every image, from the start of the loading.
+     *
+     * @return the load time in nanoseconds, or 0 if the images have not been loaded yet
+     */
+    public static long getLoadTimeNanos() {
+        return loadTimeNanos;
+    }
+
+    /**
+     * Gets the URL of a file of the assets folder.
+     *
+     * @param path the path of the file, relative to the assets folder
+     * @return the URL of the file
+     */
+    public static synchronized String resolve(String path) {
+        if (baseUrl == null) {
+            baseUrl = findBaseUrl();
+        }
+        return baseUrl + path;
+    }
+
+    /**
+     * Finds the assets folder and returns its URL, ending with a slash.
+     *
+     * @return the URL of the assets folder
+     * @throws IllegalStateException if no assets folder with a manifest can be found
+     */
+    private static String findBaseUrl() {
+        List<Path> candidates = new ArrayList<>();
+        String configured = System.getProperty("rushhour.assetsDir");
+        if (configured != null) {
+            candidates.add(Paths.get(configured));
+        }
+        try {
+            Path code = Paths.get(Assets.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            // The classes are in bin/ or in a jar; the assets folder sits next to it or one level up.
+            candidates.add(code.resolveSibling("assets"));
+            if (code.getParent() != null) {
+                candidates.add(code.getParent().resolveSibling("assets"));
+            }
+        } catch (URISyntaxException | NullPointerException | SecurityException e) {
+            // No code source: fall back to the working directory and the class path.
+        }
+        candidates.add(Paths.get("assets"));
+
+        for (Path candidate : candidates) {
+            if (Files.isRegularFile(candidate.resolve("manifest.txt"))) {
+                return candidate.toAbsolutePath().normalize().toUri().toString();
+            }
+        }
+        URL resource = Assets.class.getResource("/assets/manifest.txt");
+        if (resource != null) {
+            String url = resource.toExternalForm();
+            return url.substring(0, url.length() - "manifest.txt".length());
+        }
+        throw new IllegalStateException("Assets folder not found, looked in " + candidates + " and on the class path");
+    }
+
+    /**
+     * Reads the manifest, if this has not been done yet.
+     *
+     * @return the images declared in the manifest, by key
+     * @throws IllegalStateException if the manifest cannot be read or is malformed
+     */
+    private static Map<String, Entry> manifest() {
+        if (manifest != null) return manifest;
+
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        String url = resolve("manifest.txt");
+        try (InputStream input = new URL(url).openStream();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.split("\\s+");
+                if (fields.length != 5) {
+                    throw new IllegalStateException("Malformed line " + number + " of " + url + ": " + line);
+                }
+                entries.put(fields[0], new Entry(fields[1], Double.parseDouble(fields[2]),
+                        Double.parseDouble(fields[3]), fields[4].equals("keep")));
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalStateException("Could not read the asset manifest " + url, e);
+        }
+        manifest = entries;
+        return manifest;
+    }
+}
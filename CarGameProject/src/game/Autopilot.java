@@ -0,0 +1,136 @@
+package game;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code Autopilot} class drives the player vehicle of a {@link GameSimulation} with the same lane
+ * changes a human player makes, {@link PlayerVehicle#moveLeft()} and {@link PlayerVehicle#moveRight()}.
+ * <p>
+ * Before each tick, it works out for every lane how many ticks are left before the nearest obstacle ahead
+ * reaches the vehicle. It keeps its lane while that time is comfortable, and otherwise heads for the lane
+ * with the most time left among those it can reach: every lane crossed on the way must stay clear for as
+ * long as it takes to slide into it. It only sees what a player sees, the obstacles on the road, and never
+ * looks at the random generator, so its runs are a fair measure of how hard a setting is.
+ */
+public class Autopilot {
+
+    /**
+     * The number of ticks the slowest vehicle takes to slide into the next lane.
+     */
+    private static final double LANE_CHANGE_TICKS = 35;
+
+    /**
+     * The time to contact, in ticks, above which the current lane is kept.
+     */
+    private static final double SAFE_TICKS = 2 * LANE_CHANGE_TICKS;
+
+    private final double[] timeToContact = new double[GameSimulation.LANE_COUNT];
+
+    /**
+     * Chooses a lane change for the coming tick and makes it.
+     *
+     * @param simulation the simulation whose player vehicle is driven
+     * @return {@link InputQueue#LEFT} or {@link InputQueue#RIGHT} if the vehicle changes lanes,
+     *         {@link InputQueue#EMPTY} if it keeps its lane
+     */
+    public int drive(GameSimulation simulation) {
+        int command = decide(simulation);
+        if (command == InputQueue.LEFT) {
+            simulation.getPlayerVehicle().moveLeft();
+        } else if (command == InputQueue.RIGHT) {
+            simulation.getPlayerVehicle().moveRight();
+        }
+        return command;
+    }
+
+    /**
+     * Chooses a lane change for the coming tick without making it.
+     *
+     * @param simulation the simulation whose player vehicle is driven
+     * @return {@link InputQueue#LEFT}, {@link InputQueue#RIGHT} or {@link InputQueue#EMPTY}
+     */
+    public int decide(GameSimulation simulation) {
+        PlayerVehicle playerVehicle = simulation.getPlayerVehicle();
+        if (playerVehicle.isMoving()) return InputQueue.EMPTY;
+
+        measureTimeToContact(simulation);
+        int lane = playerVehicle.currentLane;
+        if (timeToContact[lane] > SAFE_TICKS) return InputQueue.EMPTY;
+
+        int bestLane = lane;
+        for (int target = 0; target < timeToContact.length; target++) {
+            if (timeToContact[target] > timeToContact[bestLane] && isReachable(lane, target)) {
+                bestLane = target;
+            }
+        }
+        if (bestLane < lane) return InputQueue.LEFT;
+        if (bestLane > lane) return InputQueue.RIGHT;
+        return InputQueue.EMPTY;
+    }
+
+    /**
+     * Tells whether every lane between the current lane and a target lane stays clear long enough for the
+     * vehicle to slide into it.
+     *
+     * @param lane   the current lane
+     * @param target the target lane
+     * @return {@code true} if the target lane can be reached
+     */
+    private boolean isReachable(int lane, int target) {
+        int direction = Integer.signum(target - lane);
+        for (int k = lane + direction, steps = 1; k != target + direction; k += direction, steps++) {
+            if (timeToContact[k] <= steps * LANE_CHANGE_TICKS) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Computes, for every lane, the number of ticks before the nearest obstacle ahead reaches the top of
+     * the player vehicle: 0 for an obstacle already alongside, infinity for a lane with no obstacle ahead.
+     *
+     * @param simulation the simulation
+     */
+    private void measureTimeToContact(GameSimulation simulation) {
+        PlayerVehicle playerVehicle = simulation.getPlayerVehicle();
+        double top = playerVehicle.getY();
+        double bottom = top + playerVehicle.getHeight();
+        Arrays.fill(timeToContact, Double.POSITIVE_INFINITY);
+
+        ObstacleStore store = simulation.getObstacleStore();
+        if (store != null) {
+            double[] y = store.getY();
+            double[] speed = store.getSpeed();
+            int[] lane = store.getLane();
+            for (int i = 0; i < store.size(); i++) {
+                account(lane[i], y[i], speed[i], top, bottom);
+            }
+        } else {
+            List<Obstacle> obstacles = simulation.getObstacles();
+            double laneWidth = simulation.getLaneWidth();
+            for (int i = 0; i < obstacles.size(); i++) {
+                Obstacle obstacle = obstacles.get(i);
+                int lane = (int) ((obstacle.getX() - GameSimulation.ROAD_MARGIN) / laneWidth);
+                account(lane, obstacle.getY(), obstacle.getSpeed(), top, bottom);
+            }
+        }
+    }
+
+    /**
+     * Takes an obstacle into account in the time to contact of its lane.
+     *
+     * @param lane   the lane of the obstacle
+     * @param y      the y-coordinate of the obstacle
+     * @param speed  the speed of the obstacle, in pixels per tick
+     * @param top    the top of the player vehicle
+     * @param bottom the bottom of the player vehicle
+     */
+    private void account(int lane, double y, double speed, double top, double bottom) {
+        if (lane < 0 || lane >= timeToContact.length || y >= bottom) return;
+        double gap = top - (y + Obstacle.HEIGHT);
+        double ticks = gap <= 0 ? 0 : gap / speed;
+        if (ticks < timeToContact[lane]) {
+            timeToContact[lane] = ticks;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code BatchRunner} class plays many seeded games with the {@link Autopilot}, without rendering, for
+ * every combination of vehicle type, initial obstacle speed and spawn interval, and sums up how long the
+ * autopilot survived, the scores and the levels it reached.
+ * <p>
+ * The games are split between the threads of a fork-join pool. Each game has its own simulation and
+ * autopilot and writes its outcome to its own slot of the result arrays, so the threads share nothing and
+ * the throughput grows with the number of cores. The seed of a game only depends on the base seed and on
+ * its number, so the results do not depend on the number of threads, and every setting is played on the
+ * same seeds, which makes the settings easier to compare.
+ */
+public final class BatchRunner {
+
+    /**
+     * The largest number of games a batch plays on one thread instead of being split.
+     */
+    private static final int GRAIN = 2;
+
+    /**
+     * A combination of vehicle type and difficulty to evaluate.
+     */
+    public static final class Setting {
+        private final String vehicleType;
+        private final double obstacleSpeed;
+        private final int spawnInterval;
+
+        /**
+         * Constructs a setting.
+         *
+         * @param vehicleType   the type of the player's vehicle ("car", "bike", "truck")
+         * @param obstacleSpeed the speed of the obstacles at level 1, in pixels per tick
+         * @param spawnInterval the number of ticks between two rows of obstacles
+         */
+        public Setting(String vehicleType, double obstacleSpeed, int spawnInterval) {
+            this.vehicleType = vehicleType;
+            this.obstacleSpeed = obstacleSpeed;
+            this.spawnInterval = spawnInterval;
+        }
+
+        /**
+         * Gets the type of the player's vehicle.
+         *
+         * @return the vehicle type
+         */
+        public String getVehicleType() {
+            return vehicleType;
+        }
+
+        /**
+         * Gets the speed of the obstacles at level 1.
+         *
+         * @return the speed in pixels per tick
+         */
+        public double getObstacleSpeed() {
+            return obstacleSpeed;
+        }
+
+        /**
+         * Gets the number of ticks between two obstacles.
+         *
+         * @return the spawn interval in ticks
+         */
+        public int getSpawnInterval() {
+            return spawnInterval;
+        }
+    }
+
+    /**
+     * The outcome of the games played for one setting.
+     */
+    public static final class Summary {
+        private final Setting setting;
+        private final long[] ticks;
+        private final int[] scores;
+        private final int[] levels;
+        private final int capped;
+
+        Summary(Setting setting, long[] ticks, int[] scores, int[] levels, int capped) {
+            this.setting = setting;
+            this.ticks = ticks;
+            this.scores = scores;
+            this.levels = levels;
+            this.capped = capped;
+            Arrays.sort(this.ticks);
+            Arrays.sort(this.scores);
+            Arrays.sort(this.levels);
+        }
+
+        /**
+         * Gets the setting the games were played with.
+         *
+         * @return the setting
+         */
+        public Setting getSetting() {
+            return setting;
+        }
+
+        /**
+         * Gets the number of games played.
+         *
+         * @return the number of games
+         */
+        public int getGames() {
+            return ticks.length;
+        }
+
+        /**
+         * Gets the number of games still running when they reached the tick limit.
+         *
+         * @return the number of games stopped at the limit
+         */
+        public int getCappedGames() {
+            return capped;
+        }
+
+        /**
+         * Gets the number of ticks simulated over all the games.
+         *
+         * @return the total number of ticks
+         */
+        public long getTotalTicks() {
+            return Arrays.stream(ticks).sum();
+        }
+
+        /**
+         * Gets the mean survival time.
+         *
+         * @return the mean survival time in seconds of game time
+         */
+        public double getMeanSurvivalSeconds() {
+            return Arrays.stream(ticks).average().orElse(0) / GameSimulation.TICKS_PER_SECOND;
+        }
+
+        /**
+         * Gets a percentile of the survival time, by nearest rank.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the survival time in seconds of game time
+         */
+        public double getSurvivalSeconds(double percentile) {
+            return ticks.length == 0 ? 0 : ticks[rank(percentile, ticks.length)] / (double) GameSimulation.TICKS_PER_SECOND;
+        }
+
+        /**
+         * Gets the mean score.
+         *
+         * @return the mean score
+         */
+        public double getMeanScore() {
+            return Arrays.stream(scores).average().orElse(0);
+        }
+
+        /**
+         * Gets a percentile of the score, by nearest rank.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the score
+         */
+        public int getScore(double percentile) {
+            return scores.length == 0 ? 0 : scores[rank(percentile, scores.length)];
+        }
+
+        /**
+         * Gets the mean level reached.
+         *
+         * @return the mean level
+         */
+        public double getMeanLevel() {
+            return Arrays.stream(levels).average().orElse(0);
+        }
+
+        /**
+         * Gets a percentile of the level reached, by nearest rank.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the level
+         */
+        public int getLevel(double percentile) {
+            return levels.length == 0 ? 0 : levels[rank(percentile, levels.length)];
+        }
+
+        /**
+         * Gets the index of a percentile in a sorted array, by nearest rank.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @param length     the length of the array
+         * @return the index
+         */
+        private static int rank(double percentile, int length) {
+            return Math.max(0, Math.min(length - 1, (int) Math.ceil(percentile / 100 * length) - 1));
+        }
+    }
+
+    /**
+     * Plays a slice of the games of every setting, splitting it until it is small enough.
+     */
+    private static final class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Setting> settings;
+        private final int gamesPerSetting;
+        private final long baseSeed;
+        private final long maxTicks;
+        private final long[] ticks;
+        private final int[] scores;
+        private final int[] levels;
+        private final int from;
+        private final int to;
+
+        Batch(List<Setting> settings, int gamesPerSetting, long baseSeed, long maxTicks,
+              long[] ticks, int[] scores, int[] levels, int from, int to) {
+            this.settings = settings;
+            this.gamesPerSetting = gamesPerSetting;
+            this.baseSeed = baseSeed;
+            this.maxTicks = maxTicks;
+            this.ticks = ticks;
+            this.scores = scores;
+            this.levels = levels;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                for (int i = from; i < to; i++) {
+                    Setting setting = settings.get(i / gamesPerSetting);
+                    GameSimulation simulation = new GameSimulation(setting.getVehicleType(), false,
+                            gameSeed(baseSeed, i % gamesPerSetting));
+                    simulation.setDifficulty(setting.getObstacleSpeed(), setting.getSpawnInterval());
+                    play(simulation, new Autopilot(), maxTicks);
+                    ticks[i] = simulation.getTick();
+                    scores[i] = simulation.score;
+                    levels[i] = simulation.level;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Batch(settings, gamesPerSetting, baseSeed, maxTicks, ticks, scores, levels, from, middle),
+                    new Batch(settings, gamesPerSetting, baseSeed, maxTicks, ticks, scores, levels, middle, to));
+        }
+    }
+
+    private BatchRunner() {
+    }
+
+    /**
+     * Plays a game with an autopilot until it is over or reaches a tick limit.
+     *
+     * @param simulation the simulation, at the start of a run
+     * @param autopilot  the autopilot driving the player vehicle
+     * @param maxTicks   the tick at which the game is stopped if it is still running
+     */
+    public static void play(GameSimulation simulation, Autopilot autopilot, long maxTicks) {
+        while (!simulation.isGameOver() && simulation.getTick() < maxTicks) {
+            autopilot.drive(simulation);
+            simulation.step();
+        }
+    }
+
+    /**
+     * Gets the seed of a game of a batch.
+     *
+     * @param baseSeed the seed of the batch
+     * @param game     the number of the game within its setting
+     * @return the seed of the game
+     */
+    public static long gameSeed(long baseSeed, int game) {
+        long z = baseSeed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Plays the same number of games for every setting on a fork-join pool.
+     *
+     * @param settings        the settings to evaluate
+     * @param gamesPerSetting the number of games played for each setting
+     * @param baseSeed        the seed from which the seed of every game is derived
+     * @param maxTicks        the tick at which a game still running is stopped
+     * @param pool            the pool playing the games
+     * @return the outcome of the games, one summary per setting in the order of the settings
+     * @throws IllegalArgumentException if the number of games or the tick limit is not positive
+     */
+    public static List<Summary> run(List<Setting> settings, int gamesPerSetting, long baseSeed, long maxTicks,
+                                    ForkJoinPool pool) {
+        if (gamesPerSetting <= 0 || maxTicks <= 0) {
+            throw new IllegalArgumentException("Invalid batch: " + gamesPerSetting + " games of at most " + maxTicks + " ticks");
+        }
+        int total = settings.size() * gamesPerSetting;
+        long[] ticks = new long[total];
+        int[] scores = new int[total];
+        int[] levels = new int[total];
+        pool.invoke(new Batch(settings, gamesPerSetting, baseSeed, maxTicks, ticks, scores, levels, 0, total));
+
+        List<Summary> summaries = new ArrayList<>(settings.size());
+        for (int s = 0; s < settings.size(); s++) {
+            int from = s * gamesPerSetting;
+            int to = from + gamesPerSetting;
+            int capped = 0;
+            for (int i = from; i < to; i++) {
+                if (ticks[i] >= maxTicks) capped++;
+            }
+            summaries.add(new Summary(settings.get(s), Arrays.copyOfRange(ticks, from, to),
+                    Arrays.copyOfRange(scores, from, to), Arrays.copyOfRange(levels, from, to), capped));
+        }
+        return Collections.unmodifiableList(summaries);
+    }
+
+    /**
+     * Runs a sweep and prints one line per setting, then the throughput. The arguments are
+     * {@code key=value} pairs, all optional: {@code games} per setting (1000), {@code vehicles} (car,bike,truck),
+     * {@code speeds} (2), {@code spawns} (80), {@code seed} (1), {@code threads} (all cores) and
+     * {@code maxSeconds} of game time per game (600).
+     *
+     * @param args the arguments
+     * @throws IllegalArgumentException if an argument is malformed
+     */
+    public static void main(String[] args) {
+        int games = 1000;
+        String[] vehicles = {"car", "bike", "truck"};
+        String[] speeds = {String.valueOf(GameSimulation.DEFAULT_OBSTACLE_SPEED)};
+        String[] spawns = {String.valueOf(GameSimulation.DEFAULT_SPAWN_INTERVAL)};
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long maxSeconds = 600;
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0) throw new IllegalArgumentException("Expected key=value: " + arg);
+            String value = arg.substring(equals + 1);
+            switch (arg.substring(0, equals)) {
+                case "games": games = Integer.parseInt(value); break;
+                case "vehicles": vehicles = value.split(","); break;
+                case "speeds": speeds = value.split(","); break;
+                case "spawns": spawns = value.split(","); break;
+                case "seed": seed = Long.parseLong(value); break;
+                case "threads": threads = Integer.parseInt(value); break;
+                case "maxSeconds": maxSeconds = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        List<Setting> settings = new ArrayList<>();
+        for (String vehicle : vehicles) {
+            for (String speed : speeds) {
+                for (String spawn : spawns) {
+                    settings.add(new Setting(vehicle, Double.parseDouble(speed), Integer.parseInt(spawn)));
+                }
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<Summary> summaries = run(settings, games, seed, maxSeconds * GameSimulation.TICKS_PER_SECOND, pool);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        System.out.printf("%-7s %5s %5s %6s | %-23s | %-24s | %-13s | %s%n", "vehicle", "speed", "spawn", "games",
+                "survival s mean p50 p95", "score mean p50 p95 max", "level mean max", "capped");
+        long totalTicks = 0;
+        for (Summary summary : summaries) {
+            Setting setting = summary.getSetting();
+            System.out.printf("%-7s %5.1f %5d %6d | %7.1f %7.1f %7.1f | %6.1f %5d %5d %5d | %6.1f %6d | %d%n",
+                    setting.getVehicleType(), setting.getObstacleSpeed(), setting.getSpawnInterval(), summary.getGames(),
+                    summary.getMeanSurvivalSeconds(), summary.getSurvivalSeconds(50), summary.getSurvivalSeconds(95),
+                    summary.getMeanScore(), summary.getScore(50), summary.getScore(95), summary.getScore(100),
+                    summary.getMeanLevel(), summary.getLevel(100), summary.getCappedGames());
+            totalTicks += summary.getTotalTicks();
+        }
+        System.out.printf("%d games, %d ticks in %.2f s on %d threads: %.0f games/s, %.2f M ticks/s (%.2f M per thread)%n",
+                settings.size() * games, totalTicks, seconds, threads, settings.size() * games / seconds,
+                totalTicks / seconds / 1e6, totalTicks / seconds / 1e6 / threads);
+    }
+}
@@ -0,0 +1,134 @@
+package game;
+
+/**
+ * The {@code Collision} class provides allocation-free collision tests between axis-aligned boxes
+ * given by their coordinates. Besides the discrete overlap test, it provides a swept test that checks
+ * the whole path travelled by two boxes during a tick, so that a fast obstacle cannot pass through
+ * the player vehicle between two ticks.
+ */
+public final class Collision {
+
+    private Collision() {
+    }
+
+    /**
+     * Checks whether two boxes overlap. Boxes that only touch do not overlap, as with
+     * {@code Rectangle2D.intersects} in JavaFX.
+     *
+     * @param ax the x-coordinate of the first box
+     * @param ay the y-coordinate of the first box
+     * @param aw the width of the first box
+     * @param ah the height of the first box
+     * @param bx the x-coordinate of the second box
+     * @param by the y-coordinate of the second box
+     * @param bw the width of the second box
+     * @param bh the height of the second box
+     * @return {@code true} if the boxes overlap
+     */
+    public static boolean intersects(double ax, double ay, double aw, double ah,
+                                     double bx, double by, double bw, double bh) {
+        return bx < ax + aw && bx + bw > ax && by < ay + ah && by + bh > ay;
+    }
+
+    /**
+     * Computes the first moment at which two moving boxes overlap during a tick. Both boxes move in a
+     * straight line from their start position, by the given displacement, over the tick.
+     *
+     * @param ax  the x-coordinate of the first box at the start of the tick
+     * @param ay  the y-coordinate of the first box at the start of the tick
+     * @param aw  the width of the first box
+     * @param ah  the height of the first box
+     * @param adx the horizontal displacement of the first box during the tick
+     * @param ady the vertical displacement of the first box during the tick
+     * @param bx  the x-coordinate of the second box at the start of the tick
+     * @param by  the y-coordinate of the second box at the start of the tick
+     * @param bw  the width of the second box
+     * @param bh  the height of the second box
+     * @param bdx the horizontal displacement of the second box during the tick
+     * @param bdy the vertical displacement of the second box during the tick
+     * @return the fraction of the tick, between 0 and 1, at which the boxes start to overlap,
+     *         or -1 if they do not overlap during the tick
+     */
+    public static double timeOfImpact(double ax, double ay, double aw, double ah, double adx, double ady,
+                                      double bx, double by, double bw, double bh, double bdx, double bdy) {
+        // Work in the frame of the first box: only the second one moves.
+        double vx = bdx - adx;
+        double vy = bdy - ady;
+
+        double enter;
+        double exit;
+        if (vx == 0) {
+            if (!(bx < ax + aw && bx + bw > ax)) return -1;
+            enter = Double.NEGATIVE_INFINITY;
+            exit = Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (ax - bw - bx) / vx;
+            double t2 = (ax + aw - bx) / vx;
+            enter = Math.min(t1, t2);
+            exit = Math.max(t1, t2);
+        }
+
+        if (vy == 0) {
+            if (!(by < ay + ah && by + bh > ay)) return -1;
+        } else {
+            double t1 = (ay - bh - by) / vy;
+            double t2 = (ay + ah - by) / vy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+
+        if (enter >= exit || enter >= 1 || exit <= 0) return -1;
+        return Math.max(enter, 0);
+    }
+
+    /**
+     * Checks whether two moving boxes overlap at any moment of a tick.
+     *
+     * @param ax  the x-coordinate of the first box at the start of the tick
+     * @param ay  the y-coordinate of the first box at the start of the tick
+     * @param aw  the width of the first box
+     * @param ah  the height of the first box
+     * @param adx the horizontal displacement of the first box during the tick
+     * @param ady the vertical displacement of the first box during the tick
+     * @param bx  the x-coordinate of the second box at the start of the tick
+     * @param by  the y-coordinate of the second box at the start of the tick
+     * @param bw  the width of the second box
+     * @param bh  the height of the second box
+     * @param bdx the horizontal displacement of the second box during the tick
+     * @param bdy the vertical displacement of the second box during the tick
+     * @return {@code true} if the boxes overlap during the tick
+     */
+    public static boolean sweptIntersects(double ax, double ay, double aw, double ah, double adx, double ady,
+                                          double bx, double by, double bw, double bh, double bdx, double bdy) {
+        return timeOfImpact(ax, ay, aw, ah, adx, ady, bx, by, bw, bh, bdx, bdy) >= 0;
+    }
+
+    /**
+     * Checks whether the player vehicle and an obstacle overlap at their current positions.
+     *
+     * @param playerVehicle the player vehicle
+     * @param obstacle      the obstacle
+     * @return {@code true} if they overlap
+     */
+    public static boolean intersects(PlayerVehicle playerVehicle, Obstacle obstacle) {
+        return intersects(playerVehicle.getX(), playerVehicle.getY(), playerVehicle.getWidth(), playerVehicle.getHeight(),
+                obstacle.getX(), obstacle.getY(), obstacle.getWidth(), obstacle.getHeight());
+    }
+
+    /**
+     * Checks whether the player vehicle and an obstacle overlapped at any moment of the last tick,
+     * from their previous positions to their current ones.
+     *
+     * @param playerVehicle the player vehicle
+     * @param obstacle      the obstacle
+     * @return {@code true} if they overlapped during the last tick
+     */
+    public static boolean sweptIntersects(PlayerVehicle playerVehicle, Obstacle obstacle) {
+        double px = playerVehicle.getPreviousX();
+        double py = playerVehicle.getPreviousY();
+        return sweptIntersects(px, py, playerVehicle.getWidth(), playerVehicle.getHeight(),
+                playerVehicle.getX() - px, playerVehicle.getY() - py,
+                obstacle.getX(), obstacle.getPreviousY(), obstacle.getWidth(), obstacle.getHeight(),
+                0, obstacle.getY() - obstacle.getPreviousY());
+    }
+}
@@ -0,0 +1,78 @@
+package game;
+
+/**
+ * The {@code FixedTimestep} class turns the real time elapsed between frames into a number of
+ * fixed-length simulation ticks, so the game runs at the same speed whatever the refresh rate.
+ * The time left over after the last whole tick is kept in an accumulator and exposed as an
+ * interpolation factor that the renderer uses to blend the last two simulation states.
+ */
+public class FixedTimestep {
+
+    /**
+     * The longest frame taken into account, so a long stall does not trigger a burst of ticks.
+     */
+    private static final long MAX_FRAME_NANOS = 250_000_000L;
+
+    /**
+     * The duration of one simulation tick, in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * The time not yet consumed by a tick, in nanoseconds.
+     */
+    private long accumulator = 0;
+
+    /**
+     * The timestamp of the previous frame, or -1 if no frame has been seen since the last reset.
+     */
+    private long lastFrameNanos = -1;
+
+    /**
+     * Constructs a fixed timestep running at the given rate.
+     *
+     * @param ticksPerSecond the number of simulation ticks per second
+     */
+    public FixedTimestep(int ticksPerSecond) {
+        this.tickNanos = 1_000_000_000L / ticksPerSecond;
+    }
+
+    /**
+     * Adds the time elapsed since the previous frame to the accumulator and returns the number of
+     * whole ticks to simulate for this frame. The first frame after a reset simulates nothing.
+     *
+     * @param now the timestamp of the current frame, in nanoseconds
+     * @return the number of ticks to simulate
+     */
+    public int advance(long now) {
+        if (lastFrameNanos < 0) {
+            lastFrameNanos = now;
+            return 0;
+        }
+
+        long elapsed = Math.min(now - lastFrameNanos, MAX_FRAME_NANOS);
+        lastFrameNanos = now;
+        accumulator += Math.max(elapsed, 0);
+
+        int ticks = (int) (accumulator / tickNanos);
+        accumulator -= ticks * tickNanos;
+        return ticks;
+    }
+
+    /**
+     * Gets how far the current frame lies between the last two simulation ticks.
+     *
+     * @return the interpolation factor, between 0 (previous tick) and 1 (last tick)
+     */
+    public double getAlpha() {
+        return (double) accumulator / tickNanos;
+    }
+
+    /**
+     * Forgets the previous frame and the accumulated time, for instance when the game is resumed.
+     */
+    public void reset() {
+        accumulator = 0;
+        lastFrameNanos = -1;
+    }
+}
@@ -0,0 +1,200 @@
+package game;
+
+/**
+ * The {@code FrameBudgetGovernor} class steps through a ladder of levels, from the most expensive to draw to
+ * the cheapest, from the time measured between frames. When the frames of a window of {@link #WINDOW} frames
+ * take longer on average than the frame budget allows, it moves to the next cheaper level; once the frames
+ * have kept within the budget for a while, the next more expensive level is tried again.
+ * <p>
+ * A level that turns out to miss the budget again right away doubles the time waited before the next attempt,
+ * up to {@link #MAX_UPGRADE_DELAY} frames, so the governor does not flap between two levels. Every change of
+ * level is counted and reported to the {@link TransitionListener}, if there is one.
+ */
+public class FrameBudgetGovernor {
+
+    /**
+     * Receives the changes of level of a governor.
+     */
+    public interface TransitionListener {
+
+        /**
+         * Called when the governor changes level.
+         *
+         * @param from           the previous level
+         * @param to             the new level
+         * @param meanFrameNanos the mean time between frames over the window that triggered the change
+         */
+        void onTransition(int from, int to, double meanFrameNanos);
+    }
+
+    /**
+     * The number of frames averaged before the level is reconsidered.
+     */
+    public static final int WINDOW = 30;
+
+    /**
+     * The number of frames within the budget after which a more expensive level is first tried.
+     */
+    public static final int INITIAL_UPGRADE_DELAY = 180;
+
+    /**
+     * The longest wait, in frames, before a more expensive level is tried.
+     */
+    public static final int MAX_UPGRADE_DELAY = 3600;
+
+    /**
+     * How much longer than the budget the average frame may take before a cheaper level is picked: one frame
+     * in five missing the refresh of the screen.
+     */
+    private static final double DOWNGRADE_RATIO = 1.2;
+
+    /**
+     * How much longer than the budget the average frame may take and still count as within it, for the jitter
+     * of the timestamps of frames shown at every refresh.
+     */
+    private static final double UPGRADE_RATIO = 1.05;
+
+    /**
+     * The longest time between two frames taken into account: a longer one is a pause, not a slow frame.
+     */
+    private static final long MAX_FRAME_NANOS = 250_000_000L;
+
+    private final int levelCount;
+    private final long budgetNanos;
+    private long lastFrameNanos = -1;
+    private long windowNanos = 0;
+    private int windowFrames = 0;
+    private int level = 0;
+    private int calmFrames = 0;
+    private int upgradeDelay = INITIAL_UPGRADE_DELAY;
+    private int framesSinceUpgrade = -1;
+    private int changes = 0;
+    private double meanFrameNanos = 0;
+    private TransitionListener listener;
+
+    /**
+     * Constructs a governor starting at the most expensive level.
+     *
+     * @param levelCount      the number of levels
+     * @param framesPerSecond the frame rate to hold, usually the refresh rate of the screen
+     * @throws IllegalArgumentException if there is no level
+     */
+    public FrameBudgetGovernor(int levelCount, int framesPerSecond) {
+        if (levelCount < 1) {
+            throw new IllegalArgumentException("A governor needs at least one level: " + levelCount);
+        }
+        this.levelCount = levelCount;
+        this.budgetNanos = 1_000_000_000L / framesPerSecond;
+    }
+
+    /**
+     * Sets the listener told about every change of level.
+     *
+     * @param listener the listener, or {@code null} for none
+     */
+    public void setTransitionListener(TransitionListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Records a frame and reconsiders the level at the end of each window.
+     *
+     * @param nowNanos the timestamp of the frame, in nanoseconds
+     * @return {@code true} if the level has changed
+     */
+    public boolean recordFrame(long nowNanos) {
+        long elapsed = nowNanos - lastFrameNanos;
+        boolean first = lastFrameNanos < 0;
+        lastFrameNanos = nowNanos;
+        if (first || elapsed <= 0 || elapsed > MAX_FRAME_NANOS) return false;
+
+        windowNanos += elapsed;
+        if (++windowFrames < WINDOW) return false;
+        meanFrameNanos = (double) windowNanos / windowFrames;
+        windowNanos = 0;
+        windowFrames = 0;
+        if (framesSinceUpgrade >= 0) {
+            framesSinceUpgrade += WINDOW;
+        }
+
+        if (meanFrameNanos > budgetNanos * DOWNGRADE_RATIO) {
+            calmFrames = 0;
+            if (level == levelCount - 1) return false;
+            if (framesSinceUpgrade >= 0 && framesSinceUpgrade <= 2 * WINDOW) {
+                upgradeDelay = Math.min(2 * upgradeDelay, MAX_UPGRADE_DELAY);
+            }
+            framesSinceUpgrade = -1;
+            changeLevel(level + 1);
+            return true;
+        }
+        if (meanFrameNanos > budgetNanos * UPGRADE_RATIO) {
+            calmFrames = 0;
+            return false;
+        }
+        calmFrames += WINDOW;
+        if (level == 0 || calmFrames < upgradeDelay) return false;
+        calmFrames = 0;
+        framesSinceUpgrade = 0;
+        changeLevel(level - 1);
+        return true;
+    }
+
+    /**
+     * Moves to a level and reports the change.
+     *
+     * @param to the new level
+     */
+    private void changeLevel(int to) {
+        int from = level;
+        level = to;
+        changes++;
+        if (listener != null) {
+            listener.onTransition(from, to, meanFrameNanos);
+        }
+    }
+
+    /**
+     * Gets the current level.
+     *
+     * @return the level, 0 for the most expensive one
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the number of levels.
+     *
+     * @return the number of levels
+     */
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    /**
+     * Gets the mean time between frames over the last complete window.
+     *
+     * @return the mean frame time in nanoseconds, 0 before the first window
+     */
+    public double getMeanFrameNanos() {
+        return meanFrameNanos;
+    }
+
+    /**
+     * Gets the number of frames within the budget after which the next more expensive level will be tried.
+     *
+     * @return the number of frames
+     */
+    public int getUpgradeDelay() {
+        return upgradeDelay;
+    }
+
+    /**
+     * Gets the number of times the level has changed.
+     *
+     * @return the number of changes
+     */
+    public int getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,498 @@
+package game;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code FrameProfiler} class records how long each phase of the game loop takes, frame by frame,
+ * and summarises the last few seconds as rolling percentiles.
+ * Recording a phase only adds a duration to a counter, and closing a frame copies the counters into
+ * ring buffers, so the profiler allocates nothing per frame and can stay on all the time. The
+ * percentiles, the allocation rate of the game loop thread and the garbage collection counts from the
+ * platform MXBeans are only computed every {@link #REFRESH_FRAMES} frames, by {@link #endFrame(int)}.
+ * <p>
+ * The profiler also keeps the input latency of the last {@link #LATENCY_WINDOW} lane changes: the time from
+ * the key press to the end of the first frame showing the vehicle moving, and the size of the scene graph
+ * with the number of layout passes it went through since the last refresh. It also counts the changes of
+ * level of the {@link FrameBudgetGovernor} adjusting the quality, if there is one, and keeps the last one.
+ */
+public class FrameProfiler {
+
+    /**
+     * The update of the player vehicle: rotation, bounce and sliding.
+     */
+    public static final int VEHICLE = 0;
+
+    /**
+     * The spawning of new obstacles.
+     */
+    public static final int SPAWN = 1;
+
+    /**
+     * The movement of the obstacles and the removal of the ones that left the screen.
+     */
+    public static final int UPDATE = 2;
+
+    /**
+     * The collision checks.
+     */
+    public static final int COLLISIONS = 3;
+
+    /**
+     * The drawing of the game panel.
+     */
+    public static final int DRAW = 4;
+
+    /**
+     * The CSS and layout passes of the scene, run by JavaFX after the game loop in each pulse. They are only
+     * done once the frame has been closed, and also in the pulses of a paused game, so they are recorded as a
+     * series of their own, one sample per pulse, with {@link #recordLayout(long)}.
+     */
+    public static final int LAYOUT = 5;
+
+    /**
+     * The number of phases recorded.
+     */
+    public static final int PHASE_COUNT = 6;
+
+    /**
+     * The number of frames kept to compute the percentiles, about four seconds at 60 frames per second.
+     */
+    public static final int WINDOW = 240;
+
+    /**
+     * The number of frames between two refreshes of the statistics.
+     */
+    public static final int REFRESH_FRAMES = 30;
+
+    /**
+     * The number of key presses kept to compute the input latency percentiles.
+     */
+    public static final int LATENCY_WINDOW = 64;
+
+    private static final String[] PHASE_NAMES = {"vehicle", "spawn", "update", "collisions", "draw", "layout"};
+
+    private final long[] current = new long[PHASE_COUNT];
+    private final long[][] samples = new long[PHASE_COUNT][WINDOW];
+    private final long[] sorted = new long[WINDOW];
+    private final long[][] percentiles = new long[PHASE_COUNT][3];
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private final long[] latencyPercentiles = new long[3];
+    private int layoutNext = 0;
+    private int layoutCount = 0;
+    private int latencyNext = 0;
+    private int latencyCount = 0;
+    private long inputCount = 0;
+    private int nodeCount = 0;
+    private long layoutPassCount = 0;
+    private long layoutPassesAtRefresh = 0;
+    private int layoutPasses = 0;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collectorBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    private int next = 0;
+    private int count = 0;
+    private int framesSinceRefresh = 0;
+    private long refreshCount = 0;
+    private int obstacleCount = 0;
+    private long lastRefreshNanos = 0;
+    private long lastAllocatedBytes = -1;
+    private double allocationRate = 0;
+    private long gcCount = 0;
+    private long gcTimeMillis = 0;
+    private long gcCountAtReset = 0;
+    private long gcTimeAtReset = 0;
+    private long qualityChanges = 0;
+    private int lastQualityFrom = -1;
+    private int lastQualityTo = -1;
+    private double lastQualityFrameNanos = 0;
+
+    /**
+     * Constructs a profiler with an empty history.
+     */
+    public FrameProfiler() {
+        reset();
+    }
+
+    /**
+     * Adds the duration of a phase to the current frame. A phase can be recorded several times per
+     * frame, for instance once per simulation tick.
+     *
+     * @param phase the phase, one of the constants of this class
+     * @param nanos the duration of the phase in nanoseconds
+     */
+    public void record(int phase, long nanos) {
+        current[phase] += nanos;
+    }
+
+    /**
+     * Records the duration of the CSS and layout passes of a pulse in the {@link #LAYOUT} series.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordLayout(long nanos) {
+        samples[LAYOUT][layoutNext] = nanos;
+        layoutNext = (layoutNext + 1) % WINDOW;
+        layoutCount = Math.min(layoutCount + 1, WINDOW);
+    }
+
+    /**
+     * Records the latency of a key press: the time from the press to the end of the first frame drawn
+     * with its effect.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void recordInputLatency(long nanos) {
+        latencies[latencyNext] = nanos;
+        latencyNext = (latencyNext + 1) % LATENCY_WINDOW;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+        inputCount++;
+    }
+
+    /**
+     * Counts a layout pass of the root of the scene graph.
+     */
+    public void recordLayoutPass() {
+        layoutPassCount++;
+    }
+
+    /**
+     * Records the number of nodes of the scene graph.
+     *
+     * @param nodeCount the number of nodes
+     */
+    public void recordNodeCount(int nodeCount) {
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Records a change of level of the governor adjusting the quality. Its signature matches
+     * {@link FrameBudgetGovernor.TransitionListener}, so it can be given to the governor as its listener.
+     *
+     * @param from           the previous level
+     * @param to             the new level
+     * @param meanFrameNanos the mean time between frames over the window that triggered the change
+     */
+    public void recordQualityChange(int from, int to, double meanFrameNanos) {
+        qualityChanges++;
+        lastQualityFrom = from;
+        lastQualityTo = to;
+        lastQualityFrameNanos = meanFrameNanos;
+    }
+
+    /**
+     * Closes the current frame and stores its phase durations in the history. Every
+     * {@link #REFRESH_FRAMES} frames, the statistics returned by the getters are refreshed.
+     *
+     * @param obstacleCount the number of obstacles on the road at the end of the frame
+     */
+    public void endFrame(int obstacleCount) {
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            if (phase == LAYOUT) continue;
+            samples[phase][next] = current[phase];
+            current[phase] = 0;
+        }
+        next = (next + 1) % WINDOW;
+        count = Math.min(count + 1, WINDOW);
+        this.obstacleCount = obstacleCount;
+
+        if (++framesSinceRefresh >= REFRESH_FRAMES) {
+            framesSinceRefresh = 0;
+            refresh();
+        }
+    }
+
+    /**
+     * Recomputes the percentiles of every phase and samples the MXBeans.
+     */
+    private void refresh() {
+        refreshCount++;
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            int n = phase == LAYOUT ? layoutCount : count;
+            System.arraycopy(samples[phase], 0, sorted, 0, n);
+            Arrays.sort(sorted, 0, n);
+            percentiles[phase][0] = percentile(50, n);
+            percentiles[phase][1] = percentile(95, n);
+            percentiles[phase][2] = percentile(99, n);
+        }
+        System.arraycopy(latencies, 0, sorted, 0, latencyCount);
+        Arrays.sort(sorted, 0, latencyCount);
+        latencyPercentiles[0] = percentile(50, latencyCount);
+        latencyPercentiles[1] = percentile(95, latencyCount);
+        latencyPercentiles[2] = latencyCount == 0 ? 0 : sorted[latencyCount - 1];
+        layoutPasses = (int) (layoutPassCount - layoutPassesAtRefresh);
+        layoutPassesAtRefresh = layoutPassCount;
+
+        long now = System.nanoTime();
+        long allocatedBytes = currentThreadAllocatedBytes();
+        if (allocatedBytes >= 0 && lastAllocatedBytes >= 0 && now > lastRefreshNanos) {
+            allocationRate = (allocatedBytes - lastAllocatedBytes) * 1e9 / (now - lastRefreshNanos);
+        }
+        lastAllocatedBytes = allocatedBytes;
+        lastRefreshNanos = now;
+
+        long collections = 0;
+        long collectionTime = 0;
+        for (int i = 0; i < collectorBeans.size(); i++) {
+            GarbageCollectorMXBean bean = collectorBeans.get(i);
+            collections += Math.max(0, bean.getCollectionCount());
+            collectionTime += Math.max(0, bean.getCollectionTime());
+        }
+        gcCount = collections - gcCountAtReset;
+        gcTimeMillis = collectionTime - gcTimeAtReset;
+    }
+
+    /**
+     * Gets a percentile, by nearest rank, of the sorted samples.
+     *
+     * @param p     the percentile, between 1 and 100
+     * @param count the number of sorted samples
+     * @return the percentile, or 0 if there is no sample
+     */
+    private long percentile(int p, int count) {
+        if (count == 0) return 0;
+        int rank = (int) Math.ceil(p / 100.0 * count);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Gets the number of bytes allocated so far by the calling thread, if the JVM supports it.
+     *
+     * @return the number of bytes allocated, or -1 if it cannot be measured
+     */
+    private long currentThreadAllocatedBytes() {
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean.getCurrentThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Clears the history and starts counting garbage collections from zero again.
+     */
+    public void reset() {
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            Arrays.fill(samples[phase], 0);
+            Arrays.fill(percentiles[phase], 0);
+        }
+        Arrays.fill(current, 0);
+        Arrays.fill(latencies, 0);
+        Arrays.fill(latencyPercentiles, 0);
+        layoutNext = 0;
+        layoutCount = 0;
+        latencyNext = 0;
+        latencyCount = 0;
+        inputCount = 0;
+        layoutPassesAtRefresh = layoutPassCount;
+        layoutPasses = 0;
+        next = 0;
+        count = 0;
+        framesSinceRefresh = 0;
+        allocationRate = 0;
+        lastAllocatedBytes = -1;
+        gcCountAtReset = 0;
+        gcTimeAtReset = 0;
+        for (GarbageCollectorMXBean bean : collectorBeans) {
+            gcCountAtReset += Math.max(0, bean.getCollectionCount());
+            gcTimeAtReset += Math.max(0, bean.getCollectionTime());
+        }
+        gcCount = 0;
+        gcTimeMillis = 0;
+        qualityChanges = 0;
+        lastQualityFrom = -1;
+        lastQualityTo = -1;
+        lastQualityFrameNanos = 0;
+    }
+
+    /**
+     * Gets the name of a phase, as shown in the overlay.
+     *
+     * @param phase the phase, one of the constants of this class
+     * @return the name of the phase
+     */
+    public static String getPhaseName(int phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    /**
+     * Gets the median duration of a phase per frame, as of the last refresh.
+     *
+     * @param phase the phase, one of the constants of this class
+     * @return the median duration in nanoseconds
+     */
+    public long getP50(int phase) {
+        return percentiles[phase][0];
+    }
+
+    /**
+     * Gets the 95th percentile of the duration of a phase per frame, as of the last refresh.
+     *
+     * @param phase the phase, one of the constants of this class
+     * @return the 95th percentile in nanoseconds
+     */
+    public long getP95(int phase) {
+        return percentiles[phase][1];
+    }
+
+    /**
+     * Gets the 99th percentile of the duration of a phase per frame, as of the last refresh.
+     *
+     * @param phase the phase, one of the constants of this class
+     * @return the 99th percentile in nanoseconds
+     */
+    public long getP99(int phase) {
+        return percentiles[phase][2];
+    }
+
+    /**
+     * Gets the median input latency, over the last {@link #LATENCY_WINDOW} key presses, as of the last refresh.
+     *
+     * @return the median latency in nanoseconds, or 0 if no key was pressed
+     */
+    public long getInputLatencyP50() {
+        return latencyPercentiles[0];
+    }
+
+    /**
+     * Gets the 95th percentile of the input latency, over the last {@link #LATENCY_WINDOW} key presses,
+     * as of the last refresh.
+     *
+     * @return the 95th percentile in nanoseconds, or 0 if no key was pressed
+     */
+    public long getInputLatencyP95() {
+        return latencyPercentiles[1];
+    }
+
+    /**
+     * Gets the longest input latency, over the last {@link #LATENCY_WINDOW} key presses, as of the last refresh.
+     *
+     * @return the longest latency in nanoseconds, or 0 if no key was pressed
+     */
+    public long getInputLatencyMax() {
+        return latencyPercentiles[2];
+    }
+
+    /**
+     * Gets the number of key presses whose latency was recorded since the profiler was created or reset.
+     *
+     * @return the number of key presses
+     */
+    public long getInputCount() {
+        return inputCount;
+    }
+
+    /**
+     * Gets the number of times the statistics have been refreshed, so that a reader can tell when they changed.
+     *
+     * @return the number of refreshes
+     */
+    public long getRefreshCount() {
+        return refreshCount;
+    }
+
+    /**
+     * Gets the number of frames in the history.
+     *
+     * @return the number of frames, at most {@link #WINDOW}
+     */
+    public int getFrameCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of obstacles on the road at the end of the last frame.
+     *
+     * @return the number of obstacles
+     */
+    public int getObstacleCount() {
+        return obstacleCount;
+    }
+
+    /**
+     * Gets the number of nodes of the scene graph, as last recorded.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the number of layout passes of the scene graph between the last two refreshes, that is over the
+     * last {@link #REFRESH_FRAMES} frames. A scene that does not change needs none.
+     *
+     * @return the number of layout passes
+     */
+    public int getLayoutPasses() {
+        return layoutPasses;
+    }
+
+    /**
+     * Gets the number of changes of level of the governor adjusting the quality since the profiler was
+     * created or reset.
+     *
+     * @return the number of changes
+     */
+    public long getQualityChanges() {
+        return qualityChanges;
+    }
+
+    /**
+     * Gets the level the governor left in its last change.
+     *
+     * @return the level, or -1 if it has not changed
+     */
+    public int getLastQualityFrom() {
+        return lastQualityFrom;
+    }
+
+    /**
+     * Gets the level the governor went to in its last change.
+     *
+     * @return the level, or -1 if it has not changed
+     */
+    public int getLastQualityTo() {
+        return lastQualityTo;
+    }
+
+    /**
+     * Gets the mean time between frames that triggered the last change of level of the governor.
+     *
+     * @return the mean time in nanoseconds, or 0 if it has not changed
+     */
+    public double getLastQualityFrameNanos() {
+        return lastQualityFrameNanos;
+    }
+
+    /**
+     * Gets the rate at which the game loop thread allocated memory between the last two refreshes.
+     *
+     * @return the allocation rate in bytes per second, or 0 if it cannot be measured
+     */
+    public double getAllocationRate() {
+        return allocationRate;
+    }
+
+    /**
+     * Gets the number of garbage collections since the profiler was created or reset, as of the last refresh.
+     *
+     * @return the number of garbage collections
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Gets the time spent in garbage collections since the profiler was created or reset, as of the last refresh.
+     *
+     * @return the garbage collection time in milliseconds
+     */
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+}
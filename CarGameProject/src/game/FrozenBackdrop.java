@@ -0,0 +1,195 @@
+package game;
+
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * The {@code FrozenBackdrop} class shows a blurred still of a node, the game panel, behind the pause and game
+ * over menus. The node is captured once when a menu is shown, reduced by {@link #DOWNSAMPLE} in each direction,
+ * blurred with a box blur at that size and drawn scaled back up with smoothing. A blur effect on the node
+ * itself would be computed again at every pulse the menu stays up; the still costs nothing once it is captured.
+ * <p>
+ * The images and pixel arrays are allocated at the first capture and reused by the next ones while the size
+ * of the node stays the same. Without blur, the capture is shown as it is, with no work on its pixels.
+ */
+public class FrozenBackdrop extends ImageView {
+
+    /**
+     * The factor by which the capture is reduced before it is blurred.
+     */
+    public static final int DOWNSAMPLE = 4;
+
+    /**
+     * The radius of the box blur, in pixels of the reduced capture. It spreads each pixel with a standard
+     * deviation of about 0.8 reduced pixels, 3.3 full-size pixels, as a {@code GaussianBlur(10)} does over the
+     * full-size node; the averaging of the reduction and the smoothing of the scaling add a little softness.
+     */
+    public static final int RADIUS = 1;
+
+    private final Node source;
+    private final SnapshotParameters parameters = new SnapshotParameters();
+    private WritableImage capture;
+    private WritableImage still;
+    private int[] pixels;
+    private int[] reduced;
+    private int[] scratch;
+    private boolean blurred = true;
+
+    /**
+     * Constructs a hidden backdrop of a node.
+     *
+     * @param source the node to capture
+     */
+    public FrozenBackdrop(Node source) {
+        this.source = source;
+        setSmooth(true);
+        setVisible(false);
+    }
+
+    /**
+     * Sets whether the next captures are blurred.
+     *
+     * @param blurred {@code true} to blur the captures, {@code false} to show them as they are
+     */
+    public void setBlurred(boolean blurred) {
+        this.blurred = blurred;
+    }
+
+    /**
+     * Captures the node as it is now drawn and shows the capture, blurred unless the blur is off. Must be called
+     * on the JavaFX application thread.
+     */
+    public void freeze() {
+        // The snapshot includes the transforms of the node, so it has the size the node is shown at.
+        int width = (int) Math.ceil(source.getBoundsInParent().getWidth());
+        int height = (int) Math.ceil(source.getBoundsInParent().getHeight());
+        int reducedWidth = Math.max(1, width / DOWNSAMPLE);
+        int reducedHeight = Math.max(1, height / DOWNSAMPLE);
+        if (capture == null || capture.getWidth() != width || capture.getHeight() != height) {
+            capture = new WritableImage(width, height);
+            still = new WritableImage(reducedWidth, reducedHeight);
+            pixels = new int[width * height];
+            reduced = new int[reducedWidth * reducedHeight];
+            scratch = new int[reduced.length];
+        }
+
+        source.snapshot(parameters, capture);
+        setFitWidth(width);
+        setFitHeight(height);
+        setVisible(true);
+        if (!blurred) {
+            setImage(capture);
+            return;
+        }
+        capture.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        downsample(pixels, width, height, reduced, DOWNSAMPLE);
+        boxBlur(reduced, scratch, reducedWidth, reducedHeight, RADIUS);
+        still.getPixelWriter().setPixels(0, 0, reducedWidth, reducedHeight, PixelFormat.getIntArgbInstance(),
+                reduced, 0, reducedWidth);
+        setImage(still);
+    }
+
+    /**
+     * Hides the backdrop. The images are kept for the next capture.
+     */
+    public void thaw() {
+        setVisible(false);
+    }
+
+    /**
+     * Reduces an image by averaging each square block of pixels into one. The pixels of the right and bottom
+     * edges that do not fill a whole block are dropped.
+     *
+     * @param source the ARGB pixels of the image, row by row
+     * @param width  the width of the image
+     * @param height the height of the image
+     * @param target the ARGB pixels of the reduced image, {@code width / factor} by {@code height / factor}
+     * @param factor the size of a block
+     */
+    public static void downsample(int[] source, int width, int height, int[] target, int factor) {
+        int targetWidth = Math.max(1, width / factor);
+        int targetHeight = Math.max(1, height / factor);
+        int blockWidth = Math.min(factor, width);
+        int blockHeight = Math.min(factor, height);
+        int area = blockWidth * blockHeight;
+        for (int ty = 0; ty < targetHeight; ty++) {
+            for (int tx = 0; tx < targetWidth; tx++) {
+                int a = 0, r = 0, g = 0, b = 0;
+                for (int y = ty * factor; y < ty * factor + blockHeight; y++) {
+                    for (int x = tx * factor; x < tx * factor + blockWidth; x++) {
+                        int p = source[y * width + x];
+                        a += p >>> 24;
+                        r += (p >> 16) & 0xff;
+                        g += (p >> 8) & 0xff;
+                        b += p & 0xff;
+                    }
+                }
+                target[ty * targetWidth + tx] = (a / area) << 24 | (r / area) << 16 | (g / area) << 8 | (b / area);
+            }
+        }
+    }
+
+    /**
+     * Blurs an image in place with a box blur, horizontally then vertically. Pixels beyond the edges are taken
+     * to repeat the edge pixels, so the edges do not darken.
+     *
+     * @param pixels  the ARGB pixels of the image, row by row
+     * @param scratch an array at least as long as {@code pixels}, overwritten
+     * @param width   the width of the image
+     * @param height  the height of the image
+     * @param radius  the number of pixels on each side of a pixel averaged with it
+     */
+    public static void boxBlur(int[] pixels, int[] scratch, int width, int height, int radius) {
+        blurLines(pixels, scratch, width, height, 1, width, radius);
+        blurLines(scratch, pixels, height, width, width, 1, radius);
+    }
+
+    /**
+     * Box-blurs the lines of an image along one direction, with a running sum per channel.
+     *
+     * @param source   the pixels to blur
+     * @param target   the blurred pixels
+     * @param length   the number of pixels of a line
+     * @param lines    the number of lines
+     * @param step     the distance in the arrays between two pixels of a line
+     * @param lineStep the distance in the arrays between two lines
+     * @param radius   the radius of the blur
+     */
+    private static void blurLines(int[] source, int[] target, int length, int lines, int step, int lineStep, int radius) {
+        int window = 2 * radius + 1;
+        for (int line = 0; line < lines; line++) {
+            int start = line * lineStep;
+            int a = 0, r = 0, g = 0, b = 0;
+            for (int i = -radius; i <= radius; i++) {
+                int p = source[start + clamp(i, length) * step];
+                a += p >>> 24;
+                r += (p >> 16) & 0xff;
+                g += (p >> 8) & 0xff;
+                b += p & 0xff;
+            }
+            for (int i = 0; i < length; i++) {
+                target[start + i * step] = (a / window) << 24 | (r / window) << 16 | (g / window) << 8 | (b / window);
+                int in = source[start + clamp(i + radius + 1, length) * step];
+                int out = source[start + clamp(i - radius, length) * step];
+                a += (in >>> 24) - (out >>> 24);
+                r += ((in >> 16) & 0xff) - ((out >> 16) & 0xff);
+                g += ((in >> 8) & 0xff) - ((out >> 8) & 0xff);
+                b += (in & 0xff) - (out & 0xff);
+            }
+        }
+    }
+
+    /**
+     * Clamps an index to a line.
+     *
+     * @param i      the index
+     * @param length the length of the line
+     * @return the nearest index within the line
+     */
+    private static int clamp(int i, int length) {
+        return i < 0 ? 0 : (i >= length ? length - 1 : i);
+    }
+}
@@ -2,118 +2,511 @@ package game;
 
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.ImageView;
 import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Represents the game panel where all the visual elements of the game are drawn, including the road, player vehicle, obstacles,
  * and lane dividers. It handles the scrolling of the road and updates the screen at each frame.
+ * The elements drawn are read from a {@link GameSimulation}, and their sprites from the {@link SpriteCache}.
+ * The sprites of a frame, the player vehicle tilted as it changes lanes, are gathered and drawn by a {@link SpriteBatch},
+ * all from the single texture of the {@link SpriteAtlas}.
+ * The road, sidewalks and lane dividers are pre-rendered once in a {@link RoadLayer}. In dirty-region mode,
+ * only the areas covered by sprites in the previous frame and the dashed dividers are repainted each frame.
+ * The score, level, elapsed time and obstacle speed are drawn over the road from the glyphs of a {@link HudLayer}.
+ * <p>
+ * Everything is drawn in world units, the coordinates of the {@link GameSimulation}, through a scale transform
+ * to the pixels of the canvas. The panel is fitted to a viewport of any size, keeping its aspect ratio, and can
+ * be drawn at a fraction of the resolution it is shown at, the canvas then being scaled up as a node.
  */
 public class GamePanel extends Canvas {
 
-    private PlayerVehicle playerVehicle;
-    private List<Obstacle> obstacles;
-    private double roadOffset = 0;
+    private GameSimulation simulation;
+    private final SpriteBatch sprites = new SpriteBatch(SpriteCache.getAtlas());
+    private final RoadLayer roadLayer;
+    private final HudLayer hudLayer = new HudLayer("SCORE", "LEVEL", "TIME", "SPEED");
+    private static final int HUD_SCORE = 0;
+    private static final int HUD_LEVEL = 1;
+    private static final int HUD_TIME = 2;
+    private static final int HUD_SPEED = 3;
+    private static final double HUD_MARGIN = 12;
+    private static final double HUD_LINE_HEIGHT = HudLayer.CELL_HEIGHT + 8;
+    private boolean dirtyRegions = false;
+    private boolean fullRepaint = true;
+    private double[] dirtyRects = new double[4 * 64];
+    private int dirtyCount = 0;
+    private FrameProfiler profiler;
+    private boolean profilerVisible = false;
+    private final String[] profilerLines = new String[FrameProfiler.PHASE_COUNT + 7];
+    private long profilerLinesRefresh = -1;
+    private static final Font PROFILER_FONT = Font.font("Monospaced", 11);
+    private static final Color PROFILER_BACKGROUND = Color.rgb(0, 0, 0, 0.6);
+    private int lastDrawCalls = 0;
+    private int lastTextureSwitches = 0;
+    private int textureSwitches = 0;
+    private double lastFillArea = 0;
+    private double displayScale = 1;
+    private double resolutionFactor = 1;
+    private double renderScale = 1;
+    private double renderScaleY = 1;
+    private int qualityTier = QualityGovernor.HIGH;
 
     /**
-     * Constructs a new game panel with the specified player vehicle and obstacles.
+     * Constructs a new game panel rendering the given simulation.
      *
-     * @param playerVehicle The player's vehicle to be drawn on the panel.
-     * @param obstacles The list of obstacles to be drawn on the panel.
+     * @param simulation The simulation whose player vehicle and obstacles are drawn on the panel.
      */
-    public GamePanel(PlayerVehicle playerVehicle, List<Obstacle> obstacles) {
-        super(600, 600);
-        this.playerVehicle = playerVehicle;
-        this.obstacles = obstacles;
+    public GamePanel(GameSimulation simulation) {
+        super(GameSimulation.WIDTH, GameSimulation.HEIGHT);
+        this.simulation = simulation;
+        roadLayer = new RoadLayer((int) GameSimulation.WIDTH, (int) GameSimulation.HEIGHT,
+                (int) GameSimulation.ROAD_MARGIN, GameSimulation.LANE_COUNT);
     }
 
     /**
-     * Resets the game panel with a new player vehicle and a new list of obstacles.
+     * Enables or disables the dirty-region mode, in which only the areas touched by sprites and the
+     * dashed dividers are repainted each frame instead of the whole background.
+     *
+     * @param dirtyRegions {@code true} to enable the dirty-region mode.
+     */
+    public void setDirtyRegions(boolean dirtyRegions) {
+        this.dirtyRegions = dirtyRegions;
+        requestFullRepaint();
+    }
+
+    /**
+     * Sets the profiler whose statistics are shown by the profiler overlay.
+     *
+     * @param profiler the profiler, or {@code null} for none
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+        profilerLinesRefresh = -1;
+    }
+
+    /**
+     * Shows or hides the profiler overlay, drawn in the top-left corner of the panel.
+     *
+     * @param profilerVisible {@code true} to show the overlay
+     */
+    public void setProfilerVisible(boolean profilerVisible) {
+        this.profilerVisible = profilerVisible;
+        requestFullRepaint();
+    }
+
+    /**
+     * Fits the panel to a viewport, scaling it as much as the viewport allows without changing its aspect ratio.
+     *
+     * @param width The width of the viewport, in pixels.
+     * @param height The height of the viewport, in pixels.
+     */
+    public void setViewport(double width, double height) {
+        displayScale = Math.max(Math.min(width / GameSimulation.WIDTH, height / GameSimulation.HEIGHT), 1e-3);
+        updateScale();
+    }
+
+    /**
+     * Sets the resolution the panel is drawn at, as a fraction of the resolution it is shown at. A lower
+     * resolution draws fewer pixels and is scaled up on screen.
+     *
+     * @param resolutionFactor The fraction of the display resolution, 1 to draw every pixel shown.
+     */
+    public void setResolutionFactor(double resolutionFactor) {
+        if (resolutionFactor <= 0 || resolutionFactor > 1) {
+            throw new IllegalArgumentException("The resolution factor must be in (0, 1]: " + resolutionFactor);
+        }
+        this.resolutionFactor = resolutionFactor;
+        updateScale();
+    }
+
+    /**
+     * Sets the quality tier the panel is drawn at. At the lower tiers, the sprites lose their image smoothing
+     * and the player vehicle its bounce, as the {@link QualityGovernor} describes.
+     *
+     * @param qualityTier The quality tier.
+     */
+    public void setQualityTier(int qualityTier) {
+        this.qualityTier = qualityTier;
+        getGraphicsContext2D().setImageSmoothing(QualityGovernor.hasImageSmoothing(qualityTier));
+        profilerLinesRefresh = -1;
+    }
+
+    /**
+     * Gets the quality tier the panel is drawn at.
+     *
+     * @return The quality tier.
+     */
+    public int getQualityTier() {
+        return qualityTier;
+    }
+
+    /**
+     * Gets the resolution the panel is drawn at, as a fraction of the resolution it is shown at.
+     *
+     * @return The resolution factor.
+     */
+    public double getResolutionFactor() {
+        return resolutionFactor;
+    }
+
+    /**
+     * Gets the number of canvas pixels per world unit.
+     *
+     * @return The render scale.
+     */
+    public double getRenderScale() {
+        return renderScale;
+    }
+
+    /**
+     * Resizes the canvas to the world drawn at the display scale times the resolution factor, rounded to whole
+     * pixels, scales the drawing commands from world units to those pixels and the node back to the display scale.
+     */
+    private void updateScale() {
+        double width = Math.max(1, Math.round(GameSimulation.WIDTH * displayScale * resolutionFactor));
+        double height = Math.max(1, Math.round(GameSimulation.HEIGHT * displayScale * resolutionFactor));
+        if (width != getWidth() || height != getHeight()) {
+            setWidth(width);
+            setHeight(height);
+        }
+        renderScale = width / GameSimulation.WIDTH;
+        renderScaleY = height / GameSimulation.HEIGHT;
+        getGraphicsContext2D().setTransform(renderScale, 0, 0, renderScaleY, 0, 0);
+        setScaleX(displayScale / renderScale);
+        setScaleY(displayScale / renderScaleY);
+        requestFullRepaint();
+    }
+
+    /**
+     * Makes the next frame repaint the whole background, for instance after something else was drawn on the panel.
+     */
+    public void requestFullRepaint() {
+        fullRepaint = true;
+    }
+
+    /**
+     * Resets the game panel with a new simulation to render.
      * This is called when restarting the game or changing the vehicle.
      *
-     * @param newPlayerVehicle The new player vehicle to be used.
-     * @param newObstacles The new list of obstacles to be displayed.
+     * @param newSimulation The new simulation to be displayed.
      */
-    public void reset(PlayerVehicle newPlayerVehicle, List<Obstacle> newObstacles) {
-        this.playerVehicle = newPlayerVehicle;
-        this.obstacles = newObstacles;
+    public void reset(GameSimulation newSimulation) {
+        this.simulation = newSimulation;
+        requestFullRepaint();
     }
 
     /**
-     * Draws the game elements including the road, player vehicle, obstacles, and lane dividers.
-     * This method is called every frame to update the game visuals.
+     * Draws the game elements as they are after the last simulation tick.
      */
     public void draw() {
+        draw(1.0);
+    }
+
+    /**
+     * Draws the game elements including the road, player vehicle, obstacles, and lane dividers.
+     * This method is called every frame to update the game visuals. Moving elements are drawn
+     * between their positions of the last two simulation ticks, so motion stays smooth whatever
+     * the refresh rate.
+     *
+     * @param alpha The interpolation factor, between 0 (previous tick) and 1 (last tick).
+     */
+    public void draw(double alpha) {
         GraphicsContext gc = getGraphicsContext2D();
-        roadOffset += 5;
-        if (roadOffset >= getHeight()) {
-            roadOffset = 0;
-        }
+        drawBackground(gc, simulation.getRoadOffset(alpha));
 
-        gc.setFill(Color.BLACK);
-        gc.fillRect(100, -roadOffset, getWidth() - 200, getHeight() * 2); // Extend to cover entire scroll
+        PlayerVehicle playerVehicle = simulation.getPlayerVehicle();
+        boolean motion = QualityGovernor.hasVehicleMotion(qualityTier);
+        addSprite(SpriteCache.getPlayerSpriteId(playerVehicle.getVehicleType()),
+                playerVehicle.getInterpolatedX(alpha),
+                motion ? playerVehicle.getInterpolatedY(alpha) : playerVehicle.getBaseY(),
+                playerVehicle.getWidth(),
+                playerVehicle.getHeight(),
+                motion ? playerVehicle.getInterpolatedRotation(alpha) : 0
+        );
 
-        drawSidewalks(gc);
+        ObstacleStore obstacleStore = simulation.getObstacleStore();
+        if (obstacleStore != null) {
+            addObstacles(obstacleStore.size(), obstacleStore.getX(), obstacleStore.getY(),
+                    obstacleStore.getPreviousY(), obstacleStore.getSprite(), alpha);
+        } else {
+            List<Obstacle> obstacles = simulation.getObstacles();
+            for (int i = 0; i < obstacles.size(); i++) {
+                Obstacle obstacle = obstacles.get(i);
+                addSprite(obstacle.getSpriteIndex(),
+                        obstacle.getX(),
+                        obstacle.getInterpolatedY(alpha),
+                        obstacle.getWidth(),
+                        obstacle.getHeight(),
+                        0
+                );
+            }
+        }
+        sprites.draw(gc, renderScale, renderScaleY);
 
-        drawLaneDividers(gc);
+        drawHud(gc, simulation.score, simulation.level, simulation.getTick(), simulation.getBaseObstacleSpeed());
+        drawForeground(gc);
+    }
 
-        ImageView playerImageView = playerVehicle.getImageView();
-        gc.drawImage(
-                playerImageView.getImage(),
-                playerImageView.getX(),
-                playerImageView.getY(),
-                playerImageView.getFitWidth(),
-                playerImageView.getFitHeight()
-        );
+    /**
+     * Draws a snapshot of the world published by a simulation running on another thread. The panel only
+     * reads the snapshot, so the simulation can go on with the next tick while the frame is drawn.
+     * A snapshot that has never been captured only draws the road.
+     *
+     * @param snapshot The snapshot to draw.
+     * @param alpha The interpolation factor, between 0 (tick before the snapshot) and 1 (tick of the snapshot).
+     */
+    public void draw(WorldSnapshot snapshot, double alpha) {
+        GraphicsContext gc = getGraphicsContext2D();
+        drawBackground(gc, snapshot.getRoadOffset(alpha));
 
-        for (Obstacle obstacle : obstacles) {
-            ImageView obstacleImageView = obstacle.getImageView();
-            gc.drawImage(
-                    obstacleImageView.getImage(),
-                    obstacleImageView.getX(),
-                    obstacleImageView.getY(),
-                    obstacleImageView.getFitWidth(),
-                    obstacleImageView.getFitHeight()
+        if (snapshot.getVehicleType() != null) {
+            boolean motion = QualityGovernor.hasVehicleMotion(qualityTier);
+            addSprite(SpriteCache.getPlayerSpriteId(snapshot.getVehicleType()),
+                    snapshot.getPlayerX(alpha),
+                    motion ? snapshot.getPlayerY(alpha) : snapshot.getPlayerBaseY(),
+                    snapshot.getPlayerWidth(),
+                    snapshot.getPlayerHeight(),
+                    motion ? snapshot.getPlayerRotation(alpha) : 0
             );
         }
+        addObstacles(snapshot.getObstacleCount(), snapshot.getObstacleX(), snapshot.getObstacleY(),
+                snapshot.getObstaclePreviousY(), snapshot.getObstacleSprite(), alpha);
+        sprites.draw(gc, renderScale, renderScaleY);
+
+        if (snapshot.getVehicleType() != null) {
+            drawHud(gc, snapshot.getScore(), snapshot.getLevel(), snapshot.getTick(), snapshot.getObstacleSpeed());
+        }
+        drawForeground(gc);
+    }
+
+    /**
+     * Starts a frame: repaints the road, either entirely or, in dirty-region mode, only under the areas
+     * drawn in the previous frame.
+     *
+     * @param gc The graphics context used for drawing.
+     * @param roadOffset The scrolling offset of the road.
+     */
+    private void drawBackground(GraphicsContext gc, double roadOffset) {
+        roadLayer.resetStatistics();
+        sprites.clear();
+
+        if (!dirtyRegions || fullRepaint) {
+            roadLayer.draw(gc, roadOffset);
+            fullRepaint = false;
+        } else {
+            // When scaled, the edges of the areas fall between pixels and are blended, so a unit around them is repainted too.
+            double pad = renderScale == 1 ? 0 : 1;
+            for (int i = 0; i < dirtyCount; i += 4) {
+                roadLayer.restore(gc, roadOffset, dirtyRects[i] - pad, dirtyRects[i + 1] - pad,
+                        dirtyRects[i + 2] + 2 * pad, dirtyRects[i + 3] + 2 * pad);
+            }
+            roadLayer.restoreDividers(gc, roadOffset);
+        }
+        dirtyCount = 0;
+    }
+
+    /**
+     * Draws the heads-up display: the score and level centered at the top of the road, the time elapsed
+     * since the start of the run and the obstacle speed in the top-right corner. Every value is drawn digit
+     * by digit from the glyph strip, so updating the display builds no string and touches no scene node.
+     *
+     * @param gc The graphics context used for drawing.
+     * @param score The score.
+     * @param level The level.
+     * @param tick The number of ticks since the start of the run.
+     * @param obstacleSpeed The speed of newly spawned obstacles, in pixels per tick.
+     */
+    private void drawHud(GraphicsContext gc, int score, int level, long tick, double obstacleSpeed) {
+        drawHudLine(gc, HUD_SCORE, score, (GameSimulation.WIDTH - hudLineWidth(HUD_SCORE, score)) / 2, HUD_MARGIN);
+        drawHudLine(gc, HUD_LEVEL, level, (GameSimulation.WIDTH - hudLineWidth(HUD_LEVEL, level)) / 2,
+                HUD_MARGIN + HUD_LINE_HEIGHT);
+
+        long seconds = tick / GameSimulation.TICKS_PER_SECOND;
+        double right = GameSimulation.WIDTH - HUD_MARGIN;
+        double w = hudLayer.getLabelWidth(HUD_TIME) + HudLayer.CELL_WIDTH + HudLayer.getClockWidth(seconds);
+        double x = hudLayer.drawLabel(gc, HUD_TIME, right - w, HUD_MARGIN) + HudLayer.CELL_WIDTH;
+        hudLayer.drawClock(gc, seconds, x, HUD_MARGIN);
+        markDirty(right - w, HUD_MARGIN, w, HudLayer.CELL_HEIGHT);
+
+        // The speed is shown in pixels per second, the unit the player sees the road scroll in.
+        long speed = Math.round(obstacleSpeed * GameSimulation.TICKS_PER_SECOND);
+        drawHudLine(gc, HUD_SPEED, speed, right - hudLineWidth(HUD_SPEED, speed), HUD_MARGIN + HUD_LINE_HEIGHT);
+    }
+
+    /**
+     * Draws a line of the heads-up display, a label followed by a number, and marks its area as drawn.
+     *
+     * @param gc The graphics context used for drawing.
+     * @param label The label, as indexed in the {@link HudLayer}.
+     * @param value The number.
+     * @param x The x-coordinate of the line.
+     * @param y The y-coordinate of the line.
+     */
+    private void drawHudLine(GraphicsContext gc, int label, long value, double x, double y) {
+        double numberX = hudLayer.drawLabel(gc, label, x, y) + HudLayer.CELL_WIDTH;
+        hudLayer.drawNumber(gc, value, 1, numberX, y);
+        markDirty(x, y, hudLineWidth(label, value), HudLayer.CELL_HEIGHT);
+    }
+
+    /**
+     * Computes the width of a line of the heads-up display.
+     *
+     * @param label The label, as indexed in the {@link HudLayer}.
+     * @param value The number.
+     * @return The width of the line.
+     */
+    private double hudLineWidth(int label, long value) {
+        return hudLayer.getLabelWidth(label) + HudLayer.CELL_WIDTH + HudLayer.getNumberWidth(value, 1);
     }
 
     /**
-     * Draws the grassy sidewalks on the left and right sides of the road.
-     * This method is called within the draw method to render the sidewalks.
+     * Ends a frame: draws the profiler overlay if it is shown and saves the frame statistics.
      *
      * @param gc The graphics context used for drawing.
      */
-    private void drawSidewalks(GraphicsContext gc) {
-        gc.setFill(Color.GREEN);
-        gc.fillRect(0, 0, 100, getHeight());
-        gc.fillRect(getWidth() - 100, 0, 100, getHeight());
+    private void drawForeground(GraphicsContext gc) {
+        if (profilerVisible && profiler != null) {
+            drawProfiler(gc);
+        }
+
+        lastDrawCalls = roadLayer.getDrawCalls();
+        lastFillArea = roadLayer.getFillArea();
+        lastTextureSwitches = sprites.getTextureSwitches() - textureSwitches;
+        textureSwitches = sprites.getTextureSwitches();
     }
 
     /**
-     * Draws the lane dividers, including dashed and continuous lines, to divide the lanes on the road.
-     * This method is called within the draw method to render the lane dividers.
+     * Adds a sprite to the batch of the frame and marks the box holding it, once rotated, as drawn.
+     *
+     * @param spriteId The id of the sprite in the {@link SpriteCache}.
+     * @param x The x-coordinate of the sprite.
+     * @param y The y-coordinate of the sprite.
+     * @param w The width of the sprite.
+     * @param h The height of the sprite.
+     * @param rotation The rotation of the sprite around its center, in degrees.
+     */
+    private void addSprite(int spriteId, double x, double y, double w, double h, double rotation) {
+        sprites.add(spriteId, x, y, w, h, rotation);
+        double boundsW = SpriteBatch.boundsWidth(w, h, rotation);
+        double boundsH = SpriteBatch.boundsHeight(w, h, rotation);
+        markDirty(x + (w - boundsW) / 2, y + (h - boundsH) / 2, boundsW, boundsH);
+    }
+
+    /**
+     * Records a drawn area in the frame statistics and, in dirty-region mode, remembers it so that the
+     * background under it is repainted in the next frame.
+     *
+     * @param x The x-coordinate of the area.
+     * @param y The y-coordinate of the area.
+     * @param w The width of the area.
+     * @param h The height of the area.
+     */
+    private void markDirty(double x, double y, double w, double h) {
+        roadLayer.countDraw(w, h);
+        if (dirtyRegions) {
+            if (dirtyCount + 4 > dirtyRects.length) {
+                dirtyRects = Arrays.copyOf(dirtyRects, dirtyRects.length * 2);
+            }
+            dirtyRects[dirtyCount++] = x;
+            dirtyRects[dirtyCount++] = y;
+            dirtyRects[dirtyCount++] = w;
+            dirtyRects[dirtyCount++] = h;
+        }
+    }
+
+    /**
+     * Draws the profiler overlay: the rolling percentiles of every phase of the game loop, the number of
+     * obstacles, the texture switches of the last frame, the allocation rate, the garbage collections, the input
+     * latency, the size and layout passes of the scene graph, the resolution and quality tier of the canvas and
+     * the changes of level of the governor adjusting them.
+     * Its text is only rebuilt when the profiler refreshes its statistics.
      *
      * @param gc The graphics context used for drawing.
      */
-    private void drawLaneDividers(GraphicsContext gc) {
-        gc.setStroke(Color.WHITE);
-        gc.setLineWidth(2);
-        double laneWidth = (getWidth() - 200) / 4;
+    private void drawProfiler(GraphicsContext gc) {
+        if (profiler.getRefreshCount() != profilerLinesRefresh) {
+            profilerLinesRefresh = profiler.getRefreshCount();
+            profilerLines[0] = String.format("%-10s %7s %7s %7s", "phase (us)", "p50", "p95", "p99");
+            for (int phase = 0; phase < FrameProfiler.PHASE_COUNT; phase++) {
+                profilerLines[phase + 1] = String.format("%-10s %7.1f %7.1f %7.1f", FrameProfiler.getPhaseName(phase),
+                        profiler.getP50(phase) / 1e3, profiler.getP95(phase) / 1e3, profiler.getP99(phase) / 1e3);
+            }
+            profilerLines[FrameProfiler.PHASE_COUNT + 1] = String.format("obstacles  %d  textures %d",
+                    profiler.getObstacleCount(), lastTextureSwitches);
+            profilerLines[FrameProfiler.PHASE_COUNT + 2] = String.format("alloc %.1f KB/s  gc %d (%d ms)",
+                    profiler.getAllocationRate() / 1024, profiler.getGcCount(), profiler.getGcTimeMillis());
+            profilerLines[FrameProfiler.PHASE_COUNT + 3] = String.format("input p50 %.1f p95 %.1f max %.1f ms",
+                    profiler.getInputLatencyP50() / 1e6, profiler.getInputLatencyP95() / 1e6, profiler.getInputLatencyMax() / 1e6);
+            profilerLines[FrameProfiler.PHASE_COUNT + 4] = String.format("nodes %d  layouts %d / %d frames",
+                    profiler.getNodeCount(), profiler.getLayoutPasses(), FrameProfiler.REFRESH_FRAMES);
+            profilerLines[FrameProfiler.PHASE_COUNT + 5] = String.format("canvas %.0fx%.0f (%.0f%%)  quality %s",
+                    getWidth(), getHeight(), resolutionFactor * 100, QualityGovernor.getTierName(qualityTier));
+            profilerLines[FrameProfiler.PHASE_COUNT + 6] = profiler.getQualityChanges() == 0
+                    ? "quality changes 0"
+                    : String.format("quality changes %d  last %d -> %d (%.1f ms)", profiler.getQualityChanges(),
+                    profiler.getLastQualityFrom(), profiler.getLastQualityTo(), profiler.getLastQualityFrameNanos() / 1e6);
+        }
 
-        double dashedLineX1 = 100 + laneWidth;
-        for (int y = -(int) roadOffset; y < getHeight() * 2; y += 40) {
-            gc.strokeLine(dashedLineX1, y, dashedLineX1, y + 20);
+        double x = 8;
+        double y = 8;
+        double w = 250;
+        double h = profilerLines.length * 14 + 8;
+        gc.setFill(PROFILER_BACKGROUND);
+        gc.fillRect(x, y, w, h);
+        gc.setFill(Color.WHITE);
+        gc.setFont(PROFILER_FONT);
+        for (int i = 0; i < profilerLines.length; i++) {
+            gc.fillText(profilerLines[i], x + 6, y + 16 + i * 14);
         }
+        markDirty(x, y, w, h);
+    }
 
-        double continuousLineX = 100 + 2 * laneWidth;
-        gc.strokeLine(continuousLineX, -(int) roadOffset, continuousLineX, getHeight() * 2);
+    /**
+     * Gets the number of draw calls issued by the last frame.
+     *
+     * @return The number of draw calls.
+     */
+    public int getLastDrawCalls() {
+        return lastDrawCalls;
+    }
+
+    /**
+     * Gets the number of times the last frame switched the texture its sprites are drawn from.
+     *
+     * @return The number of texture switches.
+     */
+    public int getLastTextureSwitches() {
+        return lastTextureSwitches;
+    }
 
-        double dashedLineX2 = 100 + 3 * laneWidth;
-        for (int y = -(int) roadOffset; y < getHeight() * 2; y += 40) {
-            gc.strokeLine(dashedLineX2, y, dashedLineX2, y + 20);
+    /**
+     * Gets the area, in pixels, filled by the last frame.
+     *
+     * @return The filled area.
+     */
+    public double getLastFillArea() {
+        return lastFillArea;
+    }
+
+    /**
+     * Adds obstacles to the batch of the frame straight from primitive arrays, such as those of an obstacle
+     * store or a snapshot. Obstacles still entirely above the screen are skipped.
+     *
+     * @param size The number of obstacles.
+     * @param x The x-coordinates of the obstacles.
+     * @param y The y-coordinates of the obstacles at the last tick.
+     * @param previousY The y-coordinates of the obstacles at the previous tick.
+     * @param sprite The sprite indices of the obstacles.
+     * @param alpha The interpolation factor, between 0 (previous tick) and 1 (last tick).
+     */
+    private void addObstacles(int size, double[] x, double[] y, double[] previousY, int[] sprite, double alpha) {
+        for (int i = 0; i < size; i++) {
+            double drawY = previousY[i] + (y[i] - previousY[i]) * alpha;
+            if (drawY + Obstacle.HEIGHT <= 0) continue;
+            addSprite(sprite[i], x[i], drawY, Obstacle.WIDTH, Obstacle.HEIGHT, 0);
         }
     }
 }
@@ -0,0 +1,635 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The {@code GameSimulation} class holds every game rule: scoring, levels, obstacle spawning,
+ * obstacle movement and collision detection. It uses no JavaFX type and is advanced one tick at a
+ * time through {@link #step()}, so it can be driven by the JavaFX game loop as well as by tests
+ * and batch jobs running without a display.
+ * The {@link GameWindow} and the {@link GamePanel} observe the simulation and render its state.
+ */
+public class GameSimulation {
+    public static final double WIDTH = 600;
+    public static final double HEIGHT = 600;
+    public static final double ROAD_MARGIN = 100;
+    public static final int LANE_COUNT = 4;
+    public static final int TICKS_PER_SECOND = 60;
+    public static final double ROAD_SCROLL_SPEED = 5;
+    public static final double DEFAULT_OBSTACLE_SPEED = 2.0;
+    public static final int DEFAULT_SPAWN_INTERVAL = 80;
+
+    private final String vehicleType;
+    private final double laneWidth;
+    private final List<Obstacle> obstacles = new ArrayList<>();
+    private final ObstaclePool obstaclePool = new ObstaclePool();
+    private final LaneIndex laneIndex;
+    private final ObstacleStore obstacleStore;
+    private final TrackGenerator track = new TrackGenerator();
+    private boolean legacySpawning = false;
+    private static final Random SEED_SOURCE = new Random();
+    private final Random random = new Random();
+    private long seed;
+    private PlayerVehicle playerVehicle;
+    private SimulationListener listener = new SimulationListener() { };
+    private FrameProfiler profiler;
+    private long tick = 0;
+    private boolean gameOver = false;
+    private boolean sweptCollisions = true;
+    public int score = 0;
+    public int level = 1;
+    private double initialObstacleSpeed = DEFAULT_OBSTACLE_SPEED;
+    private int spawnInterval = DEFAULT_SPAWN_INTERVAL;
+    private double baseObstacleSpeed = DEFAULT_OBSTACLE_SPEED;
+
+    /**
+     * Constructs a new simulation for the given vehicle type, keeping its obstacles as {@link Obstacle} objects.
+     *
+     * @param vehicleType the type of the player's vehicle ("car", "bike", "truck")
+     * @throws IllegalArgumentException if the vehicle type is unknown
+     */
+    public GameSimulation(String vehicleType) {
+        this(vehicleType, false);
+    }
+
+    /**
+     * Constructs a new simulation for the given vehicle type, with a new random seed.
+     *
+     * @param vehicleType      the type of the player's vehicle ("car", "bike", "truck")
+     * @param useObstacleStore {@code true} to keep the obstacles in an {@link ObstacleStore} of primitive
+     *                         arrays, for stress configurations, instead of a list of {@link Obstacle} objects
+     * @throws IllegalArgumentException if the vehicle type is unknown
+     */
+    public GameSimulation(String vehicleType, boolean useObstacleStore) {
+        this(vehicleType, useObstacleStore, newSeed());
+    }
+
+    /**
+     * Constructs a new simulation for the given vehicle type. Two simulations built with the same
+     * arguments and given the same inputs at the same ticks play exactly the same run.
+     *
+     * @param vehicleType      the type of the player's vehicle ("car", "bike", "truck")
+     * @param useObstacleStore {@code true} to keep the obstacles in an {@link ObstacleStore} of primitive
+     *                         arrays, for stress configurations, instead of a list of {@link Obstacle} objects
+     * @param seed             the seed of the random generator choosing the lanes and sprites of the obstacles
+     * @throws IllegalArgumentException if the vehicle type is unknown
+     */
+    public GameSimulation(String vehicleType, boolean useObstacleStore, long seed) {
+        this.vehicleType = vehicleType;
+        this.seed = seed;
+        this.random.setSeed(seed);
+        this.laneWidth = (WIDTH - 2 * ROAD_MARGIN) / LANE_COUNT;
+        this.laneIndex = new LaneIndex(LANE_COUNT, ROAD_MARGIN, laneWidth);
+        this.obstacleStore = useObstacleStore ? new ObstacleStore(1024) : null;
+        this.playerVehicle = createVehicle(vehicleType);
+        restartTrack();
+    }
+
+    /**
+     * Draws a seed for a new run.
+     *
+     * @return the seed
+     */
+    private static long newSeed() {
+        return SEED_SOURCE.nextLong();
+    }
+
+    /**
+     * Dynamically creates a player vehicle based on the provided vehicle type.
+     *
+     * @param classType the type of the player's vehicle ("car", "bike", "truck")
+     * @return the created PlayerVehicle object
+     * @throws IllegalArgumentException if the vehicle type is unknown
+     */
+    private PlayerVehicle createVehicle(String classType) {
+        switch (classType.toLowerCase()) {
+            case "car":
+                return new PlayerCar(480, laneWidth);
+            case "bike":
+                return new PlayerBike(500, laneWidth);
+            case "truck":
+                return new PlayerTruck(450, laneWidth);
+            default:
+                throw new IllegalArgumentException("Unknown vehicle type: " + classType);
+        }
+    }
+
+    /**
+     * Chooses between swept collision checks, which follow the paths travelled during the last tick,
+     * and discrete ones, which only compare the current positions.
+     *
+     * @param sweptCollisions {@code true} for swept collision checks
+     */
+    public void setSweptCollisions(boolean sweptCollisions) {
+        this.sweptCollisions = sweptCollisions;
+    }
+
+    /**
+     * Chooses between the obstacles laid out by the {@link TrackGenerator}, which always leave a passable
+     * path, and the legacy spawning of one obstacle in a random lane every spawn interval, which replays of
+     * runs recorded before the track generator need. The current run is restarted with the same seed.
+     *
+     * @param legacySpawning {@code true} for the legacy spawning
+     */
+    public void setLegacySpawning(boolean legacySpawning) {
+        this.legacySpawning = legacySpawning;
+        reset(seed);
+    }
+
+    /**
+     * Tells whether the obstacles are spawned the legacy way, rather than laid out by the track generator.
+     *
+     * @return {@code true} for the legacy spawning
+     */
+    public boolean isLegacySpawning() {
+        return legacySpawning;
+    }
+
+    /**
+     * Starts building the upcoming obstacles on a background thread, so that stepping the simulation only
+     * reads rows that are already laid out. The runs are the same as without it.
+     */
+    public void startTrackLookahead() {
+        track.startLookahead();
+    }
+
+    /**
+     * Stops the background thread started by {@link #startTrackLookahead()}.
+     */
+    public void stopTrackLookahead() {
+        track.stopLookahead();
+    }
+
+    /**
+     * Sets the difficulty of the runs: the speed of the obstacles at level 1, which grows by one at every
+     * level, and the number of ticks between two rows of obstacles. The current run is restarted with the same seed.
+     * Replays only record runs at the default difficulty.
+     *
+     * @param initialObstacleSpeed the speed of the obstacles at level 1, in pixels per tick
+     * @param spawnInterval        the number of ticks between two rows of obstacles
+     * @throws IllegalArgumentException if the speed or the interval is not positive
+     */
+    public void setDifficulty(double initialObstacleSpeed, int spawnInterval) {
+        if (!(initialObstacleSpeed > 0) || spawnInterval <= 0) {
+            throw new IllegalArgumentException("Invalid difficulty: speed " + initialObstacleSpeed
+                    + ", spawn interval " + spawnInterval);
+        }
+        this.initialObstacleSpeed = initialObstacleSpeed;
+        this.spawnInterval = spawnInterval;
+        reset(seed);
+    }
+
+    /**
+     * Sets the listener notified of score changes, level-ups and the end of the game.
+     *
+     * @param listener the listener to notify
+     */
+    public void setListener(SimulationListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the profiler recording how long each phase of a tick takes.
+     *
+     * @param profiler the profiler, or {@code null} to record nothing
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Advances the simulation by one tick: updates the score, the player vehicle and the obstacles,
+     * spawns new obstacles and checks for collisions. A tick lasts 1 / {@link #TICKS_PER_SECOND}
+     * of a second, whatever the rate at which the game is rendered.
+     * The duration of each phase is recorded in the profiler, if one is set.
+     *
+     * @return {@code false} if the game is over, {@code true} otherwise
+     */
+    public boolean step() {
+        if (gameOver) return false;
+
+        tick++;
+        if (tick % TICKS_PER_SECOND == 0) {
+            updateScore();
+        }
+
+        long start = System.nanoTime();
+        playerVehicle.savePreviousPosition();
+        playerVehicle.updateRotation();
+        playerVehicle.updateBounce();
+        playerVehicle.updateSliding();
+        long vehicleEnd = System.nanoTime();
+
+        if (legacySpawning) {
+            if (tick % spawnInterval == 0) {
+                spawnObstacle();
+            }
+        } else {
+            while (track.getNextTick() <= tick) {
+                spawnRow();
+            }
+        }
+        long spawnEnd = System.nanoTime();
+
+        moveObstacles();
+        long moveEnd = System.nanoTime();
+
+        checkCollisions();
+        long collisionsEnd = System.nanoTime();
+        cullObstacles();
+
+        if (profiler != null) {
+            long cullEnd = System.nanoTime();
+            profiler.record(FrameProfiler.VEHICLE, vehicleEnd - start);
+            profiler.record(FrameProfiler.SPAWN, spawnEnd - vehicleEnd);
+            profiler.record(FrameProfiler.UPDATE, (moveEnd - spawnEnd) + (cullEnd - collisionsEnd));
+            profiler.record(FrameProfiler.COLLISIONS, collisionsEnd - moveEnd);
+        }
+        return !gameOver;
+    }
+
+    /**
+     * Updates the score and level. Increases the level every 10 points and speeds up obstacles.
+     */
+    public void updateScore() {
+        score++;
+        listener.onScoreChanged(score);
+
+        if (score % 10 == 0) { // Level up every 10 points
+            level++;
+            increaseObstacleSpeed();
+            listener.onLevelUp(level);
+        }
+    }
+
+    /**
+     * Spawns a new obstacle in a random lane.
+     */
+    private void spawnObstacle() {
+        int lane = random.nextInt(LANE_COUNT);
+        double laneX = ROAD_MARGIN + lane * laneWidth + (laneWidth - Obstacle.WIDTH) / 2;
+        if (obstacleStore != null) {
+            obstacleStore.add(laneX, lane, baseObstacleSpeed, random.nextInt(SpriteCache.OBSTACLE_SPRITE_COUNT));
+        } else {
+            Obstacle obstacle = obstaclePool.acquire(laneX, baseObstacleSpeed);
+            obstacle.setSpriteIndex(random.nextInt(SpriteCache.OBSTACLE_SPRITE_COUNT));
+            addObstacle(obstacle);
+        }
+    }
+
+    /**
+     * Spawns the next row laid out by the track generator, one obstacle in every lane it blocks.
+     */
+    private void spawnRow() {
+        int blocked = track.getNextBlocked();
+        for (int lane = 0; lane < LANE_COUNT; lane++) {
+            if ((blocked & (1 << lane)) == 0) continue;
+            double laneX = ROAD_MARGIN + lane * laneWidth + (laneWidth - Obstacle.WIDTH) / 2;
+            int spriteIndex = track.getNextSprite(lane);
+            if (obstacleStore != null) {
+                obstacleStore.add(laneX, lane, baseObstacleSpeed, spriteIndex);
+            } else {
+                Obstacle obstacle = obstaclePool.acquire(laneX, baseObstacleSpeed);
+                obstacle.setSpriteIndex(spriteIndex);
+                addObstacle(obstacle);
+            }
+        }
+        track.advance();
+    }
+
+    /**
+     * Adds an obstacle to the road.
+     *
+     * @param obstacle the obstacle to add, usually acquired from the {@link #getObstaclePool() pool}
+     */
+    public void addObstacle(Obstacle obstacle) {
+        obstacles.add(obstacle);
+        laneIndex.add(obstacle);
+    }
+
+    /**
+     * Removes every obstacle from the road and returns them to the pool.
+     */
+    public void clearObstacles() {
+        obstaclePool.releaseAll(obstacles);
+        laneIndex.clear();
+        if (obstacleStore != null) {
+            obstacleStore.clear();
+        }
+    }
+
+    /**
+     * Updates the positions of obstacles and removes the ones that have gone off-screen.
+     */
+    public void updateGameObjects() {
+        moveObstacles();
+        cullObstacles();
+    }
+
+    /**
+     * Moves every obstacle by its speed and restores the y-order of the lane index.
+     */
+    private void moveObstacles() {
+        if (obstacleStore != null) {
+            obstacleStore.update();
+            return;
+        }
+
+        for (int i = 0; i < obstacles.size(); i++) {
+            obstacles.get(i).updatePosition();
+        }
+        laneIndex.update();
+    }
+
+    /**
+     * Removes the obstacles that have gone off-screen.
+     * They are swapped with the last one, removed and returned to the pool, and dropped from the lane index.
+     * When the obstacles are kept in an {@link ObstacleStore}, the store is culled instead.
+     */
+    private void cullObstacles() {
+        if (obstacleStore != null) {
+            obstacleStore.cull(HEIGHT);
+            return;
+        }
+
+        for (int i = obstacles.size() - 1; i >= 0; i--) {
+            Obstacle obstacle = obstacles.get(i);
+            if (obstacle.getY() > HEIGHT) {
+                int last = obstacles.size() - 1;
+                obstacles.set(i, obstacles.get(last));
+                obstacles.remove(last);
+                obstaclePool.release(obstacle);
+            }
+        }
+        laneIndex.removeBelow(HEIGHT);
+    }
+
+    /**
+     * Checks for collisions between the player vehicle and obstacles and ends the game on the first one.
+     * Only the obstacles of the lanes and the y-range overlapped by the player vehicle are looked at,
+     * through the lane index.
+     * In swept mode, the default, the whole paths travelled by the player vehicle and the obstacles since
+     * the previous tick are checked, so that a fast obstacle cannot pass through the player vehicle
+     * between two ticks. Otherwise only their current positions are compared.
+     *
+     * @return {@code true} if the player vehicle collides with an obstacle
+     */
+    public boolean checkCollisions() {
+        boolean collision;
+        if (sweptCollisions) {
+            double left = Math.min(playerVehicle.getPreviousX(), playerVehicle.getX());
+            double right = Math.max(playerVehicle.getPreviousX(), playerVehicle.getX()) + playerVehicle.getWidth();
+            collision = obstacleStore != null
+                    ? obstacleStore.findSweptOverlap(laneIndex.laneOf(left), laneIndex.laneOf(right), playerVehicle) >= 0
+                    : laneIndex.findSweptOverlap(playerVehicle) != null;
+        } else {
+            double left = playerVehicle.getX();
+            double top = playerVehicle.getY();
+            double right = left + playerVehicle.getWidth();
+            double bottom = top + playerVehicle.getHeight();
+            collision = obstacleStore != null
+                    ? obstacleStore.findOverlap(laneIndex.laneOf(left), laneIndex.laneOf(right), left, top, right, bottom) >= 0
+                    : laneIndex.findOverlap(left, top, right, bottom) != null;
+        }
+        if (collision) {
+            gameOver = true;
+            listener.onGameOver(score);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Increases the speed of obstacles based on the current level.
+     */
+    private void increaseObstacleSpeed() {
+        baseObstacleSpeed += 1;
+    }
+
+    /**
+     * Resets the simulation to the start of a new run with the same vehicle type and a new random seed.
+     */
+    public void reset() {
+        reset(newSeed());
+    }
+
+    /**
+     * Resets the simulation to the start of a new run with the same vehicle type. The player vehicle, the
+     * obstacles and the track generator are reused, so that a restart allocates nothing.
+     *
+     * @param seed the seed of the random generator choosing the lanes and sprites of the obstacles
+     */
+    public void reset(long seed) {
+        this.seed = seed;
+        random.setSeed(seed);
+        tick = 0;
+        gameOver = false;
+        score = 0;
+        level = 1;
+        baseObstacleSpeed = initialObstacleSpeed;
+        clearObstacles();
+        playerVehicle.reset();
+        restartTrack();
+    }
+
+    /**
+     * Restarts the track generator for the current seed, difficulty and vehicle.
+     */
+    private void restartTrack() {
+        if (!legacySpawning) {
+            track.restart(seed, initialObstacleSpeed, spawnInterval, playerVehicle, laneWidth);
+        }
+    }
+
+    /**
+     * Computes the level reached at a tick of a run, going up every 10 seconds like the score.
+     *
+     * @param tick the tick
+     * @return the level, from 1
+     */
+    public static int levelAt(long tick) {
+        return 1 + (int) (tick / TICKS_PER_SECOND / 10);
+    }
+
+    /**
+     * Computes the speed of the obstacles spawned at a tick of a run.
+     *
+     * @param initialObstacleSpeed the speed of the obstacles at level 1, in pixels per tick
+     * @param tick                 the tick
+     * @return the speed, in pixels per tick
+     */
+    public static double obstacleSpeedAt(double initialObstacleSpeed, long tick) {
+        return initialObstacleSpeed + (levelAt(tick) - 1);
+    }
+
+    /**
+     * Computes a checksum of the state of the simulation: the tick, score, level and obstacle speed,
+     * the position of the player vehicle and the position and speed of every obstacle. A replayed run
+     * has diverged from the original one as soon as their checksums differ at the same tick.
+     *
+     * @return the checksum of the current state
+     */
+    public int checksum() {
+        long hash = tick;
+        hash = mix(hash, score);
+        hash = mix(hash, level);
+        hash = mix(hash, gameOver ? 1 : 0);
+        hash = mix(hash, Double.doubleToLongBits(baseObstacleSpeed));
+        hash = mix(hash, Double.doubleToLongBits(playerVehicle.getX()));
+        hash = mix(hash, Double.doubleToLongBits(playerVehicle.getY()));
+        hash = mix(hash, playerVehicle.currentLane);
+        if (obstacleStore != null) {
+            double[] x = obstacleStore.getX();
+            double[] y = obstacleStore.getY();
+            double[] speed = obstacleStore.getSpeed();
+            for (int i = 0; i < obstacleStore.size(); i++) {
+                hash = mix(hash, Double.doubleToLongBits(x[i]));
+                hash = mix(hash, Double.doubleToLongBits(y[i]));
+                hash = mix(hash, Double.doubleToLongBits(speed[i]));
+            }
+        } else {
+            for (int i = 0; i < obstacles.size(); i++) {
+                Obstacle obstacle = obstacles.get(i);
+                hash = mix(hash, Double.doubleToLongBits(obstacle.getX()));
+                hash = mix(hash, Double.doubleToLongBits(obstacle.getY()));
+                hash = mix(hash, Double.doubleToLongBits(obstacle.getSpeed()));
+            }
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Mixes a value into a running hash.
+     *
+     * @param hash  the running hash
+     * @param value the value to mix in
+     * @return the new hash
+     */
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Gets the seed of the current run.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the type of the player's vehicle.
+     *
+     * @return the vehicle type ("car", "bike", "truck")
+     */
+    public String getVehicleType() {
+        return vehicleType;
+    }
+
+    /**
+     * Gets the player vehicle.
+     *
+     * @return the player vehicle
+     */
+    public PlayerVehicle getPlayerVehicle() {
+        return playerVehicle;
+    }
+
+    /**
+     * Gets the obstacles currently on the road.
+     *
+     * @return the live list of obstacles
+     */
+    public List<Obstacle> getObstacles() {
+        return obstacles;
+    }
+
+    /**
+     * Gets the store of primitive arrays holding the obstacles, when the simulation uses one.
+     *
+     * @return the obstacle store, or {@code null} if the obstacles are kept as {@link Obstacle} objects
+     */
+    public ObstacleStore getObstacleStore() {
+        return obstacleStore;
+    }
+
+    /**
+     * Gets the number of obstacles currently on the road, whichever way they are stored.
+     *
+     * @return the number of obstacles
+     */
+    public int getObstacleCount() {
+        return obstacleStore != null ? obstacleStore.size() : obstacles.size();
+    }
+
+    /**
+     * Gets the pool recycling the obstacles of this simulation.
+     *
+     * @return the obstacle pool
+     */
+    public ObstaclePool getObstaclePool() {
+        return obstaclePool;
+    }
+
+    /**
+     * Gets the width of a lane.
+     *
+     * @return the lane width
+     */
+    public double getLaneWidth() {
+        return laneWidth;
+    }
+
+    /**
+     * Gets the number of ticks simulated since the start of the run.
+     *
+     * @return the current tick
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the scrolling offset of the road between the previous and the current tick.
+     *
+     * @param alpha the interpolation factor, between 0 (previous tick) and 1 (current tick)
+     * @return the road offset, between 0 and {@link #HEIGHT}
+     */
+    public double getRoadOffset(double alpha) {
+        return roadOffset(tick, alpha);
+    }
+
+    /**
+     * Gets the scrolling offset of the road between a tick and the previous one.
+     *
+     * @param tick  the tick
+     * @param alpha the interpolation factor, between 0 (previous tick) and 1 (the given tick)
+     * @return the road offset, between 0 and {@link #HEIGHT}
+     */
+    public static double roadOffset(long tick, double alpha) {
+        double distance = Math.max(tick - 1 + alpha, 0) * ROAD_SCROLL_SPEED;
+        return distance % HEIGHT;
+    }
+
+    /**
+     * Gets the current base speed given to newly spawned obstacles.
+     *
+     * @return the obstacle speed
+     */
+    public double getBaseObstacleSpeed() {
+        return baseObstacleSpeed;
+    }
+
+    /**
+     * Indicates whether the player has crashed.
+     *
+     * @return {@code true} if the game is over
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
@@ -1,142 +1,246 @@
 package game;
 
 import javafx.animation.AnimationTimer;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.geometry.Pos;
-import javafx.geometry.Rectangle2D;
+import javafx.application.Platform;
 import javafx.scene.Scene;
-import javafx.scene.control.Button;
-import javafx.scene.effect.DropShadow;
-import javafx.scene.effect.GaussianBlur;
-import javafx.scene.image.Image;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.StackPane;
-import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
-import javafx.scene.paint.CycleMethod;
-import javafx.scene.paint.LinearGradient;
-import javafx.scene.paint.Stop;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
-import javafx.util.Duration;
+import javafx.stage.WindowEvent;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
- * The GameWindow class is responsible for managing the gameplay interface, game logic,
- * player vehicle, obstacles, score, levels, and user input.
- * It contains methods to initialize the game UI, handle keyboard events, update game objects,
- * manage game state (play, pause, game over), and trigger animations.
+ * The GameWindow class is responsible for managing the gameplay interface and user input.
+ * It renders and observes a {@link GameSimulation}, which holds the game rules, and contains methods
+ * to initialize the game UI, handle keyboard events, manage game state (play, pause, game over),
+ * and trigger animations.
  */
-public class GameWindow {
-    private GamePanel gamePanel;
-    private List<Obstacle> obstacles;
-    private double laneWidth;
-    private final Random random = new Random();
+public class GameWindow implements SimulationListener {
+    private final GamePanel gamePanel;
+    private final GameSimulation simulation;
     private boolean gameOver = false;
     private boolean paused = true;
-    private VBox pauseMenu;
-    public int score = 0;
-    private int highScore = 0;
-    public int level = 1;
-    private double baseObstacleSpeed = 2.0;
-    private Text scoreText;
-    private Text levelText;
+    private final ScoreStore scoreStore;
     private StackPane root;
     private AnimationTimer gameLoop;
-    private PlayerVehicle playerVehicle;
-    private Text startText;
+    private final FixedTimestep timestep = new FixedTimestep(GameSimulation.TICKS_PER_SECOND);
+    private final FrameProfiler profiler = new FrameProfiler();
+    private boolean profilerVisible = false;
+    private ReplayRecorder recorder;
+    private final ExecutorService replayWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replay-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final SimulationRunner runner;
+    private final boolean simulationThread;
+    private long lastDrawnTick = -1;
+    private long lastShownPressNanos = 0;
+    private OverlayLayer overlays;
+    private long layoutStartNanos;
+    private final ResolutionScaler resolutionScaler;
+    private final QualityGovernor qualityGovernor;
+    private static final int LEADERBOARD_LINES = 5;
     public static KeyCode playerControlLeft = KeyCode.LEFT;
     public static KeyCode playerControlRight = KeyCode.RIGHT;
 
     /**
-     * Constructs a new GameWindow object, initializing the game panel, obstacles, and the player's vehicle.
+     * Constructs a new GameWindow object, initializing the simulation and the game panel rendering it.
      * Also sets up the user interface and the main game loop.
+     * Running with {@code -Drushhour.obstacleStore=true} keeps the obstacles in primitive arrays,
+     * for stress configurations, and with {@code -Drushhour.seed=<n>} plays the first run with the given seed.
+     * With {@code -Drushhour.simThread=true}, the simulation runs on its own thread and the game loop only
+     * draws the snapshots it publishes. The obstacles are laid out ahead of time on a background thread, which
+     * is stopped when a run ends and when the window is closed.
+     * Every run is recorded for replay. The window can be resized or put in full screen, with F11 or with
+     * {@code -Drushhour.fullscreen=true}, and {@code -Drushhour.dynamicResolution=true} lowers the resolution the
+     * game panel is drawn at while the frames take too long. With {@code -Drushhour.adaptiveQuality=true}, the
+     * eye-candy is dropped first, tier by tier, and the resolution only lowered past the lowest tier.
      *
      * @param stage the primary stage of the game window
      * @param classType the type of the player's vehicle (car, bike, truck)
+     * @param scoreStore the store recording the scores and holding the leaderboards
      */
-    public GameWindow(Stage stage, String classType) {
-        laneWidth = (600 - 200) / 4.0;
-        playerVehicle = createVehicle(classType);
+    public GameWindow(Stage stage, String classType, ScoreStore scoreStore) {
+        this.scoreStore = scoreStore;
+        SpriteCache.preload();
+        Long seed = Long.getLong("rushhour.seed");
+        boolean useObstacleStore = Boolean.getBoolean("rushhour.obstacleStore");
+        simulation = seed != null
+                ? new GameSimulation(classType, useObstacleStore, seed)
+                : new GameSimulation(classType, useObstacleStore);
+        simulation.startTrackLookahead();
+        recorder = new ReplayRecorder(simulation, ReplayRecorder.DEFAULT_CHECKSUM_INTERVAL);
+        runner = new SimulationRunner(simulation, recorder);
+        simulationThread = Boolean.getBoolean("rushhour.simThread");
+        if (simulationThread) {
+            // The simulation thread reports to the JavaFX application thread, which alone touches the scene.
+            // The score is drawn from the snapshots, so only level changes are reported.
+            // The profiler is not shared across threads, so only the draw phase is profiled.
+            simulation.setListener(new SimulationListener() {
+                @Override
+                public void onLevelUp(int level) {
+                    Platform.runLater(() -> GameWindow.this.onLevelUp(level));
+                }
+            });
+            runner.setOnRunEnded(() -> Platform.runLater(() -> {
+                onGameOver(simulation.score);
+                saveReplay();
+            }));
+        } else {
+            simulation.setListener(this);
+            simulation.setProfiler(profiler);
+        }
 
-        obstacles = new ArrayList<>();
-        gamePanel = new GamePanel(playerVehicle, obstacles);
+        gamePanel = createGamePanel();
+        boolean dynamicResolution = Boolean.getBoolean("rushhour.dynamicResolution");
+        if (Boolean.getBoolean("rushhour.adaptiveQuality")) {
+            qualityGovernor = new QualityGovernor(GameSimulation.TICKS_PER_SECOND, dynamicResolution);
+            qualityGovernor.setTransitionListener(profiler::recordQualityChange);
+            resolutionScaler = null;
+        } else {
+            qualityGovernor = null;
+            resolutionScaler = dynamicResolution ? new ResolutionScaler(GameSimulation.TICKS_PER_SECOND) : null;
+            if (resolutionScaler != null) {
+                resolutionScaler.setTransitionListener(profiler::recordQualityChange);
+            }
+        }
 
         initializeUI(stage);
-        initializeKeyboardControls(stage, classType);
+        initializeKeyboardControls();
         startGameLoop();
-    }
-
-    /**
-     * Dynamically creates a player vehicle based on the provided vehicle type.
-     *
-     * @param classType the type of the player's vehicle ("car", "bike", "truck")
-     * @return the created PlayerVehicle object
-     * @throws IllegalArgumentException if the vehicle type is unknown
-     */
-    private PlayerVehicle createVehicle(String classType) {
-        switch (classType.toLowerCase()) {
-            case "car":
-                return new PlayerCar(480, laneWidth);
-            case "bike":
-                return new PlayerBike(500, laneWidth);
-            case "truck":
-                return new PlayerTruck(450, laneWidth);
-            default:
-                throw new IllegalArgumentException("Unknown vehicle type: " + classType);
+        if (simulationThread) {
+            runner.start();
         }
     }
 
     /**
-     * Initializes the user interface, including score, level, and start text.
+     * Initializes the user interface: the game panel, which also draws the score and level, and the overlay
+     * layer holding the start text and the menus. The game panel is fitted to the window whenever it is resized,
+     * the space left on the sides staying black. The CSS and layout passes of each pulse are timed in the
+     * profiler, which also counts the layout passes of the root and the nodes of the scene graph.
      *
      * @param stage the primary stage of the game window
      */
     private void initializeUI(Stage stage) {
         gamePanel.draw();
-        scoreText = new Text("Score : 0");
-        scoreText.setFont(new Font(20));
-        scoreText.setFill(Color.WHITE);
-        scoreText.setTranslateY(-280);
-
-
-        startText=new Text("Press enter to start");
-        startText.setFont(new Font(20));
-        startText.setFill(Color.WHITE);
-        startText.setTranslateY(0);
+        overlays = new OverlayLayer(gamePanel, this::togglePause);
 
-        levelText = new Text("Level : 1");
-        levelText.setFont(new Font(20));
-        levelText.setFill(Color.WHITE);
-        levelText.setTranslateY(-250);
-
-        root = new StackPane(gamePanel, scoreText, levelText,startText);
-        Scene scene = new Scene(root, 600, 600);
+        root = new StackPane(gamePanel, overlays) {
+            @Override
+            protected void layoutChildren() {
+                profiler.recordLayoutPass();
+                super.layoutChildren();
+            }
+        };
+        Scene scene = new Scene(root, GameSimulation.WIDTH, GameSimulation.HEIGHT, Color.BLACK);
+        scene.widthProperty().addListener((observable, oldWidth, width) -> fitGamePanel(scene));
+        scene.heightProperty().addListener((observable, oldHeight, height) -> fitGamePanel(scene));
+        scene.addPreLayoutPulseListener(() -> layoutStartNanos = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> {
+            profiler.recordLayout(System.nanoTime() - layoutStartNanos);
+            profiler.recordNodeCount(OverlayLayer.countNodes(root));
+        });
         stage.setScene(scene);
-        stage.setResizable(false);
         stage.setTitle("Rush Hour");
-        stage.getIcons().add(new Image("file:assets/gameLogo.png"));
+        stage.getIcons().add(Assets.get("game.logo"));
+        stage.setFullScreen(Boolean.getBoolean("rushhour.fullscreen"));
+        stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> shutDown());
         stage.show();
     }
 
     /**
-     * Initializes keyboard controls for the game, handling player movement, pausing, and restarting.
+     * Stops the background threads of the game once its window is closed.
+     */
+    private void shutDown() {
+        gameLoop.stop();
+        runner.stop();
+        simulation.stopTrackLookahead();
+        replayWriter.shutdown();
+        try {
+            if (!replayWriter.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("The last replay could not be saved");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fits the game panel to the size of the scene. While the game loop is idle, the panel is drawn again
+     * at its new size and the still behind the menus captured again.
      *
-     * @param stage the primary stage of the game window
-     * @param classType the type of the player's vehicle
+     * @param scene the scene of the game window
      */
-    private void initializeKeyboardControls(Stage stage, String classType) {
+    private void fitGamePanel(Scene scene) {
+        gamePanel.setViewport(scene.getWidth(), scene.getHeight());
+        if (paused || gameOver) {
+            if (simulationThread) {
+                gamePanel.draw(runner.acquireSnapshot(), 1.0);
+            } else {
+                gamePanel.draw();
+            }
+            overlays.refreshBackdrop();
+        }
+    }
+
+    /**
+     * Records a frame in the quality governor or the resolution scaler, if enabled, and draws the game panel
+     * and the menus at the quality and resolution it picks.
+     *
+     * @param now the timestamp of the frame, in nanoseconds
+     */
+    private void adjustQuality(long now) {
+        if (qualityGovernor != null && qualityGovernor.recordFrame(now)) {
+            gamePanel.setQualityTier(qualityGovernor.getTier());
+            gamePanel.setResolutionFactor(qualityGovernor.getResolutionFactor());
+            overlays.setEffectsEnabled(QualityGovernor.hasEffects(qualityGovernor.getTier()));
+        } else if (resolutionScaler != null && resolutionScaler.recordFrame(now)) {
+            gamePanel.setResolutionFactor(resolutionScaler.getFactor());
+        }
+    }
+
+    /**
+     * Creates the game panel rendering the simulation, with the repaint mode chosen on the command line
+     * and the profiler overlay in its current state.
+     *
+     * @return the game panel
+     */
+    private GamePanel createGamePanel() {
+        GamePanel panel = new GamePanel(simulation);
+        panel.setDirtyRegions(Boolean.getBoolean("rushhour.dirtyRegions"));
+        panel.setProfiler(profiler);
+        panel.setProfilerVisible(profilerVisible);
+        return panel;
+    }
+
+    /**
+     * Initializes keyboard controls for the game, handling player movement, pausing, and restarting.
+     * F3 shows or hides the profiler overlay and F11 switches the full screen on or off.
+     * The moves are sent to the simulation through the input queue
+     * of the runner with the time of the key press, and applied before its next tick; a move made while the
+     * vehicle changes lanes is applied when the lane change ends.
+     */
+    private void initializeKeyboardControls() {
         root.getScene().setOnKeyPressed(event -> {
-            if (event.getCode() == KeyCode.ENTER) {
+            long pressNanos = System.nanoTime();
+            if (event.getCode() == KeyCode.F3) {
+                profilerVisible = !profilerVisible;
+                gamePanel.setProfilerVisible(profilerVisible);
+            } else if (event.getCode() == KeyCode.F11) {
+                Stage stage = (Stage) root.getScene().getWindow();
+                stage.setFullScreen(!stage.isFullScreen());
+            } else if (event.getCode() == KeyCode.ENTER) {
                 if (gameOver) {
-                    restartGame(stage, classType);
+                    restartGame();
                 } else if (paused) {
                     togglePause();
                 }
@@ -146,9 +250,9 @@ public class GameWindow {
                 }
             } else if (!gameOver && !paused) {
                 if (event.getCode() == playerControlLeft) {
-                    playerVehicle.moveLeft();
+                    runner.offer(InputQueue.LEFT, pressNanos);
                 } else if (event.getCode() == playerControlRight) {
-                    playerVehicle.moveRight();
+                    runner.offer(InputQueue.RIGHT, pressNanos);
                 }
             }
         });
@@ -157,89 +261,119 @@ public class GameWindow {
 
 
     /**
-     * Starts the main game loop, which updates the score, spawns obstacles, and checks for collisions.
+     * Starts the main game loop. Each frame, the simulation is stepped at a fixed rate for the real
+     * time elapsed since the previous frame, then the game panel is drawn interpolated between the
+     * last two simulation ticks. The time spent in each phase of the frame is recorded in the profiler.
+     * When the simulation has its own thread, each frame only draws the latest snapshot it published.
      */
     private void startGameLoop() {
+        timestep.reset();
+        if (simulationThread) {
+            startSnapshotLoop();
+            return;
+        }
         gameLoop = new AnimationTimer() {
-            private int frameCount = 0;
-
             @Override
             public void handle(long now) {
                 if (gameOver || paused) return;
 
-                frameCount++;
-                if (frameCount % 60 == 0) {
-                    updateScore();
+                overlays.hideStart();
+                adjustQuality(now);
+                runner.drainInputs();
+                int ticks = timestep.advance(now);
+                for (int i = 0; i < ticks && !gameOver; i++) {
+                    runner.stepOnce();
                 }
-
-                playerVehicle.updateRotation();
-                playerVehicle.updateBounce();
-                playerVehicle.updateSliding();
-
-                if (frameCount % 80 == 0) {
-                    spawnObstacle();
+                if (gameOver) {
+                    saveReplay();
                 }
 
-                startText.setText("");
-                updateGameObjects();
-
-                checkCollisions();
-
-                gamePanel.draw();
+                long drawStart = System.nanoTime();
+                gamePanel.draw(gameOver ? 1.0 : timestep.getAlpha());
+                profiler.record(FrameProfiler.DRAW, System.nanoTime() - drawStart);
+                recordInputLatency(simulation.getPlayerVehicle().getAppliedPressNanos());
+                profiler.endFrame(simulation.getObstacleCount());
             }
         };
         gameLoop.start();
     }
 
     /**
-     * Updates the score and level. Increases the level every 10 points and speeds up obstacles.
+     * Starts the game loop drawing the snapshots published by the simulation thread, interpolated between
+     * the tick of the snapshot and the previous one according to the time elapsed since the snapshot's tick.
+     * Once the game is over, the last snapshot is drawn once and the loop idles.
      */
-    public void updateScore() {
-        score++;
-        scoreText.setText("Score : " + score);
+    private void startSnapshotLoop() {
+        gameLoop = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (paused) return;
+                WorldSnapshot snapshot = runner.acquireSnapshot();
+                if (snapshot.isGameOver() && snapshot.getTick() == lastDrawnTick) return;
+
+                overlays.hideStart();
+                adjustQuality(now);
+                long drawStart = System.nanoTime();
+                gamePanel.draw(snapshot, snapshot.isGameOver() ? 1.0 : snapshot.alphaAt(now, runner.getTickNanos()));
+                lastDrawnTick = snapshot.getTick();
+                profiler.record(FrameProfiler.DRAW, System.nanoTime() - drawStart);
+                recordInputLatency(snapshot.getAppliedPressNanos());
+                profiler.endFrame(snapshot.getObstacleCount());
+            }
+        };
+        gameLoop.start();
+    }
 
-        if (score % 10 == 0) { // Level up every 10 points
-            level++;
-            levelText.setText("Level : " + level);
-            increaseObstacleSpeed();
-            showLevelUpNotification();
+    /**
+     * Records in the profiler the latency of the last key press shown on screen, once per key press: the
+     * time from the press to the end of the first frame drawn with the vehicle sliding.
+     *
+     * @param appliedPressNanos the time the key of the last lane change shown was pressed, or 0 if there is none
+     */
+    private void recordInputLatency(long appliedPressNanos) {
+        if (appliedPressNanos != 0 && appliedPressNanos != lastShownPressNanos) {
+            lastShownPressNanos = appliedPressNanos;
+            profiler.recordInputLatency(System.nanoTime() - appliedPressNanos);
         }
     }
 
     /**
-     * Spawns a new obstacle in a random lane.
+     * Writes the replay log of the run that just ended to the replay directory, {@code replays}
+     * unless another one is given with {@code -Drushhour.replayDir}. The run can then be played again with
+     * {@link ReplayPlayer}. The log is copied at once, since the recorder is reused by the next run, and
+     * written by a background thread, as the scores are, so a slow disk cannot delay the game-over frame.
      */
-    private void spawnObstacle() {
-        int lane = random.nextInt(4);
-        double laneX = 100 + lane * laneWidth + (laneWidth - 50) / 2;
-        obstacles.add(new Obstacle(laneX, baseObstacleSpeed));
+    private void saveReplay() {
+        Path file = Paths.get(System.getProperty("rushhour.replayDir", "replays"), String.format("%s-%d-%016x.rhr",
+                simulation.getVehicleType(), System.currentTimeMillis(), simulation.getSeed()));
+        byte[] log = recorder.toByteArray();
+        replayWriter.execute(() -> {
+            try {
+                ReplayRecorder.write(file, log);
+            } catch (IOException e) {
+                System.err.println("Could not save the replay to " + file + ": " + e.getMessage());
+            }
+        });
     }
 
     /**
-     * Updates the positions of obstacles and the player vehicle.
-     * Removes obstacles that have gone off-screen.
+     * Shows a notification when the simulation reaches a new level. The level itself is drawn by the game panel.
+     *
+     * @param level the new level
      */
-    private void updateGameObjects() {
-        for (int i = obstacles.size() - 1; i >= 0; i--) {
-            Obstacle obstacle = obstacles.get(i);
-            obstacle.updatePosition();
-            if (obstacle.getY() > gamePanel.getHeight()) {
-                obstacles.remove(i);
-            }
-        }
+    @Override
+    public void onLevelUp(int level) {
+        overlays.showLevelUp(level);
     }
 
     /**
-     * Checks for collisions between the player vehicle and obstacles.
+     * Ends the game when the simulation reports a collision.
+     *
+     * @param score the final score of the run
      */
-    private void checkCollisions() {
-        Rectangle2D playerBounds = playerVehicle.getBounds();
-        for (Obstacle obstacle : obstacles) {
-            if (playerBounds.intersects(obstacle.getBounds())) {
-                triggerCrashAnimation();
-                break;
-            }
-        }
+    @Override
+    public void onGameOver(int score) {
+        triggerCrashAnimation();
     }
 
     /**
@@ -251,114 +385,59 @@ public class GameWindow {
     }
 
     /**
-     * Displays the game over menu, showing the current score, high score, and option to restart.
+     * Displays the game over menu, showing the current score, high score, the leaderboard of the vehicle
+     * type and option to restart. The score is recorded in the score store, which saves it in the background.
      */
     private void showGameOverMenu() {
-        // Update high score
-        if (score > highScore) highScore = score;
-
-        GaussianBlur blur = new GaussianBlur(10);
-        gamePanel.setEffect(blur);
-
-        Text gameOverText = new Text("GAME OVER");
-        gameOverText.setFont(new Font("Arial Black", 40));
-        gameOverText.setFill(new LinearGradient(0, 0, 1, 0, true, CycleMethod.NO_CYCLE,
-                new Stop(0, Color.RED), new Stop(1, Color.ORANGE)));
-        gameOverText.setEffect(new DropShadow(10, Color.DARKORANGE));
-
-        Text scoreDetails = new Text("Score : " + score + "\nHigh Score : " + highScore + "\nPress Enter to Restart");
-        scoreDetails.setFont(Font.font("Roboto", FontWeight.BOLD, 25));
-        scoreDetails.setFill(Color.WHITE);
-        scoreDetails.setTextAlignment(TextAlignment.CENTER);
-        scoreDetails.setStyle("-fx-line-spacing: 10;");
-
-        VBox gameOverBox = new VBox(20, gameOverText, scoreDetails);
-        gameOverBox.setAlignment(Pos.CENTER);
-        root.getChildren().add(gameOverBox);
+        int score = simulation.score;
+        String vehicleType = simulation.getVehicleType();
+        int rank = scoreStore.submit(vehicleType, score, simulation.getSeed());
+        int highScore = scoreStore.getHighScore(vehicleType);
+
+        StringBuilder leaderboard = new StringBuilder("Top " + vehicleType + " scores");
+        List<ScoreStore.Entry> topScores = scoreStore.getTopScores(vehicleType);
+        for (int i = 0; i < Math.min(LEADERBOARD_LINES, topScores.size()); i++) {
+            leaderboard.append('\n').append(i + 1).append(". ").append(topScores.get(i).getScore());
+            if (i == rank) leaderboard.append("  <");
+        }
+        overlays.showGameOver("Score : " + score + "\nHigh Score : " + highScore + "\nPress Enter to Restart",
+                leaderboard.toString());
     }
 
     /**
-     * Restarts the game with the same vehicle type.
-     *
-     * @param stage the primary stage of the game window
-     * @param classType the type of the player's vehicle
+     * Restarts the game with the same vehicle type. Only the state of the simulation is reset, by the
+     * runner; the game panel, the vehicle sprite, the game loop, the overlays and the track lookahead thread,
+     * parked since the buffer filled up, are kept, so a restart allocates nothing and the next frame draws
+     * the new run.
      */
-    private void restartGame(Stage stage, String classType) {
+    private void restartGame() {
         gameOver = false;
         paused = false;
-        score = 0;
-        level = 1;
-        baseObstacleSpeed = 2.0;
-
-        obstacles.clear();
-        playerVehicle = createVehicle(classType);
+        lastDrawnTick = -1;
+        runner.offer(InputQueue.RESTART);
+        runner.setPaused(false);
 
-        gamePanel = new GamePanel(playerVehicle, obstacles);
-        scoreText.setText("Score : 0");
-        levelText.setText("Level : 1");
+        gamePanel.requestFullRepaint();
+        overlays.hideAll();
 
-        root.getChildren().clear();
-        root.getChildren().addAll(gamePanel, scoreText, levelText);
-
-        gameLoop.stop();
-        startGameLoop();
+        timestep.reset();
+        gameLoop.start();
     }
 
     /**
      * Pauses or resumes the game.
      */
     private void togglePause() {
+        runner.offer(InputQueue.PAUSE);
         paused = !paused;
+        runner.setPaused(paused);
+        timestep.reset();
         if (paused) {
             gameLoop.stop();
-            showPauseMenu();
+            overlays.showPause();
         } else {
-            root.getChildren().remove(pauseMenu);
-            gamePanel.setEffect(null);
+            overlays.hidePause();
             gameLoop.start();
         }
     }
-
-    /**
-     * Displays the pause menu with an option to resume the game.
-     */
-    private void showPauseMenu() {
-        GaussianBlur blur = new GaussianBlur(10);
-        gamePanel.setEffect(blur);
-
-        Text playText = new Text("PLAY");
-        playText.setFont(new Font("Arial Black", 40));
-        playText.setFill(new LinearGradient(0, 0, 1, 0, true, CycleMethod.NO_CYCLE,
-                new Stop(0, Color.LIGHTGREEN), new Stop(0.5, Color.LIME), new Stop(1, Color.DARKGREEN)));
-        playText.setEffect(new DropShadow(10, Color.DARKGREEN));
-
-        Button resumeButton = new Button();
-        resumeButton.setStyle("-fx-shape: 'M 0 0 L 50 25 L 0 50 Z'; -fx-background-color: lime; -fx-min-width: 60px; -fx-min-height: 60px");
-        resumeButton.setOnAction(e -> togglePause());
-
-        pauseMenu = new VBox(20, playText, resumeButton);
-        pauseMenu.setAlignment(Pos.CENTER);
-        root.getChildren().add(pauseMenu);
-    }
-
-    /**
-     * Increases the speed of obstacles based on the current level.
-     */
-    private void increaseObstacleSpeed() {
-        baseObstacleSpeed += 1;
-    }
-
-    /**
-     * Displays a level-up notification when the player reaches a new level.
-     */
-    private void showLevelUpNotification() {
-        Text levelUpText = new Text("Level " + level + " !");
-        levelUpText.setFont(new Font("Arial Black", 30));
-        levelUpText.setFill(Color.YELLOW);
-
-        root.getChildren().add(levelUpText);
-
-        Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(2), e -> root.getChildren().remove(levelUpText)));
-        timeline.play();
-    }
 }
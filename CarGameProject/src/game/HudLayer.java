@@ -0,0 +1,253 @@
+package game;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * The {@code HudLayer} class draws the heads-up display, the score, level and other live statistics, on the
+ * game panel from glyphs pre-rendered once into a strip. The first row of the strip holds the digits and
+ * the colon, one cell each, and every label given to the constructor has a row of its own, so a label is a
+ * single blit and a number one blit per digit. Drawing the display builds no string and allocates nothing.
+ * <p>
+ * The glyphs come from a 5 x 7 pixel font held in this class, scaled by {@link #SCALE} and drawn white
+ * with a black shadow, so the strip is rendered from plain pixel arrays like the {@link RoadLayer}, on any
+ * thread and without a font.
+ */
+public class HudLayer {
+
+    /**
+     * The size of a font pixel on the screen.
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * The width of a glyph cell, shadow and spacing included: the distance between two characters.
+     */
+    public static final int CELL_WIDTH = 6 * SCALE;
+
+    /**
+     * The height of a glyph cell, shadow included: the height of a line of text.
+     */
+    public static final int CELL_HEIGHT = 8 * SCALE;
+
+    private static final int COLON = 10;
+    private static final String CHARACTERS = "0123456789: CDEILMOPRSTV";
+    private static final String[][] GLYPHS = {
+            {"01110", "10001", "10011", "10101", "11001", "10001", "01110"},
+            {"00100", "01100", "00100", "00100", "00100", "00100", "01110"},
+            {"01110", "10001", "00001", "00010", "00100", "01000", "11111"},
+            {"11110", "00001", "00001", "01110", "00001", "00001", "11110"},
+            {"00010", "00110", "01010", "10010", "11111", "00010", "00010"},
+            {"11111", "10000", "11110", "00001", "00001", "10001", "01110"},
+            {"00110", "01000", "10000", "11110", "10001", "10001", "01110"},
+            {"11111", "00001", "00010", "00100", "01000", "01000", "01000"},
+            {"01110", "10001", "10001", "01110", "10001", "10001", "01110"},
+            {"01110", "10001", "10001", "01111", "00001", "00010", "01100"},
+            {"00000", "01100", "01100", "00000", "01100", "01100", "00000"},
+            {"00000", "00000", "00000", "00000", "00000", "00000", "00000"},
+            {"01110", "10001", "10000", "10000", "10000", "10001", "01110"},
+            {"11100", "10010", "10001", "10001", "10001", "10010", "11100"},
+            {"11111", "10000", "10000", "11110", "10000", "10000", "11111"},
+            {"01110", "00100", "00100", "00100", "00100", "00100", "01110"},
+            {"10000", "10000", "10000", "10000", "10000", "10000", "11111"},
+            {"10001", "11011", "10101", "10101", "10001", "10001", "10001"},
+            {"01110", "10001", "10001", "10001", "10001", "10001", "01110"},
+            {"11110", "10001", "10001", "11110", "10000", "10000", "10000"},
+            {"11110", "10001", "10001", "11110", "10100", "10010", "10001"},
+            {"01111", "10000", "10000", "01110", "00001", "00001", "11110"},
+            {"11111", "00100", "00100", "00100", "00100", "00100", "00100"},
+            {"10001", "10001", "10001", "10001", "10001", "01010", "00100"}
+    };
+
+    private final WritableImage strip;
+    private final int[] labelWidths;
+
+    /**
+     * Pre-renders the digits, the colon and the given labels.
+     *
+     * @param labels the labels, in upper case, drawn by their index with {@link #drawLabel}
+     * @throws IllegalArgumentException if a label holds a character the font does not have
+     */
+    public HudLayer(String... labels) {
+        int columns = COLON + 1;
+        labelWidths = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            columns = Math.max(columns, labels[i].length());
+            labelWidths[i] = labels[i].length() * CELL_WIDTH;
+        }
+        int width = columns * CELL_WIDTH;
+        int height = (labels.length + 1) * CELL_HEIGHT;
+        int[] pixels = new int[width * height];
+
+        for (int digit = 0; digit <= COLON; digit++) {
+            renderGlyph(pixels, width, digit, digit * CELL_WIDTH, 0);
+        }
+        for (int i = 0; i < labels.length; i++) {
+            for (int c = 0; c < labels[i].length(); c++) {
+                int glyph = CHARACTERS.indexOf(labels[i].charAt(c));
+                if (glyph < 0) {
+                    throw new IllegalArgumentException("No glyph for '" + labels[i].charAt(c) + "' in label " + labels[i]);
+                }
+                renderGlyph(pixels, width, glyph, c * CELL_WIDTH, (i + 1) * CELL_HEIGHT);
+            }
+        }
+
+        strip = new WritableImage(width, height);
+        strip.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+    }
+
+    /**
+     * Renders a glyph into the strip pixels: its shadow one font pixel down and to the right, then the glyph.
+     *
+     * @param pixels the ARGB pixels of the strip, row by row
+     * @param width  the width of the strip
+     * @param glyph  the index of the glyph
+     * @param x      the left of its cell
+     * @param y      the top of its cell
+     */
+    private static void renderGlyph(int[] pixels, int width, int glyph, int x, int y) {
+        int shadow = toArgb(Color.BLACK);
+        int ink = toArgb(Color.WHITE);
+        for (int pass = 1; pass >= 0; pass--) {
+            int color = pass == 1 ? shadow : ink;
+            for (int row = 0; row < 7; row++) {
+                for (int column = 0; column < 5; column++) {
+                    if (GLYPHS[glyph][row].charAt(column) != '1') continue;
+                    int left = x + (column + pass) * SCALE;
+                    int top = y + (row + pass) * SCALE;
+                    for (int dy = 0; dy < SCALE; dy++) {
+                        Arrays.fill(pixels, (top + dy) * width + left, (top + dy) * width + left + SCALE, color);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts a color to an ARGB pixel.
+     *
+     * @param color the color
+     * @return the pixel
+     */
+    private static int toArgb(Color color) {
+        return ((int) Math.round(color.getOpacity() * 255) << 24)
+                | ((int) Math.round(color.getRed() * 255) << 16)
+                | ((int) Math.round(color.getGreen() * 255) << 8)
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    /**
+     * Draws a label.
+     *
+     * @param gc    the graphics context of the panel
+     * @param label the index of the label, in the order given to the constructor
+     * @param x     the left of the label
+     * @param y     the top of the label
+     * @return the x-coordinate right after the label
+     */
+    public double drawLabel(GraphicsContext gc, int label, double x, double y) {
+        int w = labelWidths[label];
+        gc.drawImage(strip, 0, (label + 1) * CELL_HEIGHT, w, CELL_HEIGHT, x, y, w, CELL_HEIGHT);
+        return x + w;
+    }
+
+    /**
+     * Draws a non-negative number, padded with zeros to a minimum number of digits.
+     *
+     * @param gc        the graphics context of the panel
+     * @param value     the number
+     * @param minDigits the minimum number of digits
+     * @param x         the left of the number
+     * @param y         the top of the number
+     * @return the x-coordinate right after the number
+     */
+    public double drawNumber(GraphicsContext gc, long value, int minDigits, double x, double y) {
+        int digits = digitCount(value, minDigits);
+        double right = x + digits * CELL_WIDTH;
+        double cellX = right;
+        for (int i = 0; i < digits; i++) {
+            cellX -= CELL_WIDTH;
+            drawCell(gc, (int) (value % 10), cellX, y);
+            value /= 10;
+        }
+        return right;
+    }
+
+    /**
+     * Draws a duration as minutes and seconds, {@code mm:ss}, with more digits for the minutes past 99.
+     *
+     * @param gc      the graphics context of the panel
+     * @param seconds the duration in seconds
+     * @param x       the left of the duration
+     * @param y       the top of the duration
+     * @return the x-coordinate right after the duration
+     */
+    public double drawClock(GraphicsContext gc, long seconds, double x, double y) {
+        x = drawNumber(gc, seconds / 60, 2, x, y);
+        drawCell(gc, COLON, x, y);
+        return drawNumber(gc, seconds % 60, 2, x + CELL_WIDTH, y);
+    }
+
+    /**
+     * Draws a cell of the first row of the strip: a digit or the colon.
+     *
+     * @param gc   the graphics context of the panel
+     * @param cell the cell, the digit itself or {@link #COLON}
+     * @param x    the left of the cell
+     * @param y    the top of the cell
+     */
+    private void drawCell(GraphicsContext gc, int cell, double x, double y) {
+        gc.drawImage(strip, cell * CELL_WIDTH, 0, CELL_WIDTH, CELL_HEIGHT, x, y, CELL_WIDTH, CELL_HEIGHT);
+    }
+
+    /**
+     * Gets the width of a label on the screen.
+     *
+     * @param label the index of the label
+     * @return the width
+     */
+    public double getLabelWidth(int label) {
+        return labelWidths[label];
+    }
+
+    /**
+     * Gets the width of a number on the screen, as drawn by {@link #drawNumber}.
+     *
+     * @param value     the number
+     * @param minDigits the minimum number of digits
+     * @return the width
+     */
+    public static double getNumberWidth(long value, int minDigits) {
+        return digitCount(value, minDigits) * CELL_WIDTH;
+    }
+
+    /**
+     * Gets the width of a duration on the screen, as drawn by {@link #drawClock}.
+     *
+     * @param seconds the duration in seconds
+     * @return the width
+     */
+    public static double getClockWidth(long seconds) {
+        return getNumberWidth(seconds / 60, 2) + 3 * CELL_WIDTH;
+    }
+
+    /**
+     * Counts the digits of a number.
+     *
+     * @param value     the number, not negative
+     * @param minDigits the minimum number of digits
+     * @return the number of digits
+     */
+    private static int digitCount(long value, int minDigits) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return Math.max(digits, minDigits);
+    }
+}
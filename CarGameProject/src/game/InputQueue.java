@@ -0,0 +1,120 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code InputQueue} class carries the commands of the player from the JavaFX application thread,
+ * which handles the keyboard, to the thread running the simulation.
+ * It is a bounded ring buffer for a single producer and a single consumer: adding and taking a command
+ * are wait-free, each side only reading the other's counter, so the keyboard handler and the game loop
+ * never block each other. A command offered while the queue is full is dropped.
+ * Each command carries the time it was given, so that the latency from a key press to the frame
+ * showing its effect can be measured.
+ */
+public class InputQueue {
+
+    /**
+     * Moves the player vehicle one lane to the left.
+     */
+    public static final int LEFT = 0;
+
+    /**
+     * Moves the player vehicle one lane to the right.
+     */
+    public static final int RIGHT = 1;
+
+    /**
+     * Pauses or resumes the game.
+     */
+    public static final int PAUSE = 2;
+
+    /**
+     * Restarts the game with a new run.
+     */
+    public static final int RESTART = 3;
+
+    /**
+     * Returned by {@link #poll()} when the queue is empty.
+     */
+    public static final int EMPTY = -1;
+
+    private final int[] commands;
+    private final long[] timestamps;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private long polledNanos = 0;
+
+    /**
+     * Constructs an empty queue.
+     *
+     * @param capacity the number of commands the queue can hold, a power of two
+     * @throws IllegalArgumentException if the capacity is not a positive power of two
+     */
+    public InputQueue(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.commands = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds a command given now to the queue. Must only be called by the producer thread.
+     *
+     * @param command the command
+     * @return {@code false} if the queue was full and the command was dropped
+     */
+    public boolean offer(int command) {
+        return offer(command, System.nanoTime());
+    }
+
+    /**
+     * Adds a command to the queue. Must only be called by the producer thread.
+     *
+     * @param command the command
+     * @param nanos   the time the command was given, on the {@link System#nanoTime()} clock
+     * @return {@code false} if the queue was full and the command was dropped
+     */
+    public boolean offer(int command, long nanos) {
+        long t = tail.get();
+        if (t - head.get() == commands.length) return false;
+        commands[(int) t & mask] = command;
+        timestamps[(int) t & mask] = nanos;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Takes the oldest command of the queue. Must only be called by the consumer thread.
+     *
+     * @return the command, or {@link #EMPTY} if the queue is empty
+     */
+    public int poll() {
+        long h = head.get();
+        if (h == tail.get()) return EMPTY;
+        int command = commands[(int) h & mask];
+        polledNanos = timestamps[(int) h & mask];
+        head.lazySet(h + 1);
+        return command;
+    }
+
+    /**
+     * Gets the time the last command taken by {@link #poll()} was given. Must only be called by the consumer thread.
+     *
+     * @return the time on the {@link System#nanoTime()} clock
+     */
+    public long getPolledNanos() {
+        return polledNanos;
+    }
+
+    /**
+     * Gets the number of commands waiting in the queue.
+     *
+     * @return the number of commands
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+}
@@ -0,0 +1,256 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The {@code LaneIndex} class is a spatial index of the obstacles on the road, bucketed by lane.
+ * Each lane keeps its obstacles sorted by y-coordinate, so a collision query only looks at the
+ * lanes overlapped by the player vehicle and, within them, at the obstacles close to it.
+ * The cost of a query therefore does not grow with the number of obstacles on the road.
+ */
+public class LaneIndex {
+
+    /**
+     * Orders obstacles by increasing y-coordinate.
+     */
+    private static final Comparator<Obstacle> BY_Y = Comparator.comparingDouble(Obstacle::getY);
+
+    /**
+     * The obstacles of each lane, sorted by increasing y-coordinate.
+     */
+    private final Obstacle[][] lanes;
+
+    /**
+     * The number of obstacles in each lane.
+     */
+    private final int[] sizes;
+
+    /**
+     * The x-coordinate of the left edge of the first lane.
+     */
+    private final double roadLeft;
+
+    /**
+     * The width of a lane.
+     */
+    private final double laneWidth;
+
+    /**
+     * The largest distance travelled by an obstacle of the index during the last tick.
+     */
+    private double maxDisplacement = 0;
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param laneCount the number of lanes on the road
+     * @param roadLeft  the x-coordinate of the left edge of the first lane
+     * @param laneWidth the width of a lane
+     */
+    public LaneIndex(int laneCount, double roadLeft, double laneWidth) {
+        this.lanes = new Obstacle[laneCount][16];
+        this.sizes = new int[laneCount];
+        this.roadLeft = roadLeft;
+        this.laneWidth = laneWidth;
+    }
+
+    /**
+     * Gets the lane containing the given x-coordinate, clamped to the lanes of the road.
+     *
+     * @param x the x-coordinate
+     * @return the lane number
+     */
+    public int laneOf(double x) {
+        int lane = (int) Math.floor((x - roadLeft) / laneWidth);
+        return Math.max(0, Math.min(lanes.length - 1, lane));
+    }
+
+    /**
+     * Adds an obstacle to the lane containing its center, keeping the lane sorted.
+     *
+     * @param obstacle the obstacle to add
+     */
+    public void add(Obstacle obstacle) {
+        int lane = laneOf(obstacle.getX() + obstacle.getWidth() / 2);
+        Obstacle[] bucket = lanes[lane];
+        int size = sizes[lane];
+        if (size == bucket.length) {
+            Obstacle[] grown = new Obstacle[size * 2];
+            System.arraycopy(bucket, 0, grown, 0, size);
+            bucket = grown;
+            lanes[lane] = grown;
+        }
+
+        int i = size;
+        while (i > 0 && bucket[i - 1].getY() > obstacle.getY()) {
+            bucket[i] = bucket[i - 1];
+            i--;
+        }
+        bucket[i] = obstacle;
+        sizes[lane] = size + 1;
+        maxDisplacement = Math.max(maxDisplacement, obstacle.getY() - obstacle.getPreviousY());
+    }
+
+    /**
+     * Restores the y-order of every lane after the obstacles have moved.
+     * Obstacles of a lane move at close speeds, so the lanes are nearly sorted and an insertion
+     * sort runs in linear time. If a lane turns out to be far from sorted, it is sorted with a
+     * merge sort instead. The largest distance travelled by an obstacle is recorded on the way,
+     * to bound swept collision queries.
+     */
+    public void update() {
+        double displacement = 0;
+        for (int lane = 0; lane < lanes.length; lane++) {
+            Obstacle[] bucket = lanes[lane];
+            int size = sizes[lane];
+            if (size > 0) {
+                displacement = Math.max(displacement, bucket[0].getY() - bucket[0].getPreviousY());
+            }
+            long shiftBudget = 8L * size;
+            for (int j = 1; j < size; j++) {
+                Obstacle obstacle = bucket[j];
+                double y = obstacle.getY();
+                displacement = Math.max(displacement, y - obstacle.getPreviousY());
+                int i = j;
+                while (i > 0 && bucket[i - 1].getY() > y) {
+                    bucket[i] = bucket[i - 1];
+                    i--;
+                }
+                bucket[i] = obstacle;
+                shiftBudget -= j - i;
+                if (shiftBudget < 0) {
+                    for (int k = j + 1; k < size; k++) {
+                        displacement = Math.max(displacement, bucket[k].getY() - bucket[k].getPreviousY());
+                    }
+                    Arrays.sort(bucket, 0, size, BY_Y);
+                    break;
+                }
+            }
+        }
+        maxDisplacement = displacement;
+    }
+
+    /**
+     * Removes every obstacle whose y-coordinate is greater than the given limit.
+     * The lanes must be sorted, which is the case after {@link #update()}.
+     *
+     * @param maxY the largest y-coordinate kept in the index
+     */
+    public void removeBelow(double maxY) {
+        for (int lane = 0; lane < lanes.length; lane++) {
+            Obstacle[] bucket = lanes[lane];
+            int size = sizes[lane];
+            while (size > 0 && bucket[size - 1].getY() > maxY) {
+                bucket[--size] = null;
+            }
+            sizes[lane] = size;
+        }
+    }
+
+    /**
+     * Finds an obstacle overlapping the given rectangle.
+     * Only the lanes overlapped horizontally by the rectangle are searched, starting from the first
+     * obstacle whose bottom edge may reach the rectangle (every obstacle is {@link Obstacle#HEIGHT} tall).
+     *
+     * @param left   the x-coordinate of the left edge of the rectangle
+     * @param top    the y-coordinate of the top edge of the rectangle
+     * @param right  the x-coordinate of the right edge of the rectangle
+     * @param bottom the y-coordinate of the bottom edge of the rectangle
+     * @return an overlapping obstacle, or {@code null} if there is none
+     */
+    public Obstacle findOverlap(double left, double top, double right, double bottom) {
+        int firstLane = laneOf(left);
+        int lastLane = laneOf(right);
+        for (int lane = firstLane; lane <= lastLane; lane++) {
+            Obstacle[] bucket = lanes[lane];
+            int size = sizes[lane];
+            for (int i = firstBelow(bucket, size, top - Obstacle.HEIGHT); i < size; i++) {
+                Obstacle obstacle = bucket[i];
+                if (obstacle.getY() >= bottom) break;
+                if (Collision.intersects(left, top, right - left, bottom - top,
+                        obstacle.getX(), obstacle.getY(), obstacle.getWidth(), obstacle.getHeight())) {
+                    return obstacle;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds an obstacle that overlapped the player vehicle at any moment of the last tick, following
+     * both from their previous positions to their current ones.
+     * Only the lanes and the y-range covered by the paths of the player vehicle and of the obstacles
+     * are searched.
+     *
+     * @param playerVehicle the player vehicle
+     * @return an obstacle that overlapped the player vehicle, or {@code null} if there is none
+     */
+    public Obstacle findSweptOverlap(PlayerVehicle playerVehicle) {
+        double left = Math.min(playerVehicle.getPreviousX(), playerVehicle.getX());
+        double right = Math.max(playerVehicle.getPreviousX(), playerVehicle.getX()) + playerVehicle.getWidth();
+        double top = Math.min(playerVehicle.getPreviousY(), playerVehicle.getY());
+        double bottom = Math.max(playerVehicle.getPreviousY(), playerVehicle.getY()) + playerVehicle.getHeight();
+
+        int firstLane = laneOf(left);
+        int lastLane = laneOf(right);
+        for (int lane = firstLane; lane <= lastLane; lane++) {
+            Obstacle[] bucket = lanes[lane];
+            int size = sizes[lane];
+            for (int i = firstBelow(bucket, size, top - Obstacle.HEIGHT); i < size; i++) {
+                Obstacle obstacle = bucket[i];
+                if (obstacle.getY() - maxDisplacement >= bottom) break;
+                if (Collision.sweptIntersects(playerVehicle, obstacle)) {
+                    return obstacle;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds, by binary search, the first obstacle of a sorted lane whose y-coordinate is greater than the given one.
+     *
+     * @param bucket the obstacles of the lane
+     * @param size   the number of obstacles in the lane
+     * @param y      the y-coordinate searched
+     * @return the index of the first obstacle below {@code y}, or {@code size} if there is none
+     */
+    private static int firstBelow(Obstacle[] bucket, int size, double y) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bucket[mid].getY() > y) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Removes every obstacle from the index.
+     */
+    public void clear() {
+        for (int lane = 0; lane < lanes.length; lane++) {
+            Arrays.fill(lanes[lane], 0, sizes[lane], null);
+            sizes[lane] = 0;
+        }
+        maxDisplacement = 0;
+    }
+
+    /**
+     * Gets the number of obstacles in the index.
+     *
+     * @return the number of obstacles
+     */
+    public int size() {
+        int total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+        return total;
+    }
+}
@@ -1,17 +1,27 @@
 package game;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.ToggleGroup;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.BackgroundImage;
+import javafx.scene.layout.BackgroundPosition;
+import javafx.scene.layout.BackgroundRepeat;
+import javafx.scene.layout.BackgroundSize;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
@@ -23,8 +33,8 @@ import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
 
 /**
  * The Main class serves as the entry point for the Rush Hour Vehicle Selection application.
@@ -33,12 +43,84 @@ import java.io.FileNotFoundException;
  */
 public class Main extends Application {
     /**
-     * Starts the JavaFX application by setting up the main stage, menus, and scene layout.
+     * The time the application class was loaded, at launch.
+     */
+    private static final long LAUNCH_NANOS = System.nanoTime();
+
+    private ScoreStore scoreStore;
+
+    /**
+     * Loads the score log before the user interface is shown. Runs on the launcher thread, not on the
+     * JavaFX application thread. The log is {@code scores/scores.log} unless another file is given with
+     * {@code -Drushhour.scoreFile}.
+     */
+    @Override
+    public void init() {
+        scoreStore = new ScoreStore(Paths.get(System.getProperty("rushhour.scoreFile", "scores/scores.log")));
+    }
+
+    /**
+     * Saves the pending scores when the application exits.
+     */
+    @Override
+    public void stop() {
+        scoreStore.close();
+    }
+
+    /**
+     * Starts the JavaFX application. A splash screen shows the progress of the assets, which are loaded
+     * on background threads, then the main menu replaces it once they are all loaded.
      *
      * @param primaryStage the main stage for this application
      */
     @Override
     public void start(Stage primaryStage) {
+        ProgressBar progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(300);
+        Text loadingText = new Text("Loading...");
+        loadingText.setFont(Font.font("Verdana", FontWeight.NORMAL, 18));
+        loadingText.setFill(Color.LIGHTGRAY);
+        VBox splash = new VBox(20, loadingText, progressBar);
+        splash.setAlignment(Pos.CENTER);
+        splash.setStyle("-fx-background-color: black;");
+
+        primaryStage.setScene(new Scene(splash, 800, 600));
+        primaryStage.setTitle("Rush Hour Vehicle Selection");
+        primaryStage.show();
+
+        Assets.loadAsync(progress -> Platform.runLater(() -> progressBar.setProgress(progress)))
+                .whenComplete((result, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        System.err.println("Error loading assets: " + error.getMessage());
+                        loadingText.setText("Could not load the game assets");
+                        return;
+                    }
+                    showMainMenu(primaryStage);
+                    logFirstInteractiveFrame();
+                }));
+    }
+
+    /**
+     * Logs, on the first frame rendered after the main menu is shown, the time elapsed since the
+     * application was launched: the time a player waits before being able to use the game.
+     */
+    private void logFirstInteractiveFrame() {
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                System.out.printf("Time to first interactive frame: %.1f ms since launch (JVM uptime %d ms)%n",
+                        (System.nanoTime() - LAUNCH_NANOS) / 1_000_000.0, ManagementFactory.getRuntimeMXBean().getUptime());
+            }
+        }.start();
+    }
+
+    /**
+     * Sets up the main menu, the vehicle selection, help, credits and settings screens, with the loaded assets.
+     *
+     * @param primaryStage the main stage for this application
+     */
+    private void showMainMenu(Stage primaryStage) {
         // Create the main menu
         VBox menu = new VBox(30);
         menu.setPadding(new Insets(30));
@@ -57,11 +139,12 @@ public class Main extends Application {
         // Create the root layout
         BorderPane root = new BorderPane();
 
-        // Background image for the scene
-        File file = new File("C:/Users/Acer/epitech/T-JAV-501-PAR_7/CarGameProject/assets/MenuBackground.png");
-        String imagePath = file.toURI().toString();
-        root.setStyle("-fx-background-color: rgba(0, 0, 0, 0.8); -fx-background-image: url('" + imagePath + "'); "
-                + "-fx-background-size: cover; -fx-background-position: left; -fx-background-repeat: no-repeat;");
+        // Background image for the scene, already decoded at the height of the window
+        root.setBackground(new Background(
+                new BackgroundFill[]{new BackgroundFill(Color.rgb(0, 0, 0, 0.8), null, null)},
+                new BackgroundImage[]{new BackgroundImage(Assets.get("menu.background"), BackgroundRepeat.NO_REPEAT,
+                        BackgroundRepeat.NO_REPEAT, new BackgroundPosition(Side.LEFT, 0, false, Side.TOP, 0.5, true),
+                        new BackgroundSize(BackgroundSize.AUTO, BackgroundSize.AUTO, false, false, false, true))}));
 
         root.setCenter(menu);
         settingsButton.setOnAction(e -> {
@@ -79,9 +162,9 @@ public class Main extends Application {
         HBox vehicleOptions = new HBox(30);
         vehicleOptions.setAlignment(Pos.CENTER);
         vehicleOptions.setPadding(new Insets(20));
-        Button bikeButton = createVehicleButton("", "assets/cars/playerBike.png");
-        Button carButton = createVehicleButton("", "assets/cars/playerCar.png");
-        Button truckButton = createVehicleButton("", "assets/cars/playerTruck.png");
+        Button bikeButton = createVehicleButton("", Assets.get("button.bike"));
+        Button carButton = createVehicleButton("", Assets.get("button.car"));
+        Button truckButton = createVehicleButton("", Assets.get("button.truck"));
         vehicleOptions.getChildren().addAll(bikeButton, carButton, truckButton);
 
         Button returnButton = createStyledButton("Return", "#4caf50");
@@ -103,8 +186,6 @@ public class Main extends Application {
 
         Scene menuScene = new Scene(root, 800, 600);
         primaryStage.setScene(menuScene);
-        primaryStage.setTitle("Rush Hour Vehicle Selection");
-        primaryStage.show();
 
         playButton.setOnAction(e -> {
             root.setCenter(vehicleSelectionPane);
@@ -171,7 +252,7 @@ public class Main extends Application {
      * @param classType the type of vehicle chosen ("car", "bike", "truck")
      */
     private void launchGame(Stage stage, String classType) {
-        new GameWindow(stage, classType);
+        new GameWindow(stage, classType, scoreStore);
     }
 
     /**
@@ -206,11 +287,11 @@ public class Main extends Application {
      * Creates a button with a vehicle image and name.
      *
      * @param vehicleName the name of the vehicle
-     * @param imagePath   the path to the image of the vehicle
+     * @param image       the image of the vehicle, decoded at the size of the button icon
      * @return the styled Button instance with an image
      */
-    private Button createVehicleButton(String vehicleName, String imagePath) {
-        ImageView imageView = loadImage(imagePath);
+    private Button createVehicleButton(String vehicleName, Image image) {
+        ImageView imageView = new ImageView(image);
         imageView.setFitWidth(120);
         imageView.setFitHeight(120);
         Button button = new Button(vehicleName, imageView);
@@ -219,27 +300,6 @@ public class Main extends Application {
         return button;
     }
 
-    /**
-     * Loads an image from the specified file path.
-     *
-     * @param imagePath the path to the image
-     * @return an ImageView with the loaded image
-     */
-    private ImageView loadImage(String imagePath) {
-        try {
-            File file = new File(imagePath);
-            if (!file.exists()) {
-                throw new FileNotFoundException("Image file not found: " + file.getAbsolutePath());
-            }
-            return new ImageView(new Image(file.toURI().toString()));
-        } catch (Exception e) {
-            System.err.println("Error loading image: " + imagePath);
-            e.printStackTrace();
-            return new ImageView();
-        }
-
-    }
-
     /**
      * Opens the {@code Settings} for the game, allowing the user to choose vehicle controls.
      *
@@ -1,86 +1,102 @@
 package game;
 
-import javafx.geometry.Rectangle2D;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-
-import java.util.Random;
-
 /**
  * The {@code Obstacle} class represents an obstacle in the game.
  * Obstacles are vehicles or objects that move down the screen and serve as challenges for the player to avoid.
- * Each obstacle has an associated image, position, and speed.
+ * Each obstacle has a position, a size, a speed and the index of the sprite it is drawn with.
+ * Obstacles hold no JavaFX node, so they can be simulated without a display.
  */
 public class Obstacle {
 
     /**
-     * The {@link ImageView} representing the visual appearance of the obstacle.
+     * The width of an obstacle.
+     */
+    public static final double WIDTH = 50;
+
+    /**
+     * The height of an obstacle.
+     */
+    public static final double HEIGHT = 100;
+
+    /**
+     * The current x-coordinate of the obstacle.
      */
-    private ImageView obstacleImageView;
+    private double x;
 
     /**
      * The current y-coordinate of the obstacle.
      */
     private double y;
 
+    /**
+     * The y-coordinate of the obstacle before the last position update, used for render interpolation.
+     */
+    private double previousY;
+
     /**
      * The speed at which the obstacle moves downward on the screen.
      */
     private double speed = 2;
 
+    /**
+     * The index of the sprite, in the {@link SpriteCache}, used to draw the obstacle.
+     */
+    private int spriteIndex;
+
     /**
      * Constructs an {@code Obstacle} with a specified x-coordinate (lane) and initial speed.
-     * The obstacle image is randomly selected from a predefined set.
+     * The obstacle is drawn with the first sprite until another one is set with {@link #setSpriteIndex(int)}.
      *
      * @param laneX        the x-coordinate (lane) where the obstacle is placed.
      * @param initialSpeed the initial downward speed of the obstacle.
      */
     public Obstacle(double laneX, double initialSpeed) {
-        this.y = -100;
-        this.speed = initialSpeed;
-
-        Image obstacleImage = chooseRandomImage();
-        obstacleImageView = new ImageView(obstacleImage);
-        obstacleImageView.setFitWidth(50);
-        obstacleImageView.setFitHeight(100);
-
-        obstacleImageView.setX(laneX);
-        obstacleImageView.setY(y);
+        reset(laneX, initialSpeed);
     }
 
     /**
-     * Randomly selects an obstacle image from a predefined set of images.
+     * Resets a recycled obstacle so it can be spawned again.
+     * The obstacle is moved back above the screen in the given lane, gets the given speed
+     * and the first sprite.
      *
-     * @return a randomly selected {@link Image} representing the obstacle.
-     */
-    private Image chooseRandomImage() {
-        Random random = new Random();
-        String[] images = {
-                "assets/cars/carObstacle1.png", "assets/cars/carObstacle2.png", "assets/cars/carObstacle3.png",
-                "assets/cars/carObstacle4.png", "assets/cars/carObstacle5.png", "assets/cars/carObstacle6.png",
-                "assets/cars/carObstacle7.png", "assets/cars/carObstacle8.png", "assets/cars/carObstacle9.png",
-                "assets/cars/carObstacle10.png", "assets/cars/carObstacle11.png", "assets/cars/carObstacle12.png",
-                "assets/cars/carObstacle13.png", "assets/cars/carObstacle14.png"
-        };
-        int index = random.nextInt(images.length);
-        return new Image("file:" + images[index]);
+     * @param laneX        the x-coordinate (lane) where the obstacle is placed.
+     * @param initialSpeed the initial downward speed of the obstacle.
+     */
+    public void reset(double laneX, double initialSpeed) {
+        this.x = laneX;
+        this.y = -100;
+        this.previousY = y;
+        this.speed = initialSpeed;
+        this.spriteIndex = 0;
     }
 
     /**
      * Updates the position of the obstacle by moving it downward based on its speed.
      */
     public void updatePosition() {
+        previousY = y;
         y += speed;
-        obstacleImageView.setY(y);
     }
 
     /**
-     * Gets the {@link ImageView} associated with the obstacle.
+     * Moves the obstacle to the given position.
+     *
+     * @param x the new x-coordinate of the obstacle.
+     * @param y the new y-coordinate of the obstacle.
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+        this.previousY = y;
+    }
+
+    /**
+     * Gets the current x-coordinate of the obstacle.
      *
-     * @return the {@link ImageView} of the obstacle.
+     * @return the x-coordinate of the obstacle.
      */
-    public ImageView getImageView() {
-        return obstacleImageView;
+    public double getX() {
+        return x;
     }
 
     /**
@@ -92,6 +108,62 @@ public class Obstacle {
         return y;
     }
 
+    /**
+     * Gets the y-coordinate of the obstacle before the last position update.
+     *
+     * @return the previous y-coordinate of the obstacle.
+     */
+    public double getPreviousY() {
+        return previousY;
+    }
+
+    /**
+     * Gets the y-coordinate of the obstacle between its previous and current position.
+     *
+     * @param alpha the interpolation factor, between 0 (previous position) and 1 (current position).
+     * @return the interpolated y-coordinate of the obstacle.
+     */
+    public double getInterpolatedY(double alpha) {
+        return previousY + (y - previousY) * alpha;
+    }
+
+    /**
+     * Gets the width of the obstacle.
+     *
+     * @return the width of the obstacle.
+     */
+    public double getWidth() {
+        return WIDTH;
+    }
+
+    /**
+     * Gets the height of the obstacle.
+     *
+     * @return the height of the obstacle.
+     */
+    public double getHeight() {
+        return HEIGHT;
+    }
+
+    /**
+     * Gets the index of the sprite used to draw the obstacle.
+     *
+     * @return the sprite index, to be resolved through the {@link SpriteCache}.
+     */
+    public int getSpriteIndex() {
+        return spriteIndex;
+    }
+
+    /**
+     * Sets the index of the sprite used to draw the obstacle. The simulation picks it with its own seeded
+     * random generator, so that a replayed run looks the same as the original one.
+     *
+     * @param spriteIndex the sprite index, between 0 and {@link SpriteCache#OBSTACLE_SPRITE_COUNT} - 1.
+     */
+    public void setSpriteIndex(int spriteIndex) {
+        this.spriteIndex = spriteIndex;
+    }
+
     /**
      * Gets the current speed of the obstacle.
      *
@@ -110,16 +182,6 @@ public class Obstacle {
         this.speed = speed;
     }
 
-    /**
-     * Gets the bounding rectangle of the obstacle for collision detection.
-     *
-     * @return a {@link Rectangle2D} representing the bounds of the obstacle.
-     */
-    public Rectangle2D getBounds() {
-        return new Rectangle2D(obstacleImageView.getX(), obstacleImageView.getY(),
-                obstacleImageView.getFitWidth(), obstacleImageView.getFitHeight());
-    }
-
     /**
      * Increases the speed of the obstacle by a specified increment.
      *
@@ -0,0 +1,121 @@
+package game;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * The {@code ObstaclePool} class recycles {@link Obstacle} instances so that spawning does not
+ * allocate new objects once the pool has grown to the number of obstacles alive at the same time.
+ * Obstacles leaving the screen are released back to the pool and reset when they are acquired again.
+ * The pool keeps counters of hits, misses and of the highest number of obstacles in use at once.
+ */
+public class ObstaclePool {
+
+    /**
+     * The obstacles currently available for reuse.
+     */
+    private final ArrayDeque<Obstacle> freeObstacles = new ArrayDeque<>();
+
+    /**
+     * The number of acquisitions served by a recycled obstacle.
+     */
+    private long hits = 0;
+
+    /**
+     * The number of acquisitions that had to create a new obstacle.
+     */
+    private long misses = 0;
+
+    /**
+     * The number of obstacles currently handed out by the pool.
+     */
+    private int inUse = 0;
+
+    /**
+     * The highest number of obstacles handed out at the same time.
+     */
+    private int highWaterMark = 0;
+
+    /**
+     * Gets an obstacle placed in the given lane with the given speed, reusing a released
+     * obstacle when one is available.
+     *
+     * @param laneX        the x-coordinate (lane) where the obstacle is placed.
+     * @param initialSpeed the initial downward speed of the obstacle.
+     * @return an obstacle ready to be added to the game.
+     */
+    public Obstacle acquire(double laneX, double initialSpeed) {
+        Obstacle obstacle = freeObstacles.pollFirst();
+        if (obstacle != null) {
+            hits++;
+            obstacle.reset(laneX, initialSpeed);
+        } else {
+            misses++;
+            obstacle = new Obstacle(laneX, initialSpeed);
+        }
+
+        inUse++;
+        if (inUse > highWaterMark) {
+            highWaterMark = inUse;
+        }
+        return obstacle;
+    }
+
+    /**
+     * Returns an obstacle to the pool once it is no longer part of the game.
+     *
+     * @param obstacle the obstacle to recycle.
+     */
+    public void release(Obstacle obstacle) {
+        freeObstacles.addFirst(obstacle);
+        inUse--;
+    }
+
+    /**
+     * Returns every obstacle of the given list to the pool and clears the list.
+     *
+     * @param obstacles the obstacles to recycle.
+     */
+    public void releaseAll(List<Obstacle> obstacles) {
+        for (int i = 0; i < obstacles.size(); i++) {
+            release(obstacles.get(i));
+        }
+        obstacles.clear();
+    }
+
+    /**
+     * Gets the number of acquisitions served by a recycled obstacle.
+     *
+     * @return the number of pool hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of acquisitions that had to create a new obstacle.
+     *
+     * @return the number of pool misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the highest number of obstacles handed out at the same time.
+     *
+     * @return the high-water mark of the pool.
+     */
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Gets the number of obstacles waiting to be reused.
+     *
+     * @return the number of free obstacles.
+     */
+    public int getFreeCount() {
+        return freeObstacles.size();
+    }
+}
@@ -0,0 +1,229 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * The {@code ObstacleStore} class is an alternative to the list of {@link Obstacle} objects that keeps
+ * every obstacle as one slot in parallel primitive arrays (x, y, previous y, speed, lane, sprite index).
+ * Updating and culling the obstacles are tight loops over contiguous arrays, which the JIT compiler
+ * can unroll and vectorise, and removing an obstacle moves the last slot into the freed one.
+ * It is meant for stress configurations with a very large number of obstacles; the {@link GamePanel}
+ * renders straight from its arrays.
+ */
+public class ObstacleStore {
+
+    private double[] x;
+    private double[] y;
+    private double[] previousY;
+    private double[] speed;
+    private int[] lane;
+    private int[] sprite;
+    private int size = 0;
+
+    /**
+     * Constructs an empty store.
+     *
+     * @param initialCapacity the number of obstacles the store can hold before growing
+     */
+    public ObstacleStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        x = new double[capacity];
+        y = new double[capacity];
+        previousY = new double[capacity];
+        speed = new double[capacity];
+        lane = new int[capacity];
+        sprite = new int[capacity];
+    }
+
+    /**
+     * Adds an obstacle just above the screen.
+     *
+     * @param laneX        the x-coordinate (lane) where the obstacle is placed
+     * @param laneNumber   the lane of the obstacle
+     * @param initialSpeed the downward speed of the obstacle
+     * @param spriteIndex  the index of the sprite, in the {@link SpriteCache}, used to draw the obstacle
+     * @return the slot of the new obstacle
+     */
+    public int add(double laneX, int laneNumber, double initialSpeed, int spriteIndex) {
+        if (size == x.length) {
+            grow();
+        }
+        int i = size++;
+        x[i] = laneX;
+        y[i] = -Obstacle.HEIGHT;
+        previousY[i] = y[i];
+        speed[i] = initialSpeed;
+        lane[i] = laneNumber;
+        sprite[i] = spriteIndex;
+        return i;
+    }
+
+    /**
+     * Doubles the capacity of every array.
+     */
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        lane = Arrays.copyOf(lane, capacity);
+        sprite = Arrays.copyOf(sprite, capacity);
+    }
+
+    /**
+     * Moves every obstacle downward by its speed, remembering its previous position for render interpolation.
+     */
+    public void update() {
+        System.arraycopy(y, 0, previousY, 0, size);
+        double[] ys = y;
+        double[] speeds = speed;
+        for (int i = 0; i < size; i++) {
+            ys[i] += speeds[i];
+        }
+    }
+
+    /**
+     * Removes every obstacle whose y-coordinate is greater than the given limit, moving the last
+     * obstacle into each freed slot.
+     *
+     * @param maxY the largest y-coordinate kept in the store
+     */
+    public void cull(double maxY) {
+        int i = 0;
+        while (i < size) {
+            if (y[i] > maxY) {
+                int last = --size;
+                x[i] = x[last];
+                y[i] = y[last];
+                previousY[i] = previousY[last];
+                speed[i] = speed[last];
+                lane[i] = lane[last];
+                sprite[i] = sprite[last];
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Finds an obstacle overlapping the given rectangle. Obstacles outside the lanes overlapped by the
+     * rectangle are rejected on their lane number before their coordinates are compared.
+     *
+     * @param firstLane the first lane overlapped by the rectangle
+     * @param lastLane  the last lane overlapped by the rectangle
+     * @param left      the x-coordinate of the left edge of the rectangle
+     * @param top       the y-coordinate of the top edge of the rectangle
+     * @param right     the x-coordinate of the right edge of the rectangle
+     * @param bottom    the y-coordinate of the bottom edge of the rectangle
+     * @return the slot of an overlapping obstacle, or -1 if there is none
+     */
+    public int findOverlap(int firstLane, int lastLane, double left, double top, double right, double bottom) {
+        for (int i = 0; i < size; i++) {
+            int l = lane[i];
+            if (l < firstLane || l > lastLane) continue;
+            if (Collision.intersects(left, top, right - left, bottom - top, x[i], y[i], Obstacle.WIDTH, Obstacle.HEIGHT)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds an obstacle that overlapped the player vehicle at any moment of the last tick, following
+     * both from their previous positions to their current ones.
+     *
+     * @param firstLane     the first lane covered by the path of the player vehicle
+     * @param lastLane      the last lane covered by the path of the player vehicle
+     * @param playerVehicle the player vehicle
+     * @return the slot of an obstacle that overlapped the player vehicle, or -1 if there is none
+     */
+    public int findSweptOverlap(int firstLane, int lastLane, PlayerVehicle playerVehicle) {
+        double px = playerVehicle.getPreviousX();
+        double py = playerVehicle.getPreviousY();
+        double pw = playerVehicle.getWidth();
+        double ph = playerVehicle.getHeight();
+        double pdx = playerVehicle.getX() - px;
+        double pdy = playerVehicle.getY() - py;
+        for (int i = 0; i < size; i++) {
+            int l = lane[i];
+            if (l < firstLane || l > lastLane) continue;
+            if (Collision.sweptIntersects(px, py, pw, ph, pdx, pdy,
+                    x[i], previousY[i], Obstacle.WIDTH, Obstacle.HEIGHT, 0, y[i] - previousY[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes every obstacle from the store.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Gets the number of obstacles in the store.
+     *
+     * @return the number of obstacles
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the x-coordinates of the obstacles. Only the first {@link #size()} slots are in use, and
+     * the array is replaced when the store grows.
+     *
+     * @return the x-coordinate array
+     */
+    public double[] getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y-coordinates of the obstacles.
+     *
+     * @return the y-coordinate array
+     */
+    public double[] getY() {
+        return y;
+    }
+
+    /**
+     * Gets the y-coordinates of the obstacles before the last update.
+     *
+     * @return the previous y-coordinate array
+     */
+    public double[] getPreviousY() {
+        return previousY;
+    }
+
+    /**
+     * Gets the speeds of the obstacles.
+     *
+     * @return the speed array
+     */
+    public double[] getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Gets the lanes of the obstacles.
+     *
+     * @return the lane array
+     */
+    public int[] getLane() {
+        return lane;
+    }
+
+    /**
+     * Gets the sprite indices of the obstacles.
+     *
+     * @return the sprite index array
+     */
+    public int[] getSprite() {
+        return sprite;
+    }
+}
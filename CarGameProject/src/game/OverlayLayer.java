@@ -0,0 +1,208 @@
+package game;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Stop;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+import javafx.util.Duration;
+
+import java.util.List;
+
+/**
+ * The {@code OverlayLayer} class holds the screens drawn over the game panel: the start prompt, the pause
+ * menu, the game over menu and the level-up notification. Every node, font, gradient, effect and animation
+ * is built once, when the layer is constructed, and stays in the scene graph for the whole session; the
+ * screens are only shown or hidden, and their texts updated. Showing a screen therefore adds no node to the
+ * scene and triggers no CSS pass, only the layout of the texts that changed. The menus are shown over a
+ * {@link FrozenBackdrop}, a blurred still of the game panel captured when they are shown.
+ */
+public class OverlayLayer extends StackPane {
+
+    /**
+     * How long the level-up notification stays on screen.
+     */
+    private static final Duration LEVEL_UP_DURATION = Duration.seconds(2);
+
+    private final FrozenBackdrop backdrop;
+    private final Text startText;
+    private final VBox pauseMenu;
+    private final VBox gameOverMenu;
+    private final Text scoreDetails;
+    private final Text leaderboardText;
+    private final Text levelUpText;
+    private final Timeline levelUpTimeline;
+    private final Text playText;
+    private final Text gameOverText;
+    private final DropShadow playShadow = new DropShadow(10, Color.DARKGREEN);
+    private final DropShadow gameOverShadow = new DropShadow(10, Color.DARKORANGE);
+
+    /**
+     * Constructs the overlay layer, with only the start prompt shown.
+     *
+     * @param backdrop the node shown blurred behind the pause and game over menus, usually the game panel
+     * @param onResume the action of the resume button of the pause menu
+     */
+    public OverlayLayer(Node backdrop, Runnable onResume) {
+        this.backdrop = new FrozenBackdrop(backdrop);
+        // The layer covers the whole window, but only its visible screens take mouse clicks.
+        setPickOnBounds(false);
+
+        startText = new Text("Press enter to start");
+        startText.setFont(new Font(20));
+        startText.setFill(Color.WHITE);
+
+        playText = new Text("PLAY");
+        playText.setFont(new Font("Arial Black", 40));
+        playText.setFill(new LinearGradient(0, 0, 1, 0, true, CycleMethod.NO_CYCLE,
+                new Stop(0, Color.LIGHTGREEN), new Stop(0.5, Color.LIME), new Stop(1, Color.DARKGREEN)));
+        playText.setEffect(playShadow);
+
+        Button resumeButton = new Button();
+        resumeButton.setStyle("-fx-shape: 'M 0 0 L 50 25 L 0 50 Z'; -fx-background-color: lime; -fx-min-width: 60px; -fx-min-height: 60px");
+        resumeButton.setOnAction(e -> onResume.run());
+
+        pauseMenu = new VBox(20, playText, resumeButton);
+        pauseMenu.setAlignment(Pos.CENTER);
+
+        gameOverText = new Text("GAME OVER");
+        gameOverText.setFont(new Font("Arial Black", 40));
+        gameOverText.setFill(new LinearGradient(0, 0, 1, 0, true, CycleMethod.NO_CYCLE,
+                new Stop(0, Color.RED), new Stop(1, Color.ORANGE)));
+        gameOverText.setEffect(gameOverShadow);
+
+        scoreDetails = new Text();
+        scoreDetails.setFont(Font.font("Roboto", FontWeight.BOLD, 25));
+        scoreDetails.setFill(Color.WHITE);
+        scoreDetails.setTextAlignment(TextAlignment.CENTER);
+        scoreDetails.setStyle("-fx-line-spacing: 10;");
+
+        leaderboardText = new Text();
+        leaderboardText.setFont(Font.font("Roboto", FontWeight.BOLD, 16));
+        leaderboardText.setFill(Color.LIGHTGRAY);
+        leaderboardText.setTextAlignment(TextAlignment.CENTER);
+
+        gameOverMenu = new VBox(20, gameOverText, scoreDetails, leaderboardText);
+        gameOverMenu.setAlignment(Pos.CENTER);
+
+        levelUpText = new Text();
+        levelUpText.setFont(new Font("Arial Black", 30));
+        levelUpText.setFill(Color.YELLOW);
+        levelUpTimeline = new Timeline(new KeyFrame(LEVEL_UP_DURATION, e -> levelUpText.setVisible(false)));
+
+        getChildren().addAll(this.backdrop, startText, pauseMenu, gameOverMenu, levelUpText);
+        hideAll();
+        startText.setVisible(true);
+    }
+
+    /**
+     * Enables or disables the effects of the menus: the drop shadows of their titles and the blur of the still
+     * behind them. The still already shown keeps its blur until it is captured again.
+     *
+     * @param enabled {@code true} to draw the effects
+     */
+    public void setEffectsEnabled(boolean enabled) {
+        playText.setEffect(enabled ? playShadow : null);
+        gameOverText.setEffect(enabled ? gameOverShadow : null);
+        backdrop.setBlurred(enabled);
+    }
+
+    /**
+     * Hides the start prompt. Does nothing if it is already hidden, so it can be called every frame.
+     */
+    public void hideStart() {
+        if (startText.isVisible()) {
+            startText.setVisible(false);
+        }
+    }
+
+    /**
+     * Shows the pause menu over a blurred still of the backdrop.
+     */
+    public void showPause() {
+        backdrop.freeze();
+        pauseMenu.setVisible(true);
+    }
+
+    /**
+     * Hides the pause menu and the still of the backdrop.
+     */
+    public void hidePause() {
+        pauseMenu.setVisible(false);
+        backdrop.thaw();
+    }
+
+    /**
+     * Captures the still of the backdrop again if a menu is shown, for instance after the window was resized.
+     */
+    public void refreshBackdrop() {
+        if (backdrop.isVisible()) {
+            backdrop.freeze();
+        }
+    }
+
+    /**
+     * Shows the game over menu over a blurred still of the backdrop.
+     *
+     * @param details     the score, high score and restart prompt
+     * @param leaderboard the leaderboard of the vehicle type
+     */
+    public void showGameOver(String details, String leaderboard) {
+        scoreDetails.setText(details);
+        leaderboardText.setText(leaderboard);
+        backdrop.freeze();
+        gameOverMenu.setVisible(true);
+    }
+
+    /**
+     * Shows the level-up notification for {@link #LEVEL_UP_DURATION}. A notification still shown is replaced.
+     *
+     * @param level the new level
+     */
+    public void showLevelUp(int level) {
+        levelUpText.setText("Level " + level + " !");
+        levelUpText.setVisible(true);
+        levelUpTimeline.playFromStart();
+    }
+
+    /**
+     * Hides every screen and the still of the backdrop, as at the start of a run.
+     */
+    public void hideAll() {
+        levelUpTimeline.stop();
+        startText.setVisible(false);
+        pauseMenu.setVisible(false);
+        gameOverMenu.setVisible(false);
+        levelUpText.setVisible(false);
+        backdrop.thaw();
+    }
+
+    /**
+     * Counts the nodes of a scene graph, for the profiler.
+     *
+     * @param node the root of the scene graph
+     * @return the number of nodes, the root included
+     */
+    public static int countNodes(Node node) {
+        int count = 1;
+        if (node instanceof Parent) {
+            List<Node> children = ((Parent) node).getChildrenUnmodifiable();
+            for (int i = 0; i < children.size(); i++) {
+                count += countNodes(children.get(i));
+            }
+        }
+        return count;
+    }
+}
@@ -1,8 +1,5 @@
 package game;
 
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-
 /**
  * The {@code PlayerBike} class represents a bike controlled by the player in the game.
  * It extends the {@code PlayerVehicle} class and provides specific functionality for the bike,
@@ -11,45 +8,48 @@ import javafx.scene.image.ImageView;
 public class PlayerBike extends PlayerVehicle {
 
     /**
-     * Constructs a new {@code PlayerBike} instance, initializing its position and image.
+     * The distance the bike slides towards its target lane per tick, in pixels.
+     */
+    public static final double SLIDE_SPEED = 8;
+
+    /**
+     * Constructs a new {@code PlayerBike} instance, initializing its position and size.
      *
      * @param startY    the initial Y-coordinate of the bike.
      * @param laneWidth the width of each lane on the track.
      */
     public PlayerBike(double startY, double laneWidth) {
-        super(startY, laneWidth);
-
-        Image bikeImage = new Image("file:assets/cars/playerBike.png");
-        vehicleImageView = new ImageView(bikeImage);
-        vehicleImageView.setFitWidth(30);
-        vehicleImageView.setFitHeight(60);
-
-        this.x = calculateLaneX(currentLane);
-        this.targetX = x;
-        updatePosition();
+        super("bike", 30, 60, startY, laneWidth);
     }
 
     /**
      * Updates the bike's sliding movement across lanes.
      * The bike slides faster than the default speed of the {@code PlayerVehicle}.
-     * When the target X-coordinate is reached, the bike straightens and stops moving.
+     * When the target X-coordinate is reached, the bike straightens and starts the next
+     * buffered lane change, if any.
      */
     @Override
     public void updateSliding() {
         if (isMoving) {
-            double slideSpeed = 8; // Faster sliding speed
             if (x < targetX) {
-                x = Math.min(x + slideSpeed, targetX);
+                x = Math.min(x + SLIDE_SPEED, targetX);
             } else if (x > targetX) {
-                x = Math.max(x - slideSpeed, targetX);
+                x = Math.max(x - SLIDE_SPEED, targetX);
             }
 
             if (x == targetX) {
-                isMoving = false;
-                straighten();
+                finishSlide();
             }
-
-            updatePosition();
         }
     }
+
+    /**
+     * Gets the distance the bike slides towards its target lane per tick.
+     *
+     * @return {@link #SLIDE_SPEED}
+     */
+    @Override
+    public double getSlideSpeed() {
+        return SLIDE_SPEED;
+    }
 }
@@ -1,15 +1,26 @@
 package game;
 
-import javafx.geometry.Rectangle2D;
-import javafx.scene.image.ImageView;
-
 /**
  * Represents an abstract player vehicle in the game.
  * This class provides basic functionality for vehicle movement and positioning.
+ * The vehicle only holds its position, size and rotation; it is drawn by the {@link GamePanel}
+ * with the sprite registered for its type in the {@link SpriteCache}.
  */
 public abstract class PlayerVehicle {
-    protected ImageView vehicleImageView;
+    /**
+     * The phase advance of the bounce per simulation tick, in radians.
+     */
+    private static final double BOUNCE_PHASE_PER_TICK = 0.005 * 1000.0 / GameSimulation.TICKS_PER_SECOND;
+
+    /**
+     * The number of lane changes that can wait while the vehicle slides to another lane.
+     */
+    public static final int INPUT_BUFFER_SIZE = 2;
+
+    protected String vehicleType;
+    protected double width, height;
     protected double x, y;
+    private final double startY;
     protected double targetX;
     public int currentLane;
     protected double laneWidth;
@@ -18,26 +29,207 @@ public abstract class PlayerVehicle {
     protected double targetRotation = 0;
     protected double currentRotation = 0;
     protected double verticalOffset = 0;
+    protected long bounceTicks = 0;
+    protected double previousX, previousY;
+    protected double previousRotation;
+
+    private final int[] bufferedMoves = new int[INPUT_BUFFER_SIZE];
+    private final long[] bufferedPressNanos = new long[INPUT_BUFFER_SIZE];
+    private int bufferedCount = 0;
+    private int inputBufferSize = INPUT_BUFFER_SIZE;
+    private long startedPressNanos = 0;
+    private long appliedPressNanos = 0;
 
     /**
      * Constructs a new PlayerVehicle.
      *
-     * @param startY    The initial Y position of the vehicle.
-     * @param laneWidth The width of each lane in the game.
+     * @param vehicleType The type of the vehicle ("car", "bike", "truck").
+     * @param width       The width of the vehicle.
+     * @param height      The height of the vehicle.
+     * @param startY      The initial Y position of the vehicle.
+     * @param laneWidth   The width of each lane in the game.
      */
-    public PlayerVehicle(double startY, double laneWidth) {
+    public PlayerVehicle(String vehicleType, double width, double height, double startY, double laneWidth) {
+        this.vehicleType = vehicleType;
+        this.width = width;
+        this.height = height;
         this.laneWidth = laneWidth;
-        this.y = startY;
-        this.currentLane = 1;
+        this.startY = startY;
+        reset();
+    }
+
+    /**
+     * Puts the vehicle back at its starting position, in lane 1, as a newly constructed vehicle: straight,
+     * not bouncing, with no lane change under way or buffered and the default input buffer size.
+     * Restarting a run this way allocates nothing.
+     */
+    public void reset() {
+        currentLane = 1;
+        x = calculateLaneX(currentLane);
+        targetX = x;
+        y = startY;
+        isMoving = false;
+        targetRotation = 0;
+        currentRotation = 0;
+        verticalOffset = 0;
+        bounceTicks = 0;
+        bufferedCount = 0;
+        inputBufferSize = INPUT_BUFFER_SIZE;
+        startedPressNanos = 0;
+        appliedPressNanos = 0;
+        savePreviousPosition();
+    }
+
+    /**
+     * Retrieves the type of the vehicle, used to look up its sprite.
+     *
+     * @return The vehicle type ("car", "bike", "truck").
+     */
+    public String getVehicleType() {
+        return vehicleType;
     }
 
     /**
-     * Retrieves the ImageView representing the vehicle.
+     * Retrieves the X coordinate at which the vehicle is drawn.
      *
-     * @return The ImageView of the vehicle.
+     * @return The X coordinate of the vehicle.
      */
-    public ImageView getImageView() {
-        return vehicleImageView;
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Retrieves the Y coordinate at which the vehicle is drawn, including the bounce offset.
+     *
+     * @return The Y coordinate of the vehicle.
+     */
+    public double getY() {
+        return y + verticalOffset;
+    }
+
+    /**
+     * Retrieves the Y coordinate of the vehicle without the bounce offset.
+     *
+     * @return The Y coordinate of the vehicle at rest.
+     */
+    public double getBaseY() {
+        return y;
+    }
+
+    /**
+     * Retrieves the width of the vehicle.
+     *
+     * @return The width of the vehicle.
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Retrieves the height of the vehicle.
+     *
+     * @return The height of the vehicle.
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * Retrieves the current rotation of the vehicle, in degrees.
+     *
+     * @return The current rotation of the vehicle.
+     */
+    public double getRotation() {
+        return currentRotation;
+    }
+
+    /**
+     * Moves the vehicle to the given position and cancels any ongoing slide and buffered lane change.
+     *
+     * @param x The new X coordinate of the vehicle.
+     * @param y The new Y coordinate of the vehicle.
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.targetX = x;
+        this.y = y;
+        this.verticalOffset = 0;
+        this.isMoving = false;
+        this.bufferedCount = 0;
+        savePreviousPosition();
+    }
+
+    /**
+     * Remembers the current drawn position as the previous one.
+     * This is called at the start of every simulation tick so that rendering can interpolate
+     * between the last two ticks. A lane change started since the previous tick starts sliding in this
+     * tick, so from now on it shows on screen.
+     */
+    public void savePreviousPosition() {
+        previousX = getX();
+        previousY = getY();
+        previousRotation = currentRotation;
+        if (startedPressNanos != 0) {
+            appliedPressNanos = startedPressNanos;
+            startedPressNanos = 0;
+        }
+    }
+
+    /**
+     * Retrieves the X coordinate of the vehicle at the start of the current tick.
+     *
+     * @return The previous X coordinate of the vehicle.
+     */
+    public double getPreviousX() {
+        return previousX;
+    }
+
+    /**
+     * Retrieves the Y coordinate of the vehicle, including the bounce offset, at the start of the current tick.
+     *
+     * @return The previous Y coordinate of the vehicle.
+     */
+    public double getPreviousY() {
+        return previousY;
+    }
+
+    /**
+     * Retrieves the X coordinate of the vehicle between its previous and current position.
+     *
+     * @param alpha The interpolation factor, between 0 (previous tick) and 1 (current tick).
+     * @return The interpolated X coordinate of the vehicle.
+     */
+    public double getInterpolatedX(double alpha) {
+        return previousX + (getX() - previousX) * alpha;
+    }
+
+    /**
+     * Retrieves the Y coordinate of the vehicle between its previous and current position.
+     *
+     * @param alpha The interpolation factor, between 0 (previous tick) and 1 (current tick).
+     * @return The interpolated Y coordinate of the vehicle.
+     */
+    public double getInterpolatedY(double alpha) {
+        return previousY + (getY() - previousY) * alpha;
+    }
+
+    /**
+     * Retrieves the rotation of the vehicle at the start of the current tick, in degrees.
+     *
+     * @return The previous rotation of the vehicle.
+     */
+    public double getPreviousRotation() {
+        return previousRotation;
+    }
+
+    /**
+     * Retrieves the rotation of the vehicle between its previous and current rotation, in degrees.
+     *
+     * @param alpha The interpolation factor, between 0 (previous tick) and 1 (current tick).
+     * @return The interpolated rotation of the vehicle.
+     */
+    public double getInterpolatedRotation(double alpha) {
+        return previousRotation + (currentRotation - previousRotation) * alpha;
     }
 
     /**
@@ -47,43 +239,135 @@ public abstract class PlayerVehicle {
      * @return The X coordinate for the center of the specified lane.
      */
     protected double calculateLaneX(int lane) {
-        return 100 + lane * laneWidth + (laneWidth - vehicleImageView.getFitWidth()) / 2;
+        return GameSimulation.ROAD_MARGIN + lane * laneWidth + (laneWidth - width) / 2;
     }
 
     /**
-     * Updates the position of the vehicle's ImageView based on current coordinates and vertical offset.
+     * Moves the vehicle to the left lane if possible.
+     * Sets up the target position and rotation for smooth animation.
+     * A press made while the vehicle slides to another lane is kept and applied when the slide ends.
      */
-    protected void updatePosition() {
-        vehicleImageView.setX(x);
-        vehicleImageView.setY(y + verticalOffset);
+    public void moveLeft() {
+        moveLeft(0);
     }
 
     /**
-     * Moves the vehicle to the left lane if possible.
-     * Sets up the target position and rotation for smooth animation.
+     * Moves the vehicle to the left lane if possible, remembering when the key was pressed.
+     *
+     * @param pressNanos the time the key was pressed, on the {@link System#nanoTime()} clock, or 0 if unknown
      */
-    public void moveLeft() {
-        if (currentLane > 0 && !isMoving) {
-            currentLane--;
-            targetX = calculateLaneX(currentLane);
-            targetRotation = -20; // Rotate left
-            isMoving = true;
-        }
+    public void moveLeft(long pressNanos) {
+        move(-1, pressNanos);
     }
 
     /**
      * Moves the vehicle to the right lane if possible.
      * Sets up the target position and rotation for smooth animation.
+     * A press made while the vehicle slides to another lane is kept and applied when the slide ends.
      */
     public void moveRight() {
-        if (currentLane < 3 && !isMoving) {
-            currentLane++;
-            targetX = calculateLaneX(currentLane);
-            targetRotation = 20;
-            isMoving = true;
+        moveRight(0);
+    }
+
+    /**
+     * Moves the vehicle to the right lane if possible, remembering when the key was pressed.
+     *
+     * @param pressNanos the time the key was pressed, on the {@link System#nanoTime()} clock, or 0 if unknown
+     */
+    public void moveRight(long pressNanos) {
+        move(1, pressNanos);
+    }
+
+    /**
+     * Starts a lane change, or buffers it if the vehicle is already changing lanes. A press made while the
+     * buffer is full is dropped.
+     *
+     * @param direction  -1 to move left, 1 to move right
+     * @param pressNanos the time the key was pressed, or 0 if unknown
+     */
+    private void move(int direction, long pressNanos) {
+        if (isMoving) {
+            if (bufferedCount < inputBufferSize) {
+                bufferedMoves[bufferedCount] = direction;
+                bufferedPressNanos[bufferedCount] = pressNanos;
+                bufferedCount++;
+            }
+            return;
+        }
+        int lane = currentLane + direction;
+        if (lane < 0 || lane > 3) return;
+        currentLane = lane;
+        targetX = calculateLaneX(currentLane);
+        targetRotation = 20 * direction;
+        isMoving = true;
+        if (pressNanos != 0) {
+            startedPressNanos = pressNanos;
+        }
+    }
+
+    /**
+     * Ends a lane change: straightens the vehicle and starts the next buffered lane change, if any.
+     * Buffered lane changes leading off the road are dropped, so the next one that can start does.
+     * Called by {@link #updateSliding()} once the vehicle has reached its lane.
+     */
+    protected void finishSlide() {
+        isMoving = false;
+        straighten();
+        while (bufferedCount > 0 && !isMoving) {
+            int direction = bufferedMoves[0];
+            long pressNanos = bufferedPressNanos[0];
+            bufferedCount--;
+            System.arraycopy(bufferedMoves, 1, bufferedMoves, 0, bufferedCount);
+            System.arraycopy(bufferedPressNanos, 1, bufferedPressNanos, 0, bufferedCount);
+            move(direction, pressNanos);
         }
     }
 
+    /**
+     * Sets how many lane changes can wait while the vehicle slides to another lane. With 0, a press made
+     * mid-slide is dropped, as in replays recorded before the buffer existed.
+     *
+     * @param inputBufferSize the number of lane changes, between 0 and {@link #INPUT_BUFFER_SIZE}
+     * @throws IllegalArgumentException if the size is out of range
+     */
+    public void setInputBufferSize(int inputBufferSize) {
+        if (inputBufferSize < 0 || inputBufferSize > INPUT_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Invalid input buffer size: " + inputBufferSize);
+        }
+        this.inputBufferSize = inputBufferSize;
+        bufferedCount = Math.min(bufferedCount, inputBufferSize);
+    }
+
+    /**
+     * Gets the number of lane changes waiting for the current one to end.
+     *
+     * @return the number of buffered lane changes
+     */
+    public int getBufferedMoves() {
+        return bufferedCount;
+    }
+
+    /**
+     * Gets the time the key of the last lane change shown on screen was pressed: the last one that has
+     * started sliding in a tick. The renderer compares it with the previous frame's to measure the latency
+     * from a key press to the first frame showing its effect.
+     *
+     * @return the time on the {@link System#nanoTime()} clock, or 0 if no timed lane change was started
+     */
+    public long getAppliedPressNanos() {
+        return appliedPressNanos;
+    }
+
+    /**
+     * Tells whether the vehicle is sliding to another lane. Lane changes made until it gets there are
+     * buffered, as far as the input buffer allows.
+     *
+     * @return {@code true} if the vehicle is changing lanes
+     */
+    public boolean isMoving() {
+        return isMoving;
+    }
+
     /**
      * Resets the target rotation to straighten the vehicle.
      */
@@ -92,11 +376,14 @@ public abstract class PlayerVehicle {
     }
 
     /**
-     * Updates the vertical offset to create a bouncing effect and updates the vehicle's position.
+     * Updates the vertical offset to create a bouncing effect.
+     * The bounce follows the number of ticks elapsed rather than the wall clock, so that a replayed run
+     * collides exactly like the original one. It bounces at the same rate as it used to, about once
+     * every 1.26 seconds.
      */
     public void updateBounce() {
-        verticalOffset = 5 * Math.sin(System.currentTimeMillis() * 0.005);
-        updatePosition();
+        bounceTicks++;
+        verticalOffset = 5 * Math.sin(bounceTicks * BOUNCE_PHASE_PER_TICK);
     }
 
     /**
@@ -105,6 +392,13 @@ public abstract class PlayerVehicle {
      */
     public abstract void updateSliding();
 
+    /**
+     * Gets the distance the vehicle slides towards its target lane per tick.
+     *
+     * @return the slide speed in pixels per tick
+     */
+    public abstract double getSlideSpeed();
+
     /**
      * Updates the rotation of the vehicle, smoothly interpolating between the current and target rotation.
      */
@@ -115,16 +409,5 @@ public abstract class PlayerVehicle {
         } else if (currentRotation > targetRotation) {
             currentRotation = Math.max(currentRotation - rotationSpeed, targetRotation);
         }
-        vehicleImageView.setRotate(currentRotation);
-    }
-
-    /**
-     * Retrieves the bounding rectangle of the vehicle.
-     *
-     * @return A Rectangle2D representing the bounds of the vehicle's ImageView.
-     */
-    public Rectangle2D getBounds() {
-        return new Rectangle2D(vehicleImageView.getX(), vehicleImageView.getY(),
-                vehicleImageView.getFitWidth(), vehicleImageView.getFitHeight());
     }
 }
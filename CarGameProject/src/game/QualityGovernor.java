@@ -0,0 +1,130 @@
+package game;
+
+/**
+ * The {@code QualityGovernor} class trades visual quality for frame rate: it is a {@link FrameBudgetGovernor}
+ * whose levels are quality tiers, each one dropping more of the eye-candy than the previous one.
+ * <ul>
+ *     <li>{@link #HIGH} draws everything.</li>
+ *     <li>{@link #MEDIUM} drops the effects of the menus: the drop shadows of their titles and the blur of the
+ *     still behind them.</li>
+ *     <li>{@link #LOW} also draws the sprites without image smoothing.</li>
+ *     <li>{@link #MINIMUM} also draws the player vehicle without its bounce and tilt.</li>
+ * </ul>
+ * The bounce and tilt are still simulated at every tier, since the bounce takes part in the collisions and
+ * both are part of the replayed state; only their drawing is dropped. With dynamic resolution, the ladder goes
+ * on past the lowest tier with the lower resolutions of the {@link ResolutionScaler}, so the panel is only
+ * drawn at a lower resolution once there is no more eye-candy to drop.
+ */
+public class QualityGovernor extends FrameBudgetGovernor {
+
+    /**
+     * The tier drawing everything.
+     */
+    public static final int HIGH = 0;
+
+    /**
+     * The tier dropping the effects of the menus.
+     */
+    public static final int MEDIUM = 1;
+
+    /**
+     * The tier also dropping the image smoothing.
+     */
+    public static final int LOW = 2;
+
+    /**
+     * The tier also dropping the bounce and tilt of the player vehicle.
+     */
+    public static final int MINIMUM = 3;
+
+    private static final String[] TIER_NAMES = {"high", "medium", "low", "minimum"};
+
+    /**
+     * Constructs a governor starting at the highest tier.
+     *
+     * @param framesPerSecond   the frame rate to hold, usually the refresh rate of the screen
+     * @param dynamicResolution {@code true} to lower the resolution past the lowest tier
+     */
+    public QualityGovernor(int framesPerSecond, boolean dynamicResolution) {
+        super(TIER_NAMES.length + (dynamicResolution ? ResolutionScaler.FACTORS.length - 1 : 0), framesPerSecond);
+    }
+
+    /**
+     * Gets the name of a tier, for the profiler overlay and the logs.
+     *
+     * @param tier the tier
+     * @return the name of the tier
+     */
+    public static String getTierName(int tier) {
+        return TIER_NAMES[tier];
+    }
+
+    /**
+     * Gets the quality tier of a level of the governor.
+     *
+     * @param level the level
+     * @return the tier, from {@link #HIGH} to {@link #MINIMUM}
+     */
+    public static int tierAt(int level) {
+        return Math.min(level, MINIMUM);
+    }
+
+    /**
+     * Gets the resolution of a level of the governor: the full resolution down to the lowest tier, then the
+     * lower resolutions of the {@link ResolutionScaler}.
+     *
+     * @param level the level
+     * @return the fraction of the display resolution
+     */
+    public static double resolutionFactorAt(int level) {
+        return ResolutionScaler.FACTORS[Math.max(0, level - MINIMUM)];
+    }
+
+    /**
+     * Gets the current quality tier.
+     *
+     * @return the tier, from {@link #HIGH} to {@link #MINIMUM}
+     */
+    public int getTier() {
+        return tierAt(getLevel());
+    }
+
+    /**
+     * Gets the resolution to draw the panel at.
+     *
+     * @return the fraction of the display resolution
+     */
+    public double getResolutionFactor() {
+        return resolutionFactorAt(getLevel());
+    }
+
+    /**
+     * Tells whether the menus are drawn with their effects at a tier.
+     *
+     * @param tier the tier
+     * @return {@code true} if the drop shadows and the blur are drawn
+     */
+    public static boolean hasEffects(int tier) {
+        return tier < MEDIUM;
+    }
+
+    /**
+     * Tells whether the sprites are drawn with image smoothing at a tier.
+     *
+     * @param tier the tier
+     * @return {@code true} if the sprites are smoothed when scaled
+     */
+    public static boolean hasImageSmoothing(int tier) {
+        return tier < LOW;
+    }
+
+    /**
+     * Tells whether the player vehicle is drawn with its bounce and tilt at a tier.
+     *
+     * @param tier the tier
+     * @return {@code true} if the bounce and tilt are drawn
+     */
+    public static boolean hasVehicleMotion(int tier) {
+        return tier < MINIMUM;
+    }
+}
@@ -0,0 +1,199 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The {@code ReplayPlayer} class plays a run recorded by a {@link ReplayRecorder} again, without a display
+ * and as fast as the simulation can step. The state of the simulation is checksummed after every tick and
+ * compared with the checksums of the log, so that a replay diverging from the original run, because the
+ * rules changed or the simulation is not deterministic, is reported with the tick where it was caught.
+ * <p>
+ * Run it with replay files or directories of replay files as arguments:
+ * {@code java -cp bin game.ReplayPlayer replays}.
+ */
+public class ReplayPlayer {
+
+    /**
+     * The outcome of a replay.
+     */
+    public static final class Result {
+        private final long tick;
+        private final int score;
+        private final int inputs;
+        private final int checksums;
+        private final long divergedTick;
+
+        Result(long tick, int score, int inputs, int checksums, long divergedTick) {
+            this.tick = tick;
+            this.score = score;
+            this.inputs = inputs;
+            this.checksums = checksums;
+            this.divergedTick = divergedTick;
+        }
+
+        /**
+         * Gets the tick the replay stopped at.
+         *
+         * @return the last tick simulated
+         */
+        public long getTick() {
+            return tick;
+        }
+
+        /**
+         * Gets the score reached by the replay.
+         *
+         * @return the score
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Gets the number of inputs replayed, pauses included.
+         *
+         * @return the number of inputs
+         */
+        public int getInputs() {
+            return inputs;
+        }
+
+        /**
+         * Gets the number of checksums of the log that matched the replay.
+         *
+         * @return the number of matching checksums
+         */
+        public int getChecksums() {
+            return checksums;
+        }
+
+        /**
+         * Tells whether the replay matched the recorded run up to its end.
+         *
+         * @return {@code true} if no divergence was found
+         */
+        public boolean isFaithful() {
+            return divergedTick < 0;
+        }
+
+        /**
+         * Gets the tick at which a divergence from the recorded run was caught. The replay diverged at
+         * some tick since the previous matching checksum.
+         *
+         * @return the tick, or -1 if the replay matched the recorded run
+         */
+        public long getDivergedTick() {
+            return divergedTick;
+        }
+    }
+
+    private ReplayPlayer() {
+    }
+
+    /**
+     * Plays a recorded run until its end or until the replay diverges from it.
+     *
+     * @param reader the reader of the log, positioned before its first record
+     * @return the outcome of the replay
+     */
+    public static Result play(ReplayReader reader) {
+        GameSimulation simulation = new GameSimulation(reader.getVehicleType(), reader.usesObstacleStore(), reader.getSeed());
+        if (!reader.usesTrackGenerator()) {
+            simulation.setLegacySpawning(true);
+        }
+        if (reader.getVersion() < 2) {
+            // Version 1 runs were recorded before lane changes made mid-slide were buffered.
+            simulation.getPlayerVehicle().setInputBufferSize(0);
+        }
+        int runningChecksum = 0;
+        int inputs = 0;
+        int checksums = 0;
+
+        while (reader.next()) {
+            long recordTick = reader.getTick();
+            while (simulation.getTick() < recordTick && !simulation.isGameOver()) {
+                simulation.step();
+                runningChecksum = ReplayRecorder.chain(runningChecksum, simulation.checksum());
+            }
+            if (simulation.getTick() != recordTick) {
+                return new Result(simulation.getTick(), simulation.score, inputs, checksums, simulation.getTick());
+            }
+
+            switch (reader.getType()) {
+                case ReplayRecorder.LEFT:
+                    simulation.getPlayerVehicle().moveLeft();
+                    inputs++;
+                    break;
+                case ReplayRecorder.RIGHT:
+                    simulation.getPlayerVehicle().moveRight();
+                    inputs++;
+                    break;
+                case ReplayRecorder.PAUSE:
+                    // Pausing stops the clock, not the simulation: no tick is simulated while paused.
+                    inputs++;
+                    break;
+                case ReplayRecorder.CHECKSUM:
+                    if (reader.getValue() != runningChecksum) {
+                        return new Result(recordTick, simulation.score, inputs, checksums, recordTick);
+                    }
+                    checksums++;
+                    break;
+                case ReplayRecorder.END:
+                    boolean faithful = simulation.isGameOver() && simulation.score == reader.getValue();
+                    return new Result(recordTick, simulation.score, inputs, checksums, faithful ? -1 : recordTick);
+                default:
+                    break;
+            }
+        }
+        return new Result(simulation.getTick(), simulation.score, inputs, checksums, -1);
+    }
+
+    /**
+     * Replays every file given, or every {@code .rhr} file of every directory given, and prints the outcome.
+     *
+     * @param args the replay files or directories
+     * @throws IOException if a directory cannot be listed
+     */
+    public static void main(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> entries = Files.list(path)) {
+                    entries.filter(p -> p.toString().endsWith(".rhr")).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+
+        int diverged = 0;
+        long start = System.nanoTime();
+        long ticks = 0;
+        for (Path file : files) {
+            try {
+                Result result = play(ReplayReader.open(file));
+                ticks += result.getTick();
+                if (result.isFaithful()) {
+                    System.out.printf("%s: score %d at tick %d, %d inputs, %d checksums ok%n",
+                            file, result.getScore(), result.getTick(), result.getInputs(), result.getChecksums());
+                } else {
+                    diverged++;
+                    System.out.printf("%s: DIVERGED by tick %d (score %d, %d checksums ok before)%n",
+                            file, result.getDivergedTick(), result.getScore(), result.getChecksums());
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                diverged++;
+                System.err.println("Could not replay " + file + ": " + e.getMessage());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d replays, %d diverged, %d ticks in %.2f s%n", files.size(), diverged, ticks, seconds);
+    }
+}
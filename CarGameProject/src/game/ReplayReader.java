@@ -0,0 +1,204 @@
+package game;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@code ReplayReader} class reads a replay log written by a {@link ReplayRecorder}, record by record.
+ * Files are memory-mapped rather than read, so opening a log costs the same whatever its size and an
+ * archive of many runs can be scanned without copying the logs into the heap. Reading the records
+ * allocates nothing.
+ */
+public class ReplayReader {
+
+    private final ByteBuffer buffer;
+    private final String vehicleType;
+    private final long seed;
+    private final boolean obstacleStore;
+    private final boolean trackGenerator;
+    private final int checksumInterval;
+    private final int version;
+    private long tick = 0;
+    private int type = -1;
+    private int value = 0;
+
+    /**
+     * Opens a replay file by mapping it in memory.
+     *
+     * @param path the replay file
+     * @return a reader positioned before the first record
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a replay log
+     */
+    public static ReplayReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            return new ReplayReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Constructs a reader of the replay log held by a buffer, from its position, and reads the header.
+     *
+     * @param buffer the buffer holding the log
+     * @throws IllegalArgumentException if the buffer does not hold a replay log
+     */
+    public ReplayReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        try {
+            if (buffer.getInt() != ReplayRecorder.MAGIC) {
+                throw new IllegalArgumentException("Not a replay log");
+            }
+            this.version = (int) readVarint();
+            if (version < 1 || version > ReplayRecorder.VERSION) {
+                throw new IllegalArgumentException("Unsupported replay log version: " + version);
+            }
+            byte[] vehicleTypeBytes = new byte[(int) readVarint()];
+            buffer.get(vehicleTypeBytes);
+            this.vehicleType = new String(vehicleTypeBytes, StandardCharsets.UTF_8);
+            this.seed = buffer.getLong();
+            int flags = buffer.get();
+            this.obstacleStore = (flags & 1) != 0;
+            this.trackGenerator = (flags & 2) != 0;
+            this.checksumInterval = (int) readVarint();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated replay log header", e);
+        }
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return {@code false} if there is no record left
+     * @throws IllegalArgumentException if the log is truncated or holds an unknown record
+     */
+    public boolean next() {
+        if (!buffer.hasRemaining()) return false;
+        try {
+            long header = readVarint();
+            tick += header >>> ReplayRecorder.TYPE_BITS;
+            type = (int) (header & ((1 << ReplayRecorder.TYPE_BITS) - 1));
+            switch (type) {
+                case ReplayRecorder.LEFT:
+                case ReplayRecorder.RIGHT:
+                case ReplayRecorder.PAUSE:
+                    value = 0;
+                    break;
+                case ReplayRecorder.CHECKSUM:
+                    value = buffer.getInt();
+                    break;
+                case ReplayRecorder.END:
+                    value = (int) readVarint();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown replay record type " + type + " at tick " + tick);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated replay log at tick " + tick, e);
+        }
+        return true;
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint.
+     *
+     * @return the value
+     */
+    private long readVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return result;
+        }
+        throw new IllegalArgumentException("Malformed varint in replay log");
+    }
+
+    /**
+     * Gets the type of the player's vehicle in the recorded run.
+     *
+     * @return the vehicle type
+     */
+    public String getVehicleType() {
+        return vehicleType;
+    }
+
+    /**
+     * Gets the seed of the recorded run.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Tells whether the recorded run kept its obstacles in an {@link ObstacleStore}.
+     *
+     * @return {@code true} if it did
+     */
+    public boolean usesObstacleStore() {
+        return obstacleStore;
+    }
+
+    /**
+     * Tells whether the obstacles of the recorded run were laid out by the {@link TrackGenerator}. Runs
+     * recorded before it existed spawned them the legacy way.
+     *
+     * @return {@code true} if they were
+     */
+    public boolean usesTrackGenerator() {
+        return trackGenerator;
+    }
+
+    /**
+     * Gets the number of ticks between two checksums of the log.
+     *
+     * @return the checksum interval
+     */
+    public int getChecksumInterval() {
+        return checksumInterval;
+    }
+
+    /**
+     * Gets the version of the log format.
+     *
+     * @return the version, between 1 and {@link ReplayRecorder#VERSION}
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the tick of the current record.
+     *
+     * @return the tick
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the type of the current record, one of the record types of {@link ReplayRecorder}.
+     *
+     * @return the record type
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Gets the value of the current record: the checksum of a {@link ReplayRecorder#CHECKSUM} record
+     * or the final score of a {@link ReplayRecorder#END} record.
+     *
+     * @return the value, or 0 for an input record
+     */
+    public int getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,260 @@
+package game;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The {@code ReplayRecorder} class records a run of a {@link GameSimulation} in a compact binary log,
+ * from which the {@link ReplayPlayer} can play the run again, tick for tick.
+ * The simulation is deterministic for a given seed, so the log only holds the seed and the tick of each
+ * input, plus checksums of the state of the simulation to detect a replay diverging from the original run.
+ * <p>
+ * The log starts with a header: the magic number {@code RHR1} (4 bytes), the format version, the vehicle
+ * type (length and UTF-8 bytes), the seed (8 bytes), a flags byte (bit 0 is set when the obstacles were kept
+ * in an {@link ObstacleStore}, bit 1 when they were laid out by the {@link TrackGenerator}) and the checksum
+ * interval. Each record then starts with a varint holding the
+ * number of ticks since the previous record, shifted left by 3, and the record type in the low 3 bits. A
+ * {@link #CHECKSUM} record is followed by the 4-byte checksum and the {@link #END} record by the final score
+ * as a varint. Numbers are big-endian, varints are unsigned LEB128. An input costs one byte when it comes
+ * less than 16 ticks after the previous record, and two when it comes less than 34 seconds after it.
+ * <p>
+ * The state checksum of every tick is folded into a running checksum, which is written every
+ * {@code checksumInterval} ticks, so that a divergence at any tick is caught at the next written checksum.
+ */
+public class ReplayRecorder {
+
+    /**
+     * The magic number at the start of every replay log: "RHR1" in ASCII.
+     */
+    public static final int MAGIC = 0x52485231;
+
+    /**
+     * The version of the log format. Version 2 logs are recorded with lane changes made mid-slide buffered
+     * by the vehicle; in version 1 logs, they were dropped.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * A record of the player pressing the key moving the vehicle left.
+     */
+    public static final int LEFT = 0;
+
+    /**
+     * A record of the player pressing the key moving the vehicle right.
+     */
+    public static final int RIGHT = 1;
+
+    /**
+     * A record of the player pausing or resuming the game.
+     */
+    public static final int PAUSE = 2;
+
+    /**
+     * A record of the running checksum of the simulation state.
+     */
+    public static final int CHECKSUM = 3;
+
+    /**
+     * The last record of a run, holding its final score.
+     */
+    public static final int END = 4;
+
+    /**
+     * The number of low bits of a record header holding its type.
+     */
+    static final int TYPE_BITS = 3;
+
+    /**
+     * The number of ticks between two written checksums by default: one second.
+     */
+    public static final int DEFAULT_CHECKSUM_INTERVAL = GameSimulation.TICKS_PER_SECOND;
+
+    private final GameSimulation simulation;
+    private final byte[] vehicleType;
+    private final int checksumInterval;
+    private byte[] buffer = new byte[1024];
+    private int length = 0;
+    private long lastTick = 0;
+    private int runningChecksum = 0;
+    private boolean finished = false;
+
+    /**
+     * Constructs a recorder and starts recording the current run of the simulation.
+     *
+     * @param simulation       the simulation to record, at the start of a run
+     * @param checksumInterval the number of ticks between two written checksums, 1 to write the checksum of every tick
+     * @throws IllegalArgumentException if the checksum interval is not positive
+     */
+    public ReplayRecorder(GameSimulation simulation, int checksumInterval) {
+        if (checksumInterval < 1) {
+            throw new IllegalArgumentException("Checksum interval must be positive: " + checksumInterval);
+        }
+        this.simulation = simulation;
+        this.vehicleType = simulation.getVehicleType().getBytes(StandardCharsets.UTF_8);
+        this.checksumInterval = checksumInterval;
+        start();
+    }
+
+    /**
+     * Discards the log and starts recording a new run, for instance after the simulation has been reset.
+     * The buffer of the log is reused, so starting a new run allocates nothing.
+     */
+    public void start() {
+        length = 0;
+        lastTick = simulation.getTick();
+        runningChecksum = 0;
+        finished = false;
+
+        writeInt(MAGIC);
+        writeVarint(VERSION);
+        writeVarint(vehicleType.length);
+        for (byte b : vehicleType) {
+            writeByte(b);
+        }
+        writeInt((int) (simulation.getSeed() >>> 32));
+        writeInt((int) simulation.getSeed());
+        writeByte((simulation.getObstacleStore() != null ? 1 : 0) | (simulation.isLegacySpawning() ? 0 : 2));
+        writeVarint(checksumInterval);
+    }
+
+    /**
+     * Records an input of the player at the current tick of the simulation. The input must be recorded
+     * when it is applied, between two ticks.
+     *
+     * @param type the type of input: {@link #LEFT}, {@link #RIGHT} or {@link #PAUSE}
+     */
+    public void recordInput(int type) {
+        if (finished) return;
+        writeHeader(type);
+    }
+
+    /**
+     * Folds the state checksum of the tick just simulated into the running checksum, and writes the running
+     * checksum every {@code checksumInterval} ticks. Must be called after every step of the simulation.
+     */
+    public void afterStep() {
+        if (finished) return;
+        runningChecksum = chain(runningChecksum, simulation.checksum());
+        if (simulation.getTick() % checksumInterval == 0) {
+            writeHeader(CHECKSUM);
+            writeInt(runningChecksum);
+        }
+    }
+
+    /**
+     * Ends the log with the final tick and score of the run. Later inputs are ignored.
+     */
+    public void finish() {
+        if (finished) return;
+        writeHeader(END);
+        writeVarint(simulation.score);
+        finished = true;
+    }
+
+    /**
+     * Writes the log to a file, creating its parent directories if needed.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(Path path) throws IOException {
+        write(path, toByteArray());
+    }
+
+    /**
+     * Writes a copy of a log, taken with {@link #toByteArray()}, to a file, creating its parent directories
+     * if needed. Unlike {@link #writeTo(Path)}, it can be called from any thread.
+     *
+     * @param path the file to write
+     * @param log  the bytes of the log
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, byte[] log) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(path, log);
+    }
+
+    /**
+     * Gets a copy of the log recorded so far.
+     *
+     * @return the bytes of the log
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Gets the size of the log recorded so far.
+     *
+     * @return the size in bytes
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Folds the state checksum of a tick into a running checksum.
+     *
+     * @param runningChecksum the running checksum before the tick
+     * @param stateChecksum   the state checksum after the tick
+     * @return the running checksum after the tick
+     */
+    static int chain(int runningChecksum, int stateChecksum) {
+        return runningChecksum * 31 + stateChecksum;
+    }
+
+    /**
+     * Writes the header of a record: the ticks since the previous record and the record type.
+     *
+     * @param type the record type
+     */
+    private void writeHeader(int type) {
+        long tick = simulation.getTick();
+        writeVarint((tick - lastTick) << TYPE_BITS | type);
+        lastTick = tick;
+    }
+
+    /**
+     * Writes an unsigned value as a varint: 7 bits per byte, low bits first, with the high bit of every
+     * byte but the last one set.
+     *
+     * @param value the value, which must not be negative
+     */
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    /**
+     * Writes an int as 4 big-endian bytes.
+     *
+     * @param value the value
+     */
+    private void writeInt(int value) {
+        writeByte(value >>> 24);
+        writeByte(value >>> 16);
+        writeByte(value >>> 8);
+        writeByte(value);
+    }
+
+    /**
+     * Appends a byte to the log, growing the buffer if needed.
+     *
+     * @param b the byte, in the low 8 bits
+     */
+    private void writeByte(int b) {
+        if (length == buffer.length) {
+            buffer = Arrays.copyOf(buffer, length * 2);
+        }
+        buffer[length++] = (byte) b;
+    }
+}
@@ -0,0 +1,33 @@
+package game;
+
+/**
+ * The {@code ResolutionScaler} class picks the resolution the game panel is drawn at, as a fraction of the
+ * resolution it is shown at, from the time measured between frames: it is a {@link FrameBudgetGovernor} whose
+ * levels are the {@link #FACTORS}. While the frames take too long, the panel is drawn at a lower resolution
+ * and scaled up; once they keep within the budget, the next higher resolution is tried again.
+ */
+public class ResolutionScaler extends FrameBudgetGovernor {
+
+    /**
+     * The fractions of the display resolution the panel can be drawn at, from the highest to the lowest.
+     */
+    public static final double[] FACTORS = {1.0, 0.75, 0.5};
+
+    /**
+     * Constructs a scaler starting at the full resolution.
+     *
+     * @param framesPerSecond the frame rate to hold, usually the refresh rate of the screen
+     */
+    public ResolutionScaler(int framesPerSecond) {
+        super(FACTORS.length, framesPerSecond);
+    }
+
+    /**
+     * Gets the resolution to draw the panel at.
+     *
+     * @return the fraction of the display resolution, one of {@link #FACTORS}
+     */
+    public double getFactor() {
+        return FACTORS[getLevel()];
+    }
+}
@@ -0,0 +1,203 @@
+package game;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * The {@code RoadLayer} class holds the static background of the game, the road, the grassy sidewalks
+ * and the lane dividers, pre-rendered once into an image. The image is one dash period taller than the
+ * panel and its dashes repeat every period, so a frame only has to blit it once at the current
+ * scrolling offset, or blit the parts of it covering the areas to repaint.
+ * It also counts the draw calls issued and the area filled, so that the cost of a frame can be reported.
+ */
+public class RoadLayer {
+
+    /**
+     * The distance between the starts of two dashes of a dashed divider.
+     */
+    public static final int DASH_PERIOD = 40;
+
+    /**
+     * The length of a dash of a dashed divider.
+     */
+    public static final int DASH_LENGTH = 20;
+
+    private final WritableImage tile;
+    private final int width;
+    private final int height;
+    private final int[] dividerX;
+    private int drawCalls = 0;
+    private double fillArea = 0;
+
+    /**
+     * Pre-renders the road for a panel of the given size.
+     *
+     * @param width      the width of the panel
+     * @param height     the height of the panel
+     * @param roadMargin the width of each sidewalk
+     * @param laneCount  the number of lanes on the road
+     */
+    public RoadLayer(int width, int height, int roadMargin, int laneCount) {
+        this.width = width;
+        this.height = height;
+        this.tile = new WritableImage(width, height + DASH_PERIOD);
+        double laneWidth = (width - 2.0 * roadMargin) / laneCount;
+        this.dividerX = new int[laneCount - 1];
+        for (int i = 1; i < laneCount; i++) {
+            dividerX[i - 1] = (int) Math.round(roadMargin + i * laneWidth);
+        }
+
+        int tileHeight = height + DASH_PERIOD;
+        int[] pixels = new int[width * tileHeight];
+        fill(pixels, 0, 0, roadMargin, tileHeight, Color.GREEN);
+        fill(pixels, width - roadMargin, 0, roadMargin, tileHeight, Color.GREEN);
+        fill(pixels, roadMargin, 0, width - 2 * roadMargin, tileHeight, Color.BLACK);
+
+        // The middle divider is a continuous line, the others are dashed (2 pixels wide, centered on the lane edge).
+        int middle = dividerX.length / 2;
+        for (int i = 0; i < dividerX.length; i++) {
+            if (i == middle) {
+                fill(pixels, dividerX[i] - 1, 0, 2, tileHeight, Color.WHITE);
+            } else {
+                for (int y = 0; y < tileHeight; y += DASH_PERIOD) {
+                    fill(pixels, dividerX[i] - 1, y, 2, Math.min(DASH_LENGTH, tileHeight - y), Color.WHITE);
+                }
+            }
+        }
+
+        PixelWriter writer = tile.getPixelWriter();
+        writer.setPixels(0, 0, width, tileHeight, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+    }
+
+    /**
+     * Fills a rectangle of the tile pixels with a color.
+     *
+     * @param pixels the ARGB pixels of the tile, row by row
+     * @param x      the x-coordinate of the rectangle
+     * @param y      the y-coordinate of the rectangle
+     * @param w      the width of the rectangle
+     * @param h      the height of the rectangle
+     * @param color  the fill color
+     */
+    private void fill(int[] pixels, int x, int y, int w, int h, Color color) {
+        int argb = (int) Math.round(color.getOpacity() * 255) << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+        for (int row = y; row < y + h; row++) {
+            Arrays.fill(pixels, row * width + x, row * width + x + w, argb);
+        }
+    }
+
+    /**
+     * Gets the vertical position of the dash pattern for a scrolling offset.
+     *
+     * @param roadOffset the scrolling offset of the road
+     * @return the number of pixels the tile is shifted up, between 0 and {@link #DASH_PERIOD} - 1
+     */
+    private static int phase(double roadOffset) {
+        return (int) Math.floor(roadOffset) % DASH_PERIOD;
+    }
+
+    /**
+     * Draws the whole background at the given scrolling offset with a single blit.
+     *
+     * @param gc         the graphics context used for drawing
+     * @param roadOffset the scrolling offset of the road
+     */
+    public void draw(GraphicsContext gc, double roadOffset) {
+        int phase = phase(roadOffset);
+        gc.drawImage(tile, 0, phase, width, height, 0, 0, width, height);
+        count(width, height);
+    }
+
+    /**
+     * Repaints the background under a rectangle of the panel, for instance where a sprite was drawn
+     * in the previous frame. The rectangle is clipped to the panel.
+     *
+     * @param gc         the graphics context used for drawing
+     * @param roadOffset the scrolling offset of the road
+     * @param x          the x-coordinate of the rectangle
+     * @param y          the y-coordinate of the rectangle
+     * @param w          the width of the rectangle
+     * @param h          the height of the rectangle
+     */
+    public void restore(GraphicsContext gc, double roadOffset, double x, double y, double w, double h) {
+        int left = Math.max(0, (int) Math.floor(x));
+        int top = Math.max(0, (int) Math.floor(y));
+        int right = Math.min(width, (int) Math.ceil(x + w));
+        int bottom = Math.min(height, (int) Math.ceil(y + h));
+        if (left >= right || top >= bottom) return;
+
+        int phase = phase(roadOffset);
+        gc.drawImage(tile, left, top + phase, right - left, bottom - top, left, top, right - left, bottom - top);
+        count(right - left, bottom - top);
+    }
+
+    /**
+     * Repaints the dashed dividers, the only part of the background that changes when the road scrolls.
+     *
+     * @param gc         the graphics context used for drawing
+     * @param roadOffset the scrolling offset of the road
+     */
+    public void restoreDividers(GraphicsContext gc, double roadOffset) {
+        int middle = dividerX.length / 2;
+        for (int i = 0; i < dividerX.length; i++) {
+            if (i != middle) {
+                restore(gc, roadOffset, dividerX[i] - 1, 0, 2, height);
+            }
+        }
+    }
+
+    /**
+     * Records a draw call filling the given area.
+     *
+     * @param w the width of the area drawn
+     * @param h the height of the area drawn
+     */
+    private void count(double w, double h) {
+        drawCalls++;
+        fillArea += w * h;
+    }
+
+    /**
+     * Records a draw call issued outside of the road layer, such as a sprite, in the frame statistics.
+     *
+     * @param w the width of the area drawn
+     * @param h the height of the area drawn
+     */
+    public void countDraw(double w, double h) {
+        count(w, h);
+    }
+
+    /**
+     * Resets the frame statistics, at the start of a frame.
+     */
+    public void resetStatistics() {
+        drawCalls = 0;
+        fillArea = 0;
+    }
+
+    /**
+     * Gets the number of draw calls issued since the statistics were last reset.
+     *
+     * @return the number of draw calls
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Gets the area, in pixels, filled since the statistics were last reset.
+     *
+     * @return the filled area
+     */
+    public double getFillArea() {
+        return fillArea;
+    }
+}
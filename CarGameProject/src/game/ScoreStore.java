@@ -0,0 +1,377 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code ScoreStore} class keeps the results of every run in an append-only log file and the best
+ * {@link #TOP_N} scores of each vehicle type in memory, so that leaderboards are shown without reading the file.
+ * <p>
+ * Each record of the log holds the format version, the vehicle type, the score, the seed and the time of the
+ * run, followed by a CRC-32 of the record. A record is only ever appended and forced to disk, so a power cut
+ * can at worst leave a torn record at the end of the file, and a write that fails is cut back from the file
+ * before the next one. A damaged record fails its checksum when the log is loaded: it is skipped, the records
+ * after it are still read, and the file is rewritten with the valid records only.
+ * <p>
+ * Scores are added to the leaderboards at once by {@link #submit(String, int, long)}, but written to the file
+ * by a background thread, so that saving a score never delays a frame.
+ */
+public class ScoreStore {
+
+    /**
+     * The number of scores kept in the leaderboard of each vehicle type.
+     */
+    public static final int TOP_N = 10;
+
+    /**
+     * The version of the record format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * A run in a leaderboard.
+     */
+    public static final class Entry {
+        private final String vehicleType;
+        private final int score;
+        private final long seed;
+        private final long timestamp;
+
+        Entry(String vehicleType, int score, long seed, long timestamp) {
+            this.vehicleType = vehicleType;
+            this.score = score;
+            this.seed = seed;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * Gets the type of the vehicle of the run.
+         *
+         * @return the vehicle type
+         */
+        public String getVehicleType() {
+            return vehicleType;
+        }
+
+        /**
+         * Gets the score of the run.
+         *
+         * @return the score
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Gets the seed of the run, with which it can be found among the recorded replays.
+         *
+         * @return the seed
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Gets the time the run ended.
+         *
+         * @return the time, in milliseconds since the epoch
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+
+    private final Path file;
+    private final Map<String, List<Entry>> leaderboards = new HashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "score-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileChannel channel;
+    private int loadedRecords = 0;
+    private long discardedBytes = 0;
+
+    /**
+     * Opens the score log, loading the leaderboards from it. Torn or corrupted records are skipped and cut
+     * from the file, keeping the valid records around them. A log that cannot be read is reported and left
+     * untouched, and the store starts empty.
+     *
+     * @param file the log file, created on the first score if it does not exist
+     */
+    public ScoreStore(Path file) {
+        this.file = file;
+        try {
+            if (Files.exists(file)) {
+                load();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read the scores from " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads every valid record of the log into the leaderboards. After a damaged record, the log is scanned
+     * byte by byte for the next record that passes its checksum. If bytes were skipped, the valid records are
+     * written to a new file that then replaces the log, so the log is never left half rewritten.
+     *
+     * @throws IOException if the file cannot be read or rewritten
+     */
+    private void load() throws IOException {
+        byte[] log = Files.readAllBytes(file);
+        ByteBuffer buffer = ByteBuffer.wrap(log);
+        CRC32 crc = new CRC32();
+        int valid = 0;
+        while (buffer.remaining() > 0) {
+            int start = buffer.position();
+            Entry entry = readRecord(buffer, crc);
+            if (entry == null) {
+                buffer.position(start + 1);
+                continue;
+            }
+            insert(entry);
+            loadedRecords++;
+            // Move the record down over the skipped bytes; it never overlaps a record still to be read.
+            System.arraycopy(log, start, log, valid, buffer.position() - start);
+            valid += buffer.position() - start;
+        }
+
+        discardedBytes = log.length - valid;
+        if (discardedBytes > 0) {
+            System.err.println("Discarding " + discardedBytes + " damaged bytes from " + file);
+            Path rewritten = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel output = FileChannel.open(rewritten, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer records = ByteBuffer.wrap(log, 0, valid);
+                while (records.hasRemaining()) {
+                    output.write(records);
+                }
+                output.force(true);
+            }
+            Files.move(rewritten, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Reads a record and checks its checksum.
+     *
+     * @param buffer the log, positioned at the start of the record
+     * @param crc    a checksum to reuse
+     * @return the run of the record, or {@code null} if the record is truncated or damaged
+     */
+    private static Entry readRecord(ByteBuffer buffer, CRC32 crc) {
+        int start = buffer.position();
+        if (buffer.remaining() < 2) return null;
+        int version = buffer.get() & 0xFF;
+        int vehicleLength = buffer.get() & 0xFF;
+        if (version != VERSION || buffer.remaining() < vehicleLength + 4 + 8 + 8 + 4) return null;
+        byte[] vehicle = new byte[vehicleLength];
+        buffer.get(vehicle);
+        int score = buffer.getInt();
+        long seed = buffer.getLong();
+        long timestamp = buffer.getLong();
+        int end = buffer.position();
+        int checksum = buffer.getInt();
+
+        crc.reset();
+        crc.update(buffer.array(), start, end - start);
+        if ((int) crc.getValue() != checksum) return null;
+        return new Entry(new String(vehicle, StandardCharsets.UTF_8), score, seed, timestamp);
+    }
+
+    /**
+     * Encodes a run as a record of the log.
+     *
+     * @param entry the run
+     * @return the record, ready to be written
+     */
+    private static ByteBuffer encode(Entry entry) {
+        byte[] vehicle = entry.getVehicleType().getBytes(StandardCharsets.UTF_8);
+        if (vehicle.length > 255) {
+            throw new IllegalArgumentException("Vehicle type too long: " + entry.getVehicleType());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 + vehicle.length + 4 + 8 + 8 + 4);
+        buffer.put((byte) VERSION).put((byte) vehicle.length).put(vehicle)
+                .putInt(entry.getScore()).putLong(entry.getSeed()).putLong(entry.getTimestamp());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Adds a run to the leaderboard of its vehicle type, keeping it sorted by decreasing score and
+     * no longer than {@link #TOP_N}. Among equal scores, the earlier run ranks first.
+     *
+     * @param entry the run
+     * @return the rank of the run in the leaderboard, from 0, or -1 if it did not make it
+     */
+    private int insert(Entry entry) {
+        List<Entry> leaderboard = leaderboards.computeIfAbsent(entry.getVehicleType(), type -> new ArrayList<>(TOP_N + 1));
+        int rank = leaderboard.size();
+        while (rank > 0 && leaderboard.get(rank - 1).getScore() < entry.getScore()) {
+            rank--;
+        }
+        if (rank >= TOP_N) return -1;
+        leaderboard.add(rank, entry);
+        if (leaderboard.size() > TOP_N) {
+            leaderboard.remove(TOP_N);
+        }
+        return rank;
+    }
+
+    /**
+     * Records the result of a run. The leaderboard is updated at once; the record is appended to the log
+     * and forced to disk by a background thread.
+     *
+     * @param vehicleType the type of the vehicle of the run
+     * @param score       the final score
+     * @param seed        the seed of the run
+     * @return the rank of the run in the leaderboard of its vehicle type, from 0, or -1 if it did not make it
+     */
+    public int submit(String vehicleType, int score, long seed) {
+        Entry entry = new Entry(vehicleType, score, seed, System.currentTimeMillis());
+        ByteBuffer record = encode(entry);
+        writer.execute(() -> append(record));
+        return insert(entry);
+    }
+
+    /**
+     * Appends a record to the log and forces it to disk. Runs on the writer thread. If the write fails, the
+     * log is cut back to its size before the record, so that no partial record is left for the next ones to
+     * be appended after; if even that fails, the log is closed and opened again for the next record.
+     *
+     * @param record the record to append
+     */
+    private void append(ByteBuffer record) {
+        long size = -1;
+        try {
+            if (channel == null) {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            size = channel.size();
+            write(channel, record);
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("Could not save the score to " + file + ": " + e.getMessage());
+            if (channel != null && size >= 0) {
+                try {
+                    channel.truncate(size);
+                } catch (IOException truncateFailure) {
+                    try {
+                        channel.close();
+                    } catch (IOException ignored) {
+                        // The channel is dropped either way.
+                    }
+                    channel = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a record at the end of the log.
+     *
+     * @param channel the log, opened for appending
+     * @param record  the record to write
+     * @throws IOException if the record cannot be written
+     */
+    protected void write(FileChannel channel, ByteBuffer record) throws IOException {
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+    }
+
+    /**
+     * Gets the leaderboard of a vehicle type.
+     *
+     * @param vehicleType the vehicle type
+     * @return the best runs, by decreasing score, at most {@link #TOP_N}
+     */
+    public List<Entry> getTopScores(String vehicleType) {
+        List<Entry> leaderboard = leaderboards.get(vehicleType);
+        return leaderboard == null ? Collections.emptyList() : Collections.unmodifiableList(leaderboard);
+    }
+
+    /**
+     * Gets the best score of a vehicle type.
+     *
+     * @param vehicleType the vehicle type
+     * @return the best score, or 0 if no run was recorded
+     */
+    public int getHighScore(String vehicleType) {
+        List<Entry> leaderboard = leaderboards.get(vehicleType);
+        return leaderboard == null || leaderboard.isEmpty() ? 0 : leaderboard.get(0).getScore();
+    }
+
+    /**
+     * Gets the number of records loaded from the log when the store was opened.
+     *
+     * @return the number of records
+     */
+    public int getLoadedRecords() {
+        return loadedRecords;
+    }
+
+    /**
+     * Gets the number of damaged bytes cut from the log when the store was opened.
+     *
+     * @return the number of bytes discarded
+     */
+    public long getDiscardedBytes() {
+        return discardedBytes;
+    }
+
+    /**
+     * Waits until every submitted score has been written.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the pending scores, waiting a few seconds at most, and closes the log.
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Some scores could not be saved to " + file);
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Could not close " + file + ": " + e.getMessage());
+        }
+    }
+}
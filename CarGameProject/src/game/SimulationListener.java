@@ -0,0 +1,33 @@
+package game;
+
+/**
+ * Receives the events raised by a {@link GameSimulation} while it is stepped.
+ * The JavaFX window implements this interface to update its texts and menus, while headless
+ * runs can simply ignore the events they do not need.
+ */
+public interface SimulationListener {
+
+    /**
+     * Called when the score changes.
+     *
+     * @param score the new score
+     */
+    default void onScoreChanged(int score) {
+    }
+
+    /**
+     * Called when the player reaches a new level.
+     *
+     * @param level the new level
+     */
+    default void onLevelUp(int level) {
+    }
+
+    /**
+     * Called once when the player vehicle collides with an obstacle.
+     *
+     * @param score the final score of the run
+     */
+    default void onGameOver(int score) {
+    }
+}
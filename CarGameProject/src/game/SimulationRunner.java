@@ -0,0 +1,231 @@
+package game;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code SimulationRunner} class applies the commands of the player to a {@link GameSimulation},
+ * steps it and records it with a {@link ReplayRecorder}, either on the caller's thread or on a dedicated
+ * simulation thread.
+ * <p>
+ * The commands come from the JavaFX application thread through a wait-free {@link InputQueue}. When the
+ * simulation runs on its own thread, it ticks on a fixed schedule and publishes a {@link WorldSnapshot}
+ * after every tick through a lock-free {@link TripleBuffer}; the JavaFX application thread only draws the
+ * latest snapshot. Neither thread ever waits for the other, so a slow frame does not delay the simulation
+ * and a slow tick does not delay the frame.
+ */
+public class SimulationRunner {
+
+    /**
+     * The number of commands that can wait in the input queue.
+     */
+    private static final int INPUT_CAPACITY = 64;
+
+    /**
+     * The longest delay the simulation thread catches up with, beyond which ticks are dropped.
+     */
+    private static final long MAX_CATCH_UP_NANOS = 250_000_000;
+
+    private final GameSimulation simulation;
+    private final ReplayRecorder recorder;
+    private final InputQueue inputs = new InputQueue(INPUT_CAPACITY);
+    private final TripleBuffer<WorldSnapshot> snapshots = new TripleBuffer<>(WorldSnapshot::new);
+    private final long tickNanos = 1_000_000_000L / GameSimulation.TICKS_PER_SECOND;
+    private Runnable onRunEnded = () -> { };
+    private volatile Thread thread;
+    private volatile boolean running = false;
+    private volatile boolean paused = true;
+
+    /**
+     * Constructs a runner for a simulation.
+     *
+     * @param simulation the simulation to run
+     * @param recorder   the recorder of the runs of the simulation
+     */
+    public SimulationRunner(GameSimulation simulation, ReplayRecorder recorder) {
+        this.simulation = simulation;
+        this.recorder = recorder;
+        publish(System.nanoTime());
+    }
+
+    /**
+     * Sets the action run on the simulation thread once a run has ended and its replay log is finished.
+     *
+     * @param onRunEnded the action
+     */
+    public void setOnRunEnded(Runnable onRunEnded) {
+        this.onRunEnded = onRunEnded;
+    }
+
+    /**
+     * Sends a command given now to the simulation. Must only be called by the JavaFX application thread.
+     *
+     * @param command one of the commands of {@link InputQueue}
+     * @return {@code false} if the input queue was full and the command was dropped
+     * @throws IllegalArgumentException if the command is unknown
+     */
+    public boolean offer(int command) {
+        return offer(command, System.nanoTime());
+    }
+
+    /**
+     * Sends a command to the simulation, waking the simulation thread if it is idle.
+     * Must only be called by the JavaFX application thread.
+     *
+     * @param command one of the commands of {@link InputQueue}
+     * @param nanos   the time the command was given, such as the time its key was pressed
+     * @return {@code false} if the input queue was full and the command was dropped
+     * @throws IllegalArgumentException if the command is unknown
+     */
+    public boolean offer(int command, long nanos) {
+        if (command < InputQueue.LEFT || command > InputQueue.RESTART) {
+            throw new IllegalArgumentException("Unknown command: " + command);
+        }
+        boolean offered = inputs.offer(command, nanos);
+        LockSupport.unpark(thread);
+        return offered;
+    }
+
+    /**
+     * Applies the commands waiting in the input queue, recording the moves and pauses in the replay log.
+     * A move given while the vehicle changes lanes is buffered by the vehicle until the lane change ends.
+     * Must only be called by the thread stepping the simulation.
+     */
+    public void drainInputs() {
+        int command;
+        while ((command = inputs.poll()) != InputQueue.EMPTY) {
+            switch (command) {
+                case InputQueue.LEFT:
+                    recorder.recordInput(ReplayRecorder.LEFT);
+                    simulation.getPlayerVehicle().moveLeft(inputs.getPolledNanos());
+                    break;
+                case InputQueue.RIGHT:
+                    recorder.recordInput(ReplayRecorder.RIGHT);
+                    simulation.getPlayerVehicle().moveRight(inputs.getPolledNanos());
+                    break;
+                case InputQueue.PAUSE:
+                    recorder.recordInput(ReplayRecorder.PAUSE);
+                    break;
+                case InputQueue.RESTART:
+                    simulation.reset();
+                    recorder.start();
+                    publish(System.nanoTime());
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Advances the simulation by one tick and records it. The replay log is finished when the run ends.
+     * Must only be called by the thread stepping the simulation.
+     *
+     * @return {@code true} if the run ended during this tick, {@code false} if it goes on or was already over
+     */
+    public boolean stepOnce() {
+        if (simulation.isGameOver()) return false;
+        boolean ended = !simulation.step();
+        recorder.afterStep();
+        if (ended) {
+            recorder.finish();
+        }
+        return ended;
+    }
+
+    /**
+     * Captures the state of the simulation into the back snapshot and publishes it.
+     * Must only be called by the thread stepping the simulation.
+     *
+     * @param tickNanos the time the current tick stands for, on the {@link System#nanoTime()} clock
+     */
+    public void publish(long tickNanos) {
+        snapshots.getBack().capture(simulation, tickNanos);
+        snapshots.publish();
+    }
+
+    /**
+     * Gets the latest snapshot published. It stays valid until the next call.
+     * Must only be called by the thread drawing the snapshots.
+     *
+     * @return the latest snapshot
+     */
+    public WorldSnapshot acquireSnapshot() {
+        return snapshots.acquire();
+    }
+
+    /**
+     * Gets the duration of a tick.
+     *
+     * @return the duration of a tick in nanoseconds
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Pauses or resumes the simulation thread. While paused, it keeps applying the commands it receives.
+     *
+     * @param paused {@code true} to pause
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Starts the simulation thread, if it is not running yet. From then on, the simulation must only be
+     * stepped by that thread.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the simulation thread and waits for it to end.
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * The loop of the simulation thread. The ticks are scheduled at fixed times; a tick that comes late is
+     * run at once, and if the thread falls more than {@link #MAX_CATCH_UP_NANOS} behind, the schedule is moved
+     * instead of running a burst of ticks. While the game is paused or over, the thread parks until it is
+     * given a command or resumed.
+     */
+    private void run() {
+        long next = System.nanoTime();
+        while (running) {
+            drainInputs();
+            long now = System.nanoTime();
+            if (paused || simulation.isGameOver()) {
+                next = now;
+                LockSupport.park(this);
+                continue;
+            }
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            if (now - next > MAX_CATCH_UP_NANOS) {
+                next = now;
+            }
+            boolean ended = stepOnce();
+            publish(next);
+            next += tickNanos;
+            if (ended) {
+                onRunEnded.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package game;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.Arrays;
+
+/**
+ * The {@code SpriteAtlas} class packs sprites into a single image, so that drawing any of them uses the same
+ * texture. The sprites are copied at the size they were decoded at, which for the vehicle sprites is the size
+ * they are drawn at, so they are not scaled when drawn either.
+ * <p>
+ * The sprites are packed in shelves: sorted from the tallest to the shortest, they are laid out left to right
+ * in rows no wider than {@link #MAX_WIDTH}, each row as tall as its first sprite. A transparent gutter of
+ * {@link #GUTTER} pixels around every sprite keeps the smoothing of a sprite from picking up its neighbours.
+ * The rectangle of each sprite in the atlas is kept in a compact index of four integers per sprite.
+ */
+public class SpriteAtlas {
+
+    /**
+     * The widest the atlas can be, in pixels.
+     */
+    public static final int MAX_WIDTH = 512;
+
+    /**
+     * The width of the transparent gutter around every sprite, in pixels.
+     */
+    public static final int GUTTER = 1;
+
+    private final WritableImage image;
+    private final int[] rects;
+
+    /**
+     * Packs the given sprites into an atlas.
+     *
+     * @param sprites the sprites, indexed by sprite id
+     * @throws IllegalArgumentException if a sprite is wider than the atlas can be
+     */
+    public SpriteAtlas(Image[] sprites) {
+        int[] widths = new int[sprites.length];
+        int[] heights = new int[sprites.length];
+        for (int i = 0; i < sprites.length; i++) {
+            widths[i] = (int) sprites[i].getWidth();
+            heights[i] = (int) sprites[i].getHeight();
+        }
+        rects = pack(widths, heights);
+
+        int width = 0;
+        int height = 0;
+        for (int i = 0; i < sprites.length; i++) {
+            width = Math.max(width, rects[4 * i] + rects[4 * i + 2] + GUTTER);
+            height = Math.max(height, rects[4 * i + 1] + rects[4 * i + 3] + GUTTER);
+        }
+        int[] pixels = new int[width * height];
+        int[] sprite = new int[0];
+        for (int i = 0; i < sprites.length; i++) {
+            int w = widths[i];
+            int h = heights[i];
+            if (sprite.length < w * h) {
+                sprite = new int[w * h];
+            }
+            sprites[i].getPixelReader().getPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), sprite, 0, w);
+            for (int row = 0; row < h; row++) {
+                System.arraycopy(sprite, row * w, pixels, (rects[4 * i + 1] + row) * width + rects[4 * i], w);
+            }
+        }
+        image = new WritableImage(Math.max(width, 1), Math.max(height, 1));
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+    }
+
+    /**
+     * Lays out rectangles in shelves, from the tallest to the shortest, with a gutter around each one.
+     *
+     * @param widths  the widths of the rectangles
+     * @param heights the heights of the rectangles
+     * @return the index of the rectangles: x, y, width and height of each rectangle in turn
+     * @throws IllegalArgumentException if a rectangle is wider than {@link #MAX_WIDTH} with its gutters
+     */
+    public static int[] pack(int[] widths, int[] heights) {
+        Integer[] order = new Integer[widths.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> heights[b] != heights[a] ? heights[b] - heights[a] : a - b);
+
+        int[] rects = new int[4 * widths.length];
+        int x = GUTTER;
+        int y = GUTTER;
+        int shelfHeight = 0;
+        for (int i : order) {
+            if (widths[i] + 2 * GUTTER > MAX_WIDTH) {
+                throw new IllegalArgumentException("Sprite " + i + " is too wide for the atlas: " + widths[i]);
+            }
+            if (x + widths[i] + GUTTER > MAX_WIDTH) {
+                x = GUTTER;
+                y += shelfHeight + GUTTER;
+                shelfHeight = 0;
+            }
+            rects[4 * i] = x;
+            rects[4 * i + 1] = y;
+            rects[4 * i + 2] = widths[i];
+            rects[4 * i + 3] = heights[i];
+            x += widths[i] + GUTTER;
+            shelfHeight = Math.max(shelfHeight, heights[i]);
+        }
+        return rects;
+    }
+
+    /**
+     * Gets the image holding every sprite.
+     *
+     * @return the atlas image
+     */
+    public Image getImage() {
+        return image;
+    }
+
+    /**
+     * Gets the index of the sprite rectangles in the atlas.
+     *
+     * @return x, y, width and height of each sprite in turn, indexed by sprite id; must not be modified
+     */
+    public int[] getRects() {
+        return rects;
+    }
+
+    /**
+     * Gets the number of sprites in the atlas.
+     *
+     * @return the number of sprites
+     */
+    public int size() {
+        return rects.length / 4;
+    }
+}
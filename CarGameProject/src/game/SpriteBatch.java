@@ -0,0 +1,224 @@
+package game;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+
+import java.util.Arrays;
+
+/**
+ * The {@code SpriteBatch} class collects the sprites of a frame, each one a sprite id, a position, a size and a
+ * rotation, in primitive arrays reused from frame to frame, and draws them in the order they were added.
+ * <p>
+ * A sprite without rotation is drawn with the transform the graphics context already has, the base scale from
+ * world units to canvas pixels. A rotated sprite is drawn under a transform computed directly from the base
+ * scale, its center and its angle and set in a single call, rather than by saving the state of the context,
+ * translating, rotating and restoring it. The base transform is only set back when a sprite without rotation
+ * follows, so a run of rotated sprites costs one transform each and a run of sprites without rotation none.
+ * <p>
+ * Every sprite is drawn from a source rectangle of its image. Drawn from a {@link SpriteAtlas}, every sprite
+ * shares the same image, so the batch never has to switch textures between two sprites.
+ */
+public class SpriteBatch {
+
+    private final Image[] images;
+    private final int[] rects;
+    private int size = 0;
+    private int[] sprite = new int[64];
+    private double[] x = new double[64];
+    private double[] y = new double[64];
+    private double[] w = new double[64];
+    private double[] h = new double[64];
+    private double[] rotation = new double[64];
+    private int transformChanges = 0;
+    private int textureSwitches = 0;
+
+    /**
+     * Constructs an empty batch drawing the given sprites, each one from its own image.
+     *
+     * @param images the images of the sprites, indexed by sprite id
+     */
+    public SpriteBatch(Image[] images) {
+        this.images = images;
+        rects = new int[4 * images.length];
+        for (int i = 0; i < images.length; i++) {
+            rects[4 * i + 2] = (int) images[i].getWidth();
+            rects[4 * i + 3] = (int) images[i].getHeight();
+        }
+    }
+
+    /**
+     * Constructs an empty batch drawing the sprites of an atlas, all from its single image.
+     *
+     * @param atlas the atlas of the sprites
+     */
+    public SpriteBatch(SpriteAtlas atlas) {
+        images = new Image[atlas.size()];
+        Arrays.fill(images, atlas.getImage());
+        rects = atlas.getRects();
+    }
+
+    /**
+     * Removes every sprite from the batch, at the start of a frame.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a sprite to the batch.
+     *
+     * @param spriteId the id of the sprite image
+     * @param x        the x-coordinate of the sprite before rotation
+     * @param y        the y-coordinate of the sprite before rotation
+     * @param w        the width of the sprite
+     * @param h        the height of the sprite
+     * @param rotation the clockwise rotation of the sprite around its center, in degrees
+     */
+    public void add(int spriteId, double x, double y, double w, double h, double rotation) {
+        if (size == sprite.length) {
+            int capacity = size * 2;
+            sprite = Arrays.copyOf(sprite, capacity);
+            this.x = Arrays.copyOf(this.x, capacity);
+            this.y = Arrays.copyOf(this.y, capacity);
+            this.w = Arrays.copyOf(this.w, capacity);
+            this.h = Arrays.copyOf(this.h, capacity);
+            this.rotation = Arrays.copyOf(this.rotation, capacity);
+        }
+        sprite[size] = spriteId;
+        this.x[size] = x;
+        this.y[size] = y;
+        this.w[size] = w;
+        this.h[size] = h;
+        this.rotation[size] = rotation;
+        size++;
+    }
+
+    /**
+     * Draws the sprites of the batch, in the order they were added. The graphics context must hold the base
+     * transform, a scale from world units to canvas pixels, and holds it again afterwards.
+     *
+     * @param gc     the graphics context
+     * @param scaleX the horizontal scale of the base transform
+     * @param scaleY the vertical scale of the base transform
+     */
+    public void draw(GraphicsContext gc, double scaleX, double scaleY) {
+        boolean based = true;
+        Image texture = null;
+        for (int i = 0; i < size; i++) {
+            Image image = images[sprite[i]];
+            if (image != texture) {
+                textureSwitches++;
+                texture = image;
+            }
+            double r = rotation[i];
+            if (r == 0) {
+                if (!based) {
+                    gc.setTransform(scaleX, 0, 0, scaleY, 0, 0);
+                    transformChanges++;
+                    based = true;
+                }
+                drawSprite(gc, image, sprite[i], x[i], y[i], w[i], h[i]);
+                continue;
+            }
+
+            double radians = Math.toRadians(r);
+            double cos = Math.cos(radians);
+            double sin = Math.sin(radians);
+            double centerX = x[i] + w[i] / 2;
+            double centerY = y[i] + h[i] / 2;
+            gc.setTransform(scaleX * cos, scaleY * sin, -scaleX * sin, scaleY * cos, scaleX * centerX, scaleY * centerY);
+            transformChanges++;
+            based = false;
+            drawSprite(gc, image, sprite[i], -w[i] / 2, -h[i] / 2, w[i], h[i]);
+        }
+        if (!based) {
+            gc.setTransform(scaleX, 0, 0, scaleY, 0, 0);
+            transformChanges++;
+        }
+    }
+
+    /**
+     * Draws a sprite from its source rectangle.
+     */
+    private void drawSprite(GraphicsContext gc, Image image, int spriteId, double x, double y, double w, double h) {
+        int r = 4 * spriteId;
+        gc.drawImage(image, rects[r], rects[r + 1], rects[r + 2], rects[r + 3], x, y, w, h);
+    }
+
+    /**
+     * Draws the sprites of the batch the straightforward way, saving and restoring the state of the graphics
+     * context around every rotated sprite. Only kept as the reference of the benchmarks.
+     *
+     * @param gc the graphics context
+     */
+    public void drawWithSaveRestore(GraphicsContext gc) {
+        for (int i = 0; i < size; i++) {
+            if (rotation[i] == 0) {
+                drawSprite(gc, images[sprite[i]], sprite[i], x[i], y[i], w[i], h[i]);
+                continue;
+            }
+            gc.save();
+            gc.translate(x[i] + w[i] / 2, y[i] + h[i] / 2);
+            gc.rotate(rotation[i]);
+            drawSprite(gc, images[sprite[i]], sprite[i], -w[i] / 2, -h[i] / 2, w[i], h[i]);
+            gc.restore();
+            transformChanges += 2;
+        }
+    }
+
+    /**
+     * Gets the width of the axis-aligned box holding a rotated sprite.
+     *
+     * @param w        the width of the sprite
+     * @param h        the height of the sprite
+     * @param rotation the rotation of the sprite, in degrees
+     * @return the width of the box
+     */
+    public static double boundsWidth(double w, double h, double rotation) {
+        if (rotation == 0) return w;
+        double radians = Math.toRadians(rotation);
+        return Math.abs(w * Math.cos(radians)) + Math.abs(h * Math.sin(radians));
+    }
+
+    /**
+     * Gets the height of the axis-aligned box holding a rotated sprite.
+     *
+     * @param w        the width of the sprite
+     * @param h        the height of the sprite
+     * @param rotation the rotation of the sprite, in degrees
+     * @return the height of the box
+     */
+    public static double boundsHeight(double w, double h, double rotation) {
+        if (rotation == 0) return h;
+        double radians = Math.toRadians(rotation);
+        return Math.abs(w * Math.sin(radians)) + Math.abs(h * Math.cos(radians));
+    }
+
+    /**
+     * Gets the number of sprites in the batch.
+     *
+     * @return the number of sprites
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of times the transform of the graphics context has been changed or restored by the batch.
+     *
+     * @return the number of transform changes
+     */
+    public int getTransformChanges() {
+        return transformChanges;
+    }
+
+    /**
+     * Gets the number of times the batch has drawn a sprite from a different image than the previous sprite,
+     * counting the first sprite of every frame.
+     *
+     * @return the number of texture switches
+     */
+    public int getTextureSwitches() {
+        return textureSwitches;
+    }
+}
@@ -0,0 +1,195 @@
+package game;
+
+import javafx.scene.image.Image;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code SpriteCache} class is a shared registry of every vehicle sprite used by the game.
+ * The sprites are decoded once, by {@link Assets}, at the size they are drawn at, and the same
+ * {@link Image} instances are then shared by every obstacle and player vehicle.
+ * It also keeps track of the amount of decoded pixel data held and of the time spent loading it.
+ * Every sprite is also packed into a single {@link SpriteAtlas}, built the first time it is asked for.
+ */
+public final class SpriteCache {
+
+    /**
+     * The number of obstacle sprites available ({@code carObstacle1.png} to {@code carObstacle14.png}).
+     */
+    public static final int OBSTACLE_SPRITE_COUNT = 14;
+
+    /**
+     * The vehicle types of the player sprites, in the order of their sprite ids.
+     */
+    private static final String[] PLAYER_TYPES = {"car", "bike", "truck"};
+
+    /**
+     * The number of sprite ids: the obstacle sprites, from 0, then the player sprites.
+     */
+    public static final int SPRITE_COUNT = OBSTACLE_SPRITE_COUNT + PLAYER_TYPES.length;
+
+    /**
+     * The decoded obstacle sprites, indexed from 0.
+     */
+    private static Image[] obstacleSprites;
+
+    /**
+     * The decoded player sprites, keyed by vehicle type ("car", "bike", "truck").
+     */
+    private static final Map<String, Image> playerSprites = new HashMap<>();
+
+    /**
+     * The number of bytes of decoded pixel data held by the cache (4 bytes per pixel).
+     */
+    private static long cachedBytes = 0;
+
+    /**
+     * The time, in nanoseconds, spent waiting for the sprites to be decoded.
+     */
+    private static long loadTimeNanos = 0;
+
+    /**
+     * The atlas of every sprite, indexed by sprite id, or {@code null} until it is first asked for.
+     */
+    private static SpriteAtlas atlas;
+
+    /**
+     * The time, in nanoseconds, spent packing the atlas.
+     */
+    private static long atlasTimeNanos = 0;
+
+    private SpriteCache() {
+    }
+
+    /**
+     * Gathers every obstacle and player sprite if this has not been done yet, waiting for {@link Assets}
+     * to decode them if they are still loading. Calling this method again once the sprites are loaded
+     * has no effect.
+     */
+    public static synchronized void preload() {
+        if (obstacleSprites != null) return;
+
+        long start = System.nanoTime();
+        Assets.loadAll();
+        Image[] sprites = new Image[OBSTACLE_SPRITE_COUNT];
+        for (int i = 0; i < OBSTACLE_SPRITE_COUNT; i++) {
+            sprites[i] = load("obstacle." + (i + 1));
+        }
+        for (String type : PLAYER_TYPES) {
+            playerSprites.put(type, load("player." + type));
+        }
+        obstacleSprites = sprites;
+        loadTimeNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Gets a decoded sprite from the assets and adds its size to the cache total.
+     *
+     * @param key the key of the sprite in the asset manifest
+     * @return the decoded image
+     */
+    private static Image load(String key) {
+        Image image = Assets.get(key);
+        cachedBytes += (long) image.getWidth() * (long) image.getHeight() * 4;
+        return image;
+    }
+
+    /**
+     * Gets the obstacle sprite at the given index.
+     *
+     * @param index the sprite index, between 0 and {@link #OBSTACLE_SPRITE_COUNT} - 1
+     * @return the shared decoded sprite
+     */
+    public static Image getObstacleSprite(int index) {
+        preload();
+        return obstacleSprites[index];
+    }
+
+    /**
+     * Gets the sprite of a player vehicle.
+     *
+     * @param classType the type of the player's vehicle ("car", "bike", "truck")
+     * @return the shared decoded sprite
+     * @throws IllegalArgumentException if the vehicle type is unknown
+     */
+    public static Image getPlayerSprite(String classType) {
+        preload();
+        Image sprite = playerSprites.get(classType);
+        if (sprite == null) {
+            throw new IllegalArgumentException("Unknown vehicle type: " + classType);
+        }
+        return sprite;
+    }
+
+    /**
+     * Gets the id of the sprite of a player vehicle. The ids of the obstacle sprites are their indexes.
+     *
+     * @param classType the type of the player's vehicle ("car", "bike", "truck")
+     * @return the sprite id, between {@link #OBSTACLE_SPRITE_COUNT} and {@link #SPRITE_COUNT} - 1
+     * @throws IllegalArgumentException if the vehicle type is unknown
+     */
+    public static int getPlayerSpriteId(String classType) {
+        for (int i = 0; i < PLAYER_TYPES.length; i++) {
+            if (PLAYER_TYPES[i].equals(classType)) return OBSTACLE_SPRITE_COUNT + i;
+        }
+        throw new IllegalArgumentException("Unknown vehicle type: " + classType);
+    }
+
+    /**
+     * Gets every sprite, indexed by sprite id.
+     *
+     * @return a new array of the shared decoded sprites
+     */
+    public static Image[] getSprites() {
+        preload();
+        Image[] sprites = Arrays.copyOf(obstacleSprites, SPRITE_COUNT);
+        for (int i = 0; i < PLAYER_TYPES.length; i++) {
+            sprites[OBSTACLE_SPRITE_COUNT + i] = playerSprites.get(PLAYER_TYPES[i]);
+        }
+        return sprites;
+    }
+
+    /**
+     * Gets the atlas of every sprite, packing it on the first call.
+     *
+     * @return the shared atlas, indexed by sprite id
+     */
+    public static synchronized SpriteAtlas getAtlas() {
+        if (atlas != null) return atlas;
+
+        Image[] sprites = getSprites();
+        long start = System.nanoTime();
+        atlas = new SpriteAtlas(sprites);
+        atlasTimeNanos = System.nanoTime() - start;
+        return atlas;
+    }
+
+    /**
+     * Gets the number of bytes of decoded pixel data held by the cache.
+     *
+     * @return the cached size in bytes
+     */
+    public static long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Gets the time spent packing the sprites into the atlas when it was first asked for.
+     *
+     * @return the packing time in nanoseconds, or 0 if the atlas has not been packed yet
+     */
+    public static long getAtlasTimeNanos() {
+        return atlasTimeNanos;
+    }
+
+    /**
+     * Gets the time spent waiting for the sprites to be decoded when the cache was first used.
+     *
+     * @return the wait time in nanoseconds, or 0 if the sprites have not been gathered yet
+     */
+    public static long getLoadTimeNanos() {
+        return loadTimeNanos;
+    }
+}
@@ -0,0 +1,357 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code TrackGenerator} class lays out the obstacles of a run ahead of time, as chunks of
+ * {@link #ROWS_PER_CHUNK} rows. A row is a set of obstacles spawned together at a given tick, one per
+ * blocked lane.
+ * <p>
+ * Every row leaves a passable path: the generator follows a lane the player can always be in, and only
+ * moves it to a lane the vehicle can slide into before the new row reaches it, crossing lanes once the
+ * previous rows have gone past the player in them. The times come from the speed the obstacles will have
+ * at the tick they spawn and from the slide speed of the vehicle. The path lane is never blocked by the
+ * row that follows it. The number of lanes blocked per row grows with the level, so the difficulty does
+ * not only come from speed.
+ * <p>
+ * The chunks are stored in a bounded ring buffer. With {@link #startLookahead()}, a background thread keeps
+ * the buffer full, parked whenever it is, and the game loop only reads rows that are already built; otherwise
+ * a chunk is built when the previous one has been used up, on the thread stepping the simulation. The chunks
+ * only depend on the seed, the difficulty and the vehicle, and are built in order, so a run is the same
+ * either way.
+ */
+public class TrackGenerator {
+
+    /**
+     * The number of rows of a chunk.
+     */
+    public static final int ROWS_PER_CHUNK = 8;
+
+    /**
+     * The number of chunks the ring buffer holds, about two minutes of obstacles at the default spawn interval.
+     */
+    public static final int CAPACITY = 16;
+
+    /**
+     * The number of ticks added on each side of the time a row is alongside the player, to absorb the
+     * bounce of the vehicle and the rounding of positions to ticks.
+     */
+    private static final double MARGIN_TICKS = 2;
+
+    /**
+     * A chunk of rows, reused from one pass of the ring buffer to the next.
+     */
+    private static final class Chunk {
+        int epoch;
+        final long[] tick = new long[ROWS_PER_CHUNK];
+        final int[] blocked = new int[ROWS_PER_CHUNK];
+        final int[] sprite = new int[ROWS_PER_CHUNK * GameSimulation.LANE_COUNT];
+    }
+
+    private final Chunk[] chunks = new Chunk[CAPACITY];
+    private final Chunk scratch = new Chunk();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    // Set by restart() before the epoch, then read by the producer after it.
+    private long seed;
+    private double initialSpeed;
+    private int spawnInterval;
+    private double laneChangeTicks;
+    private double playerTop;
+    private double playerBottom;
+    private int startLane;
+    private volatile int epoch = 0;
+
+    // Producer state.
+    private final Random random = new Random();
+    private int producerEpoch = -1;
+    private long nextTick;
+    private int pathLane;
+    private double pathTime;
+    private double lastArrival;
+    private final double[] laneClear = new double[GameSimulation.LANE_COUNT];
+    private final double[] reachTime = new double[GameSimulation.LANE_COUNT];
+
+    // Consumer state.
+    private Chunk current;
+    private int row;
+    private long stalls = 0;
+
+    // Set while the background thread may be building chunks, so the consumer does not build them too.
+    private volatile Thread thread;
+    private volatile boolean running = false;
+
+    /**
+     * Constructs a generator with an empty buffer. It lays out nothing until it is {@link #restart restarted}.
+     */
+    public TrackGenerator() {
+        for (int i = 0; i < CAPACITY; i++) {
+            chunks[i] = new Chunk();
+            chunks[i].epoch = -1;
+        }
+    }
+
+    /**
+     * Starts laying out a new run. The chunks built for the previous run are discarded.
+     * Must only be called by the thread stepping the simulation.
+     *
+     * @param seed          the seed of the run
+     * @param initialSpeed  the speed of the obstacles at level 1, in pixels per tick
+     * @param spawnInterval the number of ticks between two rows
+     * @param vehicle       the player vehicle, at its starting position
+     * @param laneWidth     the width of a lane
+     */
+    public void restart(long seed, double initialSpeed, int spawnInterval, PlayerVehicle vehicle, double laneWidth) {
+        this.seed = seed;
+        this.initialSpeed = initialSpeed;
+        this.spawnInterval = spawnInterval;
+        this.laneChangeTicks = Math.ceil(laneWidth / vehicle.getSlideSpeed()) + MARGIN_TICKS;
+        this.playerTop = vehicle.getY() - 5;
+        this.playerBottom = vehicle.getY() + vehicle.getHeight() + 5;
+        this.startLane = vehicle.currentLane;
+        epoch = epoch + 1;
+        current = null;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Starts the background thread keeping the buffer full, if it is not running yet.
+     */
+    public synchronized void startLookahead() {
+        if (running) return;
+        running = true;
+        Thread producer = new Thread(this::produce, "track-generator");
+        producer.setDaemon(true);
+        thread = producer;
+        producer.start();
+    }
+
+    /**
+     * Stops the background thread. The rows are then built on the thread stepping the simulation.
+     */
+    public synchronized void stopLookahead() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * The loop of the background thread: fills the free slots of the buffer, and parks while it is full. The
+     * consumer unparks it whenever it frees a slot, and {@link #restart} when a new run starts.
+     */
+    private void produce() {
+        while (running) {
+            if (!offerChunk()) {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    /**
+     * Builds the next chunk into the free slot at the tail of the buffer. Must only be called by the producer:
+     * the background thread, or the consumer when there is none.
+     *
+     * @return {@code false} if the buffer was full
+     */
+    private boolean offerChunk() {
+        long t = tail.get();
+        if (t - head.get() == CAPACITY) return false;
+        int e = epoch;
+        if (e != producerEpoch) {
+            producerEpoch = e;
+            random.setSeed(seed);
+            nextTick = spawnInterval;
+            pathLane = startLane;
+            pathTime = 0;
+            lastArrival = 0;
+            Arrays.fill(laneClear, 0);
+        }
+        Chunk chunk = chunks[(int) (t % CAPACITY)];
+        fill(chunk);
+        chunk.epoch = e;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Lays out the next rows of the run into a chunk.
+     *
+     * @param chunk the chunk to fill
+     */
+    private void fill(Chunk chunk) {
+        for (int r = 0; r < ROWS_PER_CHUNK; r++) {
+            long tick = nextTick;
+            // A row never reaches the player before the previous one, or it could cut the path behind it.
+            while (arrival(tick) < lastArrival) {
+                tick++;
+            }
+            double arrival = arrival(tick);
+            double clear = tick + (playerBottom + Obstacle.HEIGHT) / GameSimulation.obstacleSpeedAt(initialSpeed, tick)
+                    + MARGIN_TICKS;
+
+            int reachable = 0;
+            for (int direction = -1; direction <= 1; direction += 2) {
+                double time = pathTime;
+                for (int lane = pathLane + direction; lane >= 0 && lane < GameSimulation.LANE_COUNT; lane += direction) {
+                    time = Math.max(time, laneClear[lane]) + laneChangeTicks;
+                    if (time > arrival) break;
+                    reachTime[lane] = time;
+                    reachable++;
+                }
+            }
+            int choice = random.nextInt(reachable + 1);
+            if (choice > 0) {
+                int lane = pathLane;
+                for (int k = 0; k < GameSimulation.LANE_COUNT && choice > 0; k++) {
+                    if (k != pathLane && reachTime[k] > 0 && --choice == 0) lane = k;
+                }
+                pathLane = lane;
+                pathTime = reachTime[lane];
+            }
+            Arrays.fill(reachTime, 0);
+
+            int level = GameSimulation.levelAt(tick);
+            int maxBlocked = Math.min(GameSimulation.LANE_COUNT - 1, 1 + (level - 1) / 3);
+            int count = 1 + random.nextInt(maxBlocked);
+            int blocked = 0;
+            while (Integer.bitCount(blocked) < count) {
+                int lane = random.nextInt(GameSimulation.LANE_COUNT);
+                if (lane != pathLane) blocked |= 1 << lane;
+            }
+            for (int lane = 0; lane < GameSimulation.LANE_COUNT; lane++) {
+                if ((blocked & (1 << lane)) != 0) {
+                    laneClear[lane] = Math.max(laneClear[lane], clear);
+                }
+                chunk.sprite[r * GameSimulation.LANE_COUNT + lane] = random.nextInt(SpriteCache.OBSTACLE_SPRITE_COUNT);
+            }
+            chunk.tick[r] = tick;
+            chunk.blocked[r] = blocked;
+
+            lastArrival = arrival;
+            nextTick = tick + spawnInterval;
+        }
+    }
+
+    /**
+     * Computes when the obstacles of a row reach the top of the player vehicle, minus the margin.
+     *
+     * @param tick the tick at which the row spawns
+     * @return the tick of arrival
+     */
+    private double arrival(long tick) {
+        return tick + playerTop / GameSimulation.obstacleSpeedAt(initialSpeed, tick) - MARGIN_TICKS;
+    }
+
+    /**
+     * Makes sure the consumer holds a chunk of the current run with rows left, taking the next one from the
+     * buffer, or building it when there is no background thread.
+     */
+    private void ensureRow() {
+        if (current != null && row < ROWS_PER_CHUNK) return;
+        if (current != null) {
+            head.set(head.get() + 1);
+            current = null;
+            LockSupport.unpark(thread);
+        }
+        int e = epoch;
+        boolean stalled = false;
+        while (current == null) {
+            long h = head.get();
+            if (h == tail.get()) {
+                Thread producer = thread;
+                if (producer != null) {
+                    if (!stalled) {
+                        stalled = true;
+                        stalls++;
+                        LockSupport.unpark(producer);
+                    }
+                    Thread.yield();
+                } else {
+                    offerChunk();
+                }
+                continue;
+            }
+            Chunk chunk = chunks[(int) (h % CAPACITY)];
+            if (chunk.epoch != e) {
+                head.set(h + 1);
+                LockSupport.unpark(thread);
+                continue;
+            }
+            current = chunk;
+            row = 0;
+        }
+    }
+
+    /**
+     * Gets the tick at which the next row spawns. Must only be called by the thread stepping the simulation.
+     *
+     * @return the tick
+     */
+    public long getNextTick() {
+        ensureRow();
+        return current.tick[row];
+    }
+
+    /**
+     * Gets the lanes blocked by the next row.
+     *
+     * @return a bit mask, bit {@code i} set when lane {@code i} holds an obstacle
+     */
+    public int getNextBlocked() {
+        ensureRow();
+        return current.blocked[row];
+    }
+
+    /**
+     * Gets the sprite of the obstacle of the next row in a lane.
+     *
+     * @param lane the lane
+     * @return the sprite index
+     */
+    public int getNextSprite(int lane) {
+        ensureRow();
+        return current.sprite[row * GameSimulation.LANE_COUNT + lane];
+    }
+
+    /**
+     * Moves on to the row after the next one, once it has been spawned.
+     */
+    public void advance() {
+        ensureRow();
+        row++;
+    }
+
+    /**
+     * Gets the number of times the thread stepping the simulation found the buffer empty while the background
+     * thread was running and had to wait for it.
+     *
+     * @return the number of stalls
+     */
+    public long getStalls() {
+        return stalls;
+    }
+
+    /**
+     * Builds the next chunk of the run outside the buffer and drops it, for benchmarks of the generation alone.
+     * Must not be called while the background thread is running.
+     *
+     * @return the tick of the last row built, so the work cannot be eliminated
+     */
+    public long generateChunk() {
+        if (producerEpoch != epoch) {
+            offerChunk();
+        }
+        fill(scratch);
+        return nextTick;
+    }
+}
@@ -0,0 +1,75 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The {@code TripleBuffer} class hands values over from one writer thread to one reader thread without
+ * locks and without either side ever waiting for the other.
+ * The writer fills a back buffer and publishes it; the reader acquires the latest published buffer. A third
+ * buffer sits between them, and publishing or acquiring is a single atomic exchange with it. The reader
+ * never sees a buffer while it is being written, and the writer never overwrites the buffer being read.
+ * Buffers are reused, so nothing is allocated after construction.
+ *
+ * @param <T> the type of the buffers
+ */
+public class TripleBuffer<T> {
+
+    /**
+     * The bit of {@link #middle} set when the middle buffer holds a value the reader has not acquired yet.
+     */
+    private static final int FRESH = 4;
+
+    /**
+     * The mask of {@link #middle} giving the index of the middle buffer.
+     */
+    private static final int INDEX = 3;
+
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(2);
+    private int back = 0;
+    private int front = 1;
+
+    /**
+     * Constructs a triple buffer.
+     *
+     * @param factory creates each of the three buffers
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    /**
+     * Gets the buffer the writer fills next. Must only be called by the writer thread.
+     *
+     * @return the back buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * Publishes the back buffer, making it the latest value, and takes another buffer to fill.
+     * Must only be called by the writer thread.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /**
+     * Gets the latest published buffer. The buffer stays the reader's until the next call, even if the
+     * writer publishes in the meantime. Must only be called by the reader thread.
+     *
+     * @return the latest published buffer, or the previous one if nothing was published since
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX;
+        }
+        return (T) buffers[front];
+    }
+}
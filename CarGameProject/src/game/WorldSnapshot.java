@@ -0,0 +1,289 @@
+package game;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code WorldSnapshot} class is a copy of everything the {@link GamePanel} needs to draw a frame,
+ * taken after a simulation tick: the positions of the player vehicle and of the obstacles at this tick
+ * and the previous one, the score and the level.
+ * Snapshots are captured by the simulation thread and handed to the JavaFX application thread through a
+ * {@link TripleBuffer}; once published, a snapshot is only read. Its arrays are reused from one capture
+ * to the next, so capturing allocates nothing once they are large enough.
+ */
+public class WorldSnapshot {
+
+    private long tick;
+    private long tickNanos;
+    private int score;
+    private int level;
+    private double obstacleSpeed;
+    private boolean gameOver;
+    private String vehicleType;
+    private double playerX;
+    private double playerY;
+    private double playerPreviousX;
+    private double playerPreviousY;
+    private double playerBaseY;
+    private double playerRotation;
+    private double playerPreviousRotation;
+    private double playerWidth;
+    private double playerHeight;
+    private long appliedPressNanos;
+    private int obstacleCount;
+    private double[] obstacleX = new double[64];
+    private double[] obstacleY = new double[64];
+    private double[] obstaclePreviousY = new double[64];
+    private int[] obstacleSprite = new int[64];
+
+    /**
+     * Copies the state of a simulation into this snapshot.
+     *
+     * @param simulation the simulation, just after a tick
+     * @param tickNanos  the time the tick stands for, on the {@link System#nanoTime()} clock
+     */
+    void capture(GameSimulation simulation, long tickNanos) {
+        this.tick = simulation.getTick();
+        this.tickNanos = tickNanos;
+        this.score = simulation.score;
+        this.level = simulation.level;
+        this.obstacleSpeed = simulation.getBaseObstacleSpeed();
+        this.gameOver = simulation.isGameOver();
+
+        PlayerVehicle playerVehicle = simulation.getPlayerVehicle();
+        this.vehicleType = playerVehicle.getVehicleType();
+        this.playerX = playerVehicle.getX();
+        this.playerY = playerVehicle.getY();
+        this.playerPreviousX = playerVehicle.getPreviousX();
+        this.playerPreviousY = playerVehicle.getPreviousY();
+        this.playerBaseY = playerVehicle.getBaseY();
+        this.playerRotation = playerVehicle.getRotation();
+        this.playerPreviousRotation = playerVehicle.getPreviousRotation();
+        this.playerWidth = playerVehicle.getWidth();
+        this.playerHeight = playerVehicle.getHeight();
+        this.appliedPressNanos = playerVehicle.getAppliedPressNanos();
+
+        ObstacleStore store = simulation.getObstacleStore();
+        int count = simulation.getObstacleCount();
+        ensureCapacity(count);
+        if (store != null) {
+            System.arraycopy(store.getX(), 0, obstacleX, 0, count);
+            System.arraycopy(store.getY(), 0, obstacleY, 0, count);
+            System.arraycopy(store.getPreviousY(), 0, obstaclePreviousY, 0, count);
+            System.arraycopy(store.getSprite(), 0, obstacleSprite, 0, count);
+        } else {
+            List<Obstacle> obstacles = simulation.getObstacles();
+            for (int i = 0; i < count; i++) {
+                Obstacle obstacle = obstacles.get(i);
+                obstacleX[i] = obstacle.getX();
+                obstacleY[i] = obstacle.getY();
+                obstaclePreviousY[i] = obstacle.getPreviousY();
+                obstacleSprite[i] = obstacle.getSpriteIndex();
+            }
+        }
+        this.obstacleCount = count;
+    }
+
+    /**
+     * Grows the obstacle arrays so that they can hold the given number of obstacles.
+     *
+     * @param count the number of obstacles
+     */
+    private void ensureCapacity(int count) {
+        if (count <= obstacleX.length) return;
+        int capacity = Math.max(count, obstacleX.length * 2);
+        obstacleX = Arrays.copyOf(obstacleX, capacity);
+        obstacleY = Arrays.copyOf(obstacleY, capacity);
+        obstaclePreviousY = Arrays.copyOf(obstaclePreviousY, capacity);
+        obstacleSprite = Arrays.copyOf(obstacleSprite, capacity);
+    }
+
+    /**
+     * Gets the interpolation factor at which to draw this snapshot at a given time: how far, between the
+     * previous tick and this one, the world was one tick ago.
+     *
+     * @param nowNanos  the current time, on the {@link System#nanoTime()} clock
+     * @param tickNanos the duration of a tick in nanoseconds
+     * @return the interpolation factor, between 0 and 1
+     */
+    public double alphaAt(long nowNanos, long tickNanos) {
+        double alpha = (nowNanos - this.tickNanos) / (double) tickNanos;
+        return Math.max(0, Math.min(1, alpha));
+    }
+
+    /**
+     * Gets the scrolling offset of the road between the previous tick and the tick of the snapshot.
+     *
+     * @param alpha the interpolation factor, between 0 (previous tick) and 1 (this tick)
+     * @return the road offset, between 0 and {@link GameSimulation#HEIGHT}
+     */
+    public double getRoadOffset(double alpha) {
+        return GameSimulation.roadOffset(tick, alpha);
+    }
+
+    /**
+     * Gets the tick at which the snapshot was taken.
+     *
+     * @return the tick, 0 if the snapshot has never been captured
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the score at the time of the snapshot.
+     *
+     * @return the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the level at the time of the snapshot.
+     *
+     * @return the level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the base speed given to newly spawned obstacles at the time of the snapshot.
+     *
+     * @return the obstacle speed, in pixels per tick
+     */
+    public double getObstacleSpeed() {
+        return obstacleSpeed;
+    }
+
+    /**
+     * Tells whether the game was over at the time of the snapshot.
+     *
+     * @return {@code true} if the game was over
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Gets the type of the player's vehicle.
+     *
+     * @return the vehicle type, or {@code null} if the snapshot has never been captured
+     */
+    public String getVehicleType() {
+        return vehicleType;
+    }
+
+    /**
+     * Gets the x-coordinate of the player vehicle between the previous tick and this one.
+     *
+     * @param alpha the interpolation factor, between 0 (previous tick) and 1 (this tick)
+     * @return the interpolated x-coordinate
+     */
+    public double getPlayerX(double alpha) {
+        return playerPreviousX + (playerX - playerPreviousX) * alpha;
+    }
+
+    /**
+     * Gets the y-coordinate of the player vehicle between the previous tick and this one.
+     *
+     * @param alpha the interpolation factor, between 0 (previous tick) and 1 (this tick)
+     * @return the interpolated y-coordinate
+     */
+    public double getPlayerY(double alpha) {
+        return playerPreviousY + (playerY - playerPreviousY) * alpha;
+    }
+
+    /**
+     * Gets the y-coordinate of the player vehicle without its bounce.
+     *
+     * @return the y-coordinate at rest
+     */
+    public double getPlayerBaseY() {
+        return playerBaseY;
+    }
+
+    /**
+     * Gets the rotation of the player vehicle between the previous tick and this one.
+     *
+     * @param alpha the interpolation factor, between 0 (previous tick) and 1 (this tick)
+     * @return the interpolated rotation, in degrees
+     */
+    public double getPlayerRotation(double alpha) {
+        return playerPreviousRotation + (playerRotation - playerPreviousRotation) * alpha;
+    }
+
+    /**
+     * Gets the width of the player vehicle.
+     *
+     * @return the width
+     */
+    public double getPlayerWidth() {
+        return playerWidth;
+    }
+
+    /**
+     * Gets the height of the player vehicle.
+     *
+     * @return the height
+     */
+    public double getPlayerHeight() {
+        return playerHeight;
+    }
+
+    /**
+     * Gets the time the key of the last lane change shown in the snapshot was pressed.
+     *
+     * @return the time on the {@link System#nanoTime()} clock, or 0 if there is none
+     * @see PlayerVehicle#getAppliedPressNanos()
+     */
+    public long getAppliedPressNanos() {
+        return appliedPressNanos;
+    }
+
+    /**
+     * Gets the number of obstacles in the snapshot.
+     *
+     * @return the number of obstacles
+     */
+    public int getObstacleCount() {
+        return obstacleCount;
+    }
+
+    /**
+     * Gets the x-coordinates of the obstacles. Only the first {@link #getObstacleCount()} slots are in use.
+     *
+     * @return the x-coordinate array
+     */
+    public double[] getObstacleX() {
+        return obstacleX;
+    }
+
+    /**
+     * Gets the y-coordinates of the obstacles at this tick.
+     *
+     * @return the y-coordinate array
+     */
+    public double[] getObstacleY() {
+        return obstacleY;
+    }
+
+    /**
+     * Gets the y-coordinates of the obstacles at the previous tick.
+     *
+     * @return the previous y-coordinate array
+     */
+    public double[] getObstaclePreviousY() {
+        return obstaclePreviousY;
+    }
+
+    /**
+     * Gets the sprite indices of the obstacles.
+     *
+     * @return the sprite index array
+     */
+    public int[] getObstacleSprite() {
+        return obstacleSprite;
+    }
+}
@@ -0,0 +1,37 @@
+package test;
+
+import game.Assets;
+import game.SpriteCache;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AssetsTest {
+
+    @Test
+    public void testManifestDeclaresEverySprite() {
+        List<String> keys = Assets.getKeys();
+
+        for (int i = 1; i <= SpriteCache.OBSTACLE_SPRITE_COUNT; i++) {
+            assertTrue(keys.contains("obstacle." + i), "The manifest should declare every obstacle sprite.");
+        }
+        for (String vehicleType : new String[]{"car", "bike", "truck"}) {
+            assertTrue(keys.contains("player." + vehicleType), "The manifest should declare every player sprite.");
+            assertTrue(keys.contains("button." + vehicleType), "The manifest should declare every vehicle button.");
+        }
+        assertTrue(keys.contains("menu.background"), "The manifest should declare the menu background.");
+    }
+
+    @Test
+    public void testAssetsResolveWithoutHardCodedPath() throws Exception {
+        String url = Assets.resolve("MenuBackground.png");
+
+        assertTrue(url.startsWith("file:"), "The assets folder should be found on disk.");
+        assertTrue(Files.isRegularFile(Paths.get(new URI(url))), "The resolved file should exist.");
+    }
+}
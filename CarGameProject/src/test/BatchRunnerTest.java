@@ -0,0 +1,66 @@
+package test;
+
+import game.Autopilot;
+import game.BatchRunner;
+import game.GameSimulation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchRunnerTest {
+
+    private static final long MAX_TICKS = 60L * 60 * GameSimulation.TICKS_PER_SECOND;
+
+    @Test
+    public void testAutopilotOutlivesIdleDriver() {
+        long autopilotTicks = 0;
+        long idleTicks = 0;
+        for (int game = 0; game < 20; game++) {
+            long seed = BatchRunner.gameSeed(99, game);
+            GameSimulation driven = new GameSimulation("car", false, seed);
+            BatchRunner.play(driven, new Autopilot(), MAX_TICKS);
+            autopilotTicks += driven.getTick();
+
+            GameSimulation idle = new GameSimulation("car", false, seed);
+            while (!idle.isGameOver() && idle.getTick() < MAX_TICKS) {
+                idle.step();
+            }
+            idleTicks += idle.getTick();
+        }
+
+        assertTrue(autopilotTicks > 2 * idleTicks, "The autopilot should survive much longer than a driver who never steers.");
+    }
+
+    @Test
+    public void testResultsDoNotDependOnThreadCount() {
+        List<BatchRunner.Setting> settings = List.of(
+                new BatchRunner.Setting("bike", 3, 60),
+                new BatchRunner.Setting("truck", GameSimulation.DEFAULT_OBSTACLE_SPEED, GameSimulation.DEFAULT_SPAWN_INTERVAL));
+
+        List<BatchRunner.Summary> single = BatchRunner.run(settings, 16, 5, MAX_TICKS, new ForkJoinPool(1));
+        List<BatchRunner.Summary> parallel = BatchRunner.run(settings, 16, 5, MAX_TICKS, new ForkJoinPool(4));
+
+        for (int i = 0; i < settings.size(); i++) {
+            assertEquals(16, parallel.get(i).getGames(), "Every game of a setting should be summed up.");
+            assertEquals(single.get(i).getTotalTicks(), parallel.get(i).getTotalTicks(), "Survival should not depend on the thread count.");
+            assertEquals(single.get(i).getMeanScore(), parallel.get(i).getMeanScore(), "Scores should not depend on the thread count.");
+            assertEquals(single.get(i).getLevel(100), parallel.get(i).getLevel(100), "Levels should not depend on the thread count.");
+        }
+    }
+
+    @Test
+    public void testDifficultySetsSpawnInterval() {
+        GameSimulation simulation = new GameSimulation("car", false, 1);
+        simulation.setDifficulty(1, 10);
+        for (int i = 0; i < 50; i++) {
+            simulation.step();
+        }
+
+        assertEquals(5, simulation.getObstacleCount(), "An obstacle should spawn every spawn interval.");
+        assertEquals(1, simulation.getBaseObstacleSpeed(), "The obstacles should start at the given speed.");
+        assertThrows(IllegalArgumentException.class, () -> simulation.setDifficulty(2, 0), "A spawn interval of 0 should be rejected.");
+    }
+}
@@ -1,9 +1,10 @@
 package test;
 
+import game.Collision;
+import game.GameSimulation;
 import game.Obstacle;
 import game.PlayerCar;
 import game.PlayerVehicle;
-import javafx.geometry.Rectangle2D;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -14,15 +15,96 @@ public class CollisionTest {
     public void testCollisionDetection() {
         PlayerVehicle vehicle = new PlayerCar(480, 100);
         Obstacle obstacle = new Obstacle(150, 2);
-        vehicle.getImageView().setX(150);
-        vehicle.getImageView().setY(480);
-        obstacle.getImageView().setX(150);
-        obstacle.getImageView().setY(480);
+        vehicle.setPosition(150, 480);
+        obstacle.setPosition(150, 480);
 
-        Rectangle2D vehicleBounds = vehicle.getBounds();
-        Rectangle2D obstacleBounds = obstacle.getBounds();
+        assertTrue(overlap(vehicle, obstacle), "The vehicle and obstacle should collide.");
+        assertTrue(Collision.intersects(vehicle, obstacle), "The primitive test should agree with the bounds.");
+    }
 
-        assertTrue(vehicleBounds.intersects(obstacleBounds), "The vehicle and obstacle should collide.");
+    @Test
+    public void testPrimitiveIntersectsMatchesBounds() {
+        PlayerVehicle vehicle = new PlayerCar(480, 100);
+        vehicle.setPosition(150, 480);
+        Obstacle obstacle = new Obstacle(150, 2);
+        for (int y = 300; y <= 700; y += 10) {
+            for (int x = 50; x <= 250; x += 10) {
+                obstacle.setPosition(x, y);
+                assertEquals(overlap(vehicle, obstacle), Collision.intersects(vehicle, obstacle),
+                        "The primitive test should agree with the bounds at " + x + ", " + y + ".");
+            }
+        }
     }
-}
 
+    @Test
+    public void testSweptDetectsTunnelling() {
+        PlayerVehicle vehicle = new PlayerCar(480, 100);
+        vehicle.setPosition(150, 480);
+        Obstacle obstacle = new Obstacle(150, 320);
+        obstacle.setPosition(150, 300);
+        obstacle.updatePosition();
+
+        assertEquals(620, obstacle.getY(), "The obstacle should have jumped past the vehicle in one tick.");
+        assertFalse(Collision.intersects(vehicle, obstacle), "A discrete test misses an obstacle that jumped past the vehicle.");
+        assertTrue(Collision.sweptIntersects(vehicle, obstacle), "A swept test should catch an obstacle that jumped past the vehicle.");
+    }
+
+    @Test
+    public void testSweptIgnoresObstacleInAnotherLane() {
+        PlayerVehicle vehicle = new PlayerCar(480, 100);
+        vehicle.setPosition(150, 480);
+        Obstacle obstacle = new Obstacle(250, 320);
+        obstacle.setPosition(250, 300);
+        obstacle.updatePosition();
+
+        assertFalse(Collision.sweptIntersects(vehicle, obstacle), "An obstacle passing in another lane should not collide.");
+    }
+
+    @Test
+    public void testTimeOfImpact() {
+        // A 10x10 box falling by 100 onto a static 10x10 box 50 below: contact after 40% of the tick.
+        assertEquals(0.4, Collision.timeOfImpact(0, 50, 10, 10, 0, 0, 0, 0, 10, 10, 0, 100), 1e-9);
+        assertEquals(0, Collision.timeOfImpact(0, 0, 10, 10, 0, 0, 5, 5, 10, 10, 0, 0), "Overlapping boxes collide at once.");
+        assertEquals(-1, Collision.timeOfImpact(0, 50, 10, 10, 0, 0, 0, 0, 10, 10, 0, 30), "Boxes that stop short do not collide.");
+        assertEquals(-1, Collision.timeOfImpact(0, 0, 10, 10, 0, 0, 10, 0, 10, 10, 0, 0), "Boxes that only touch do not collide.");
+    }
+
+    @Test
+    public void testSimulationCatchesHighSpeedObstacle() {
+        for (boolean swept : new boolean[]{true, false}) {
+            GameSimulation simulation = new GameSimulation("car");
+            simulation.setSweptCollisions(swept);
+            PlayerVehicle vehicle = simulation.getPlayerVehicle();
+            Obstacle obstacle = simulation.getObstaclePool().acquire(vehicle.getX(), 320);
+            obstacle.setPosition(vehicle.getX(), 300);
+            simulation.addObstacle(obstacle);
+
+            assertEquals(!swept, simulation.step(), swept
+                    ? "The swept check should end the game when an obstacle jumps through the vehicle."
+                    : "The discrete check misses an obstacle that jumps through the vehicle.");
+        }
+    }
+
+    @Test
+    public void testSimulationCatchesHighSpeedObstacleInObstacleStore() {
+        GameSimulation simulation = new GameSimulation("car", true);
+        PlayerVehicle vehicle = simulation.getPlayerVehicle();
+        int slot = simulation.getObstacleStore().add(vehicle.getX(), vehicle.currentLane, 320, 0);
+        simulation.getObstacleStore().getY()[slot] = 300;
+        simulation.getObstacleStore().getPreviousY()[slot] = 300;
+
+        assertFalse(simulation.step(), "The swept check should also cover obstacles kept in primitive arrays.");
+    }
+
+    /**
+     * Checks whether the bounds of the vehicle and the obstacle overlap, from the intersection of their
+     * extents: the boxes overlap if it is not empty on both axes.
+     */
+    private static boolean overlap(PlayerVehicle vehicle, Obstacle obstacle) {
+        double left = Math.max(vehicle.getX(), obstacle.getX());
+        double right = Math.min(vehicle.getX() + vehicle.getWidth(), obstacle.getX() + obstacle.getWidth());
+        double top = Math.max(vehicle.getY(), obstacle.getY());
+        double bottom = Math.min(vehicle.getY() + vehicle.getHeight(), obstacle.getY() + obstacle.getHeight());
+        return left < right && top < bottom;
+    }
+}
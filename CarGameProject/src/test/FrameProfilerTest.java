@@ -0,0 +1,115 @@
+package test;
+
+import game.FrameBudgetGovernor;
+import game.FrameProfiler;
+import game.GameSimulation;
+import game.QualityGovernor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrameProfilerTest {
+
+    @Test
+    public void testPercentilesOverWindow() {
+        FrameProfiler profiler = new FrameProfiler();
+
+        for (int i = 1; i <= 100; i++) {
+            profiler.record(FrameProfiler.DRAW, i * 1000L);
+            profiler.endFrame(i);
+        }
+        for (int i = 0; i < FrameProfiler.REFRESH_FRAMES - 100 % FrameProfiler.REFRESH_FRAMES; i++) {
+            profiler.record(FrameProfiler.DRAW, 100_000L);
+            profiler.endFrame(0);
+        }
+
+        assertEquals(120, profiler.getFrameCount(), "Every frame should be kept while the window is not full.");
+        assertEquals(60_000L, profiler.getP50(FrameProfiler.DRAW), "The median should be the middle sample.");
+        assertEquals(100_000L, profiler.getP95(FrameProfiler.DRAW), "The 95th percentile should include the slow frames.");
+        assertEquals(0L, profiler.getP99(FrameProfiler.SPAWN), "A phase never recorded should take no time.");
+    }
+
+    @Test
+    public void testInputLatencyOverLastPresses() {
+        FrameProfiler profiler = new FrameProfiler();
+
+        for (int i = 1; i <= FrameProfiler.LATENCY_WINDOW + 36; i++) {
+            profiler.recordInputLatency(i * 1_000_000L);
+        }
+        for (int i = 0; i < FrameProfiler.REFRESH_FRAMES; i++) {
+            profiler.endFrame(0);
+        }
+
+        assertEquals(FrameProfiler.LATENCY_WINDOW + 36, profiler.getInputCount(), "Every key press should be counted.");
+        assertEquals(68_000_000L, profiler.getInputLatencyP50(), "The median should only cover the last presses.");
+        assertEquals(100_000_000L, profiler.getInputLatencyMax(), "The longest latency should be the last one.");
+    }
+
+    @Test
+    public void testLayoutPassesBetweenRefreshes() {
+        FrameProfiler profiler = new FrameProfiler();
+
+        profiler.recordNodeCount(17);
+        for (int i = 0; i < FrameProfiler.REFRESH_FRAMES; i++) {
+            if (i % 10 == 0) profiler.recordLayoutPass();
+            profiler.endFrame(0);
+        }
+        assertEquals(17, profiler.getNodeCount(), "The node count should be the last one recorded.");
+        assertEquals(3, profiler.getLayoutPasses(), "Every layout pass since the last refresh should be counted.");
+
+        for (int i = 0; i < FrameProfiler.REFRESH_FRAMES; i++) {
+            profiler.endFrame(0);
+        }
+        assertEquals(0, profiler.getLayoutPasses(), "A scene that did not change should need no layout pass.");
+    }
+
+    @Test
+    public void testLayoutIsItsOwnSeries() {
+        FrameProfiler profiler = new FrameProfiler();
+        for (int i = 0; i < 10; i++) {
+            profiler.recordLayout(5_000_000);
+        }
+        for (int i = 0; i < FrameProfiler.REFRESH_FRAMES; i++) {
+            profiler.record(FrameProfiler.DRAW, 1_000_000);
+            profiler.endFrame(0);
+            profiler.recordLayout(i == 0 ? 9_000_000 : 2_000_000);
+        }
+        assertEquals(1_000_000, profiler.getP50(FrameProfiler.DRAW), "The layout should not leak into the frame phases.");
+        assertEquals(2_000_000, profiler.getP50(FrameProfiler.LAYOUT), "The layout percentiles should cover every pulse recorded.");
+        assertEquals(9_000_000, profiler.getP99(FrameProfiler.LAYOUT), "A layout spike should show up, even in a pulse without a frame.");
+    }
+
+    @Test
+    public void testQualityChangesAreRecorded() {
+        FrameProfiler profiler = new FrameProfiler();
+        QualityGovernor governor = new QualityGovernor(60, false);
+        governor.setTransitionListener(profiler::recordQualityChange);
+        assertEquals(-1, profiler.getLastQualityTo(), "No change should be recorded before the governor moves.");
+
+        long now = 0;
+        for (int i = 0; i < FrameBudgetGovernor.WINDOW + 1; i++) {
+            governor.recordFrame(now);
+            now += 40_000_000;
+        }
+        assertEquals(1, profiler.getQualityChanges(), "A slow window should be recorded as one change.");
+        assertEquals(QualityGovernor.HIGH, profiler.getLastQualityFrom(), "The change should start from the highest tier.");
+        assertEquals(QualityGovernor.MEDIUM, profiler.getLastQualityTo(), "The change should go down one tier.");
+        assertEquals(40_000_000, profiler.getLastQualityFrameNanos(), 1, "The change should carry the mean frame time.");
+    }
+
+    @Test
+    public void testSimulationRecordsPhases() {
+        GameSimulation simulation = new GameSimulation("car");
+        FrameProfiler profiler = new FrameProfiler();
+        simulation.setProfiler(profiler);
+
+        for (int i = 0; i < FrameProfiler.REFRESH_FRAMES; i++) {
+            simulation.step();
+            profiler.endFrame(simulation.getObstacleCount());
+        }
+
+        assertTrue(profiler.getP99(FrameProfiler.VEHICLE) > 0, "The vehicle update should be timed on every tick.");
+        assertTrue(profiler.getP99(FrameProfiler.COLLISIONS) > 0, "The collision checks should be timed on every tick.");
+        assertEquals(0L, profiler.getP99(FrameProfiler.DRAW), "The simulation should not record the draw phase.");
+    }
+}
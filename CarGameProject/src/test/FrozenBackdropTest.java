@@ -0,0 +1,43 @@
+package test;
+
+import game.FrozenBackdrop;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrozenBackdropTest {
+
+    @Test
+    public void testDownsampleAveragesBlocks() {
+        int[] source = new int[8 * 4];
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 8; x++) {
+                // The left half is black, the right half alternates white and black columns.
+                source[y * 8 + x] = x < 4 || x % 2 == 0 ? 0xff000000 : 0xffffffff;
+            }
+        }
+        int[] target = new int[2];
+        FrozenBackdrop.downsample(source, 8, 4, target, 4);
+
+        assertEquals(0xff000000, target[0], "A black block should stay black.");
+        assertEquals(0xff7f7f7f, target[1], "A half-white block should turn grey.");
+    }
+
+    @Test
+    public void testBoxBlurSpreadsAndKeepsUniformAreas() {
+        int width = 9;
+        int height = 9;
+        int[] pixels = new int[width * height];
+        int[] scratch = new int[pixels.length];
+        Arrays.fill(pixels, 0xff000000);
+        pixels[4 * width + 4] = 0xff000000 | (90 << 16) | (90 << 8) | 90;
+        FrozenBackdrop.boxBlur(pixels, scratch, width, height, 1);
+
+        assertEquals(0xff0a0a0a, pixels[4 * width + 4], "The bright pixel should be averaged with its neighbours.");
+        assertEquals(0xff0a0a0a, pixels[3 * width + 5], "The bright pixel should spread to its diagonal neighbours.");
+        assertEquals(0xff000000, pixels[2 * width + 4], "The blur should not reach beyond its radius.");
+        assertEquals(0xff000000, pixels[0], "A uniform area, edges included, should keep its color.");
+    }
+}
@@ -1,6 +1,6 @@
 package test;
 
-import game.GameWindow;
+import game.GameSimulation;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -9,16 +9,26 @@ public class GameWindowTest {
 
     @Test
     public void testScoreAndLevelProgression() {
-        GameWindow gameWindow = new GameWindow(null, "car");
+        GameSimulation simulation = new GameSimulation("car");
 
-        gameWindow.score = 9;
-        gameWindow.updateScore();
-        assertEquals(10, gameWindow.score, "The score should increase by 1.");
-        assertEquals(2, gameWindow.level, "The level should increase when the score reaches 10.");
+        simulation.score = 9;
+        simulation.updateScore();
+        assertEquals(10, simulation.score, "The score should increase by 1.");
+        assertEquals(2, simulation.level, "The level should increase when the score reaches 10.");
 
-        gameWindow.updateScore();
-        assertEquals(11, gameWindow.score, "The score should continue increasing.");
-        assertEquals(2, gameWindow.level, "The level should not change until the next threshold is reached.");
+        simulation.updateScore();
+        assertEquals(11, simulation.score, "The score should continue increasing.");
+        assertEquals(2, simulation.level, "The level should not change until the next threshold is reached.");
     }
-}
 
+    @Test
+    public void testStepUpdatesScoreHeadless() {
+        GameSimulation simulation = new GameSimulation("car");
+
+        for (int i = 0; i < 60; i++) {
+            assertTrue(simulation.step(), "No obstacle can reach the player during the first second.");
+        }
+        assertEquals(1, simulation.score, "The score should increase once every 60 ticks.");
+        assertEquals(60, simulation.getTick(), "Each step should advance the simulation by one tick.");
+    }
+}
@@ -1,6 +1,7 @@
 package test;
 
 import game.PlayerCar;
+import game.PlayerTruck;
 import game.PlayerVehicle;
 import org.junit.jupiter.api.Test;
 
@@ -23,7 +24,60 @@ public class PlayerVehicleTest {
         vehicle.moveRight();
         assertEquals(2, vehicle.currentLane, "The vehicle should move to the right lane.");
         vehicle.moveRight();
+        finishSliding(vehicle);
         assertEquals(3, vehicle.currentLane, "The vehicle should not move beyond the rightmost lane.");
     }
+
+    @Test
+    public void testPressDuringSlideIsAppliedWhenSlideEnds() {
+        PlayerVehicle vehicle = new PlayerTruck(450, 100);
+        vehicle.moveLeft();
+        vehicle.updateSliding();
+        vehicle.moveRight();
+        assertEquals(0, vehicle.currentLane, "A press made mid-slide should wait for the slide to end.");
+        assertEquals(1, vehicle.getBufferedMoves(), "A press made mid-slide should be buffered.");
+
+        finishSliding(vehicle);
+        assertEquals(1, vehicle.currentLane, "The buffered press should be applied when the slide ends.");
+    }
+
+    @Test
+    public void testInputBufferIsBounded() {
+        PlayerVehicle vehicle = new PlayerCar(480, 100);
+        vehicle.moveRight();
+        vehicle.moveLeft();
+        vehicle.moveRight();
+        vehicle.moveLeft();
+        assertEquals(PlayerVehicle.INPUT_BUFFER_SIZE, vehicle.getBufferedMoves(), "Presses beyond the buffer size should be dropped.");
+
+        finishSliding(vehicle);
+        assertEquals(2, vehicle.currentLane, "Only the buffered presses should be applied.");
+    }
+
+    @Test
+    public void testBufferedPressIntoWallDoesNotLinger() {
+        PlayerVehicle vehicle = new PlayerCar(480, 100);
+        vehicle.moveLeft();
+        vehicle.moveLeft();
+        vehicle.moveLeft();
+        for (int i = 0; i < 1000 && vehicle.isMoving(); i++) {
+            vehicle.updateSliding();
+        }
+        assertEquals(0, vehicle.currentLane, "The vehicle should stop at the leftmost lane.");
+        assertEquals(0, vehicle.getBufferedMoves(), "Presses leading off the road should be dropped once the vehicle stops.");
+
+        vehicle.moveRight();
+        finishSliding(vehicle);
+        assertEquals(1, vehicle.currentLane, "A single press should only move the vehicle one lane.");
+    }
+
+    /**
+     * Slides the vehicle until it has reached its lane and applied every buffered press.
+     */
+    private static void finishSliding(PlayerVehicle vehicle) {
+        for (int i = 0; i < 1000 && (vehicle.isMoving() || vehicle.getBufferedMoves() > 0); i++) {
+            vehicle.updateSliding();
+        }
+    }
 }
 
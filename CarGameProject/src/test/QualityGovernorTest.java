@@ -0,0 +1,74 @@
+package test;
+
+import game.QualityGovernor;
+import game.ResolutionScaler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QualityGovernorTest {
+
+    private static final long FRAME = 1_000_000_000L / 60;
+
+    private long now = 1_000_000_000L;
+
+    /**
+     * Records frames of the given duration.
+     */
+    private void play(QualityGovernor governor, int frames, long frameNanos) {
+        for (int i = 0; i < frames; i++) {
+            now += frameNanos;
+            governor.recordFrame(now);
+        }
+    }
+
+    @Test
+    public void testTiersDropEyeCandyInOrder() {
+        assertTrue(QualityGovernor.hasEffects(QualityGovernor.HIGH), "The highest tier should draw the effects.");
+        assertTrue(QualityGovernor.hasImageSmoothing(QualityGovernor.HIGH), "The highest tier should smooth the sprites.");
+        assertTrue(QualityGovernor.hasVehicleMotion(QualityGovernor.HIGH), "The highest tier should draw the bounce.");
+        assertFalse(QualityGovernor.hasEffects(QualityGovernor.MEDIUM), "The effects should be dropped first.");
+        assertTrue(QualityGovernor.hasImageSmoothing(QualityGovernor.MEDIUM), "The smoothing should outlast the effects.");
+        assertFalse(QualityGovernor.hasImageSmoothing(QualityGovernor.LOW), "The smoothing should be dropped second.");
+        assertTrue(QualityGovernor.hasVehicleMotion(QualityGovernor.LOW), "The bounce should outlast the smoothing.");
+        assertFalse(QualityGovernor.hasVehicleMotion(QualityGovernor.MINIMUM), "The bounce should be dropped last.");
+    }
+
+    @Test
+    public void testResolutionDropsOnlyPastLowestTier() {
+        QualityGovernor governor = new QualityGovernor(60, true);
+        List<int[]> transitions = new ArrayList<>();
+        governor.setTransitionListener((from, to, meanFrameNanos) -> transitions.add(new int[]{from, to}));
+        play(governor, 1, FRAME);
+
+        for (int tier = QualityGovernor.MEDIUM; tier <= QualityGovernor.MINIMUM; tier++) {
+            play(governor, QualityGovernor.WINDOW, 2 * FRAME);
+            assertEquals(tier, governor.getTier(), "Each window of slow frames should drop one tier.");
+            assertEquals(1.0, governor.getResolutionFactor(), "The resolution should be kept while there is eye-candy to drop.");
+        }
+        play(governor, 10 * QualityGovernor.WINDOW, 2 * FRAME);
+        assertEquals(QualityGovernor.MINIMUM, governor.getTier(), "The tier should stay the lowest.");
+        assertEquals(ResolutionScaler.FACTORS[ResolutionScaler.FACTORS.length - 1], governor.getResolutionFactor(),
+                "The resolution should then drop to the lowest.");
+
+        assertEquals(governor.getChanges(), transitions.size(), "Every transition should be reported.");
+        for (int i = 0; i < transitions.size(); i++) {
+            assertArrayEquals(new int[]{i, i + 1}, transitions.get(i), "The transitions should step one level at a time.");
+        }
+    }
+
+    @Test
+    public void testTierRisesBackWithoutDynamicResolution() {
+        QualityGovernor governor = new QualityGovernor(60, false);
+        play(governor, 1, FRAME);
+        play(governor, 10 * QualityGovernor.WINDOW, 2 * FRAME);
+        assertEquals(QualityGovernor.MINIMUM, governor.getTier(), "Slow frames should reach the lowest tier.");
+        assertEquals(1.0, governor.getResolutionFactor(), "Without dynamic resolution, the resolution should be kept.");
+
+        play(governor, QualityGovernor.INITIAL_UPGRADE_DELAY, FRAME);
+        assertEquals(QualityGovernor.LOW, governor.getTier(), "Frames within the budget should raise the tier again.");
+    }
+}
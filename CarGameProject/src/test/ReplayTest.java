@@ -0,0 +1,112 @@
+package test;
+
+import game.GameSimulation;
+import game.ReplayPlayer;
+import game.ReplayReader;
+import game.ReplayRecorder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayTest {
+
+    /**
+     * Plays a run with scripted inputs until the game is over, recording it.
+     */
+    private static ReplayRecorder recordRun(GameSimulation simulation, int checksumInterval) {
+        ReplayRecorder recorder = new ReplayRecorder(simulation, checksumInterval);
+        recorder.recordInput(ReplayRecorder.PAUSE);
+        while (!simulation.isGameOver() && simulation.getTick() < 100_000) {
+            if (simulation.getTick() % 37 == 0) {
+                if (simulation.getTick() % 3 == 0) {
+                    recorder.recordInput(ReplayRecorder.LEFT);
+                    simulation.getPlayerVehicle().moveLeft();
+                } else {
+                    recorder.recordInput(ReplayRecorder.RIGHT);
+                    simulation.getPlayerVehicle().moveRight();
+                }
+            }
+            simulation.step();
+            recorder.afterStep();
+        }
+        recorder.finish();
+        return recorder;
+    }
+
+    @Test
+    public void testSameSeedSameRun() {
+        GameSimulation first = new GameSimulation("car", false, 42);
+        GameSimulation second = new GameSimulation("car", false, 42);
+
+        for (int i = 0; i < 2000 && !first.isGameOver(); i++) {
+            first.step();
+            second.step();
+            assertEquals(first.checksum(), second.checksum(), "Simulations with the same seed should not diverge.");
+        }
+    }
+
+    @Test
+    public void testResetPlaysSameRunAsNewSimulation() {
+        GameSimulation reused = new GameSimulation("truck", false, 3);
+        recordRun(reused, 1);
+        reused.reset(42);
+        GameSimulation fresh = new GameSimulation("truck", false, 42);
+
+        for (int i = 0; i < 2000 && !fresh.isGameOver(); i++) {
+            if (i % 45 == 0) {
+                reused.getPlayerVehicle().moveLeft();
+                fresh.getPlayerVehicle().moveLeft();
+            }
+            reused.step();
+            fresh.step();
+            assertEquals(fresh.checksum(), reused.checksum(), "A reset simulation should play the run of a new one.");
+        }
+    }
+
+    @Test
+    public void testReplayMatchesRecordedRun() {
+        GameSimulation simulation = new GameSimulation("bike", false, 7);
+        byte[] log = recordRun(simulation, ReplayRecorder.DEFAULT_CHECKSUM_INTERVAL).toByteArray();
+
+        ReplayPlayer.Result result = ReplayPlayer.play(new ReplayReader(ByteBuffer.wrap(log)));
+
+        assertTrue(result.isFaithful(), "The replay should not diverge from the recorded run.");
+        assertEquals(simulation.getTick(), result.getTick(), "The replay should end at the tick of the crash.");
+        assertEquals(simulation.score, result.getScore(), "The replay should reach the recorded score.");
+        assertTrue(result.getChecksums() > 0, "The checksums of the log should have been checked.");
+    }
+
+    @Test
+    public void testReplayDetectsDivergence() {
+        GameSimulation simulation = new GameSimulation("car", true, 11);
+        byte[] log = recordRun(simulation, 1).toByteArray();
+
+        // Replaying with another seed spawns the obstacles in other lanes.
+        ByteBuffer tampered = ByteBuffer.wrap(log);
+        ReplayReader header = new ReplayReader(ByteBuffer.wrap(log));
+        int seedOffset = 4 + 1 + 1 + header.getVehicleType().length();
+        tampered.putLong(seedOffset, header.getSeed() + 1);
+
+        ReplayPlayer.Result result = ReplayPlayer.play(new ReplayReader(tampered));
+
+        assertFalse(result.isFaithful(), "A replay with another seed should diverge.");
+        assertTrue(result.getDivergedTick() <= simulation.getTick(), "The divergence should be caught before the end of the run.");
+    }
+
+    @Test
+    public void testReplayFileIsMemoryMapped(@TempDir Path directory) throws Exception {
+        GameSimulation simulation = new GameSimulation("truck", false, 3);
+        ReplayRecorder recorder = recordRun(simulation, ReplayRecorder.DEFAULT_CHECKSUM_INTERVAL);
+        Path file = directory.resolve("runs").resolve("run.rhr");
+        recorder.writeTo(file);
+
+        ReplayReader reader = ReplayReader.open(file);
+        assertEquals("truck", reader.getVehicleType(), "The header should hold the vehicle type.");
+        assertEquals(3, reader.getSeed(), "The header should hold the seed.");
+        assertTrue(ReplayPlayer.play(reader).isFaithful(), "A replay read from a file should match the recorded run.");
+    }
+}
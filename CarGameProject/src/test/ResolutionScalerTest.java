@@ -0,0 +1,71 @@
+package test;
+
+import game.ResolutionScaler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResolutionScalerTest {
+
+    private static final long FRAME = 1_000_000_000L / 60;
+
+    private long now = 1_000_000_000L;
+
+    /**
+     * Records frames of the given duration and counts the changes of resolution.
+     */
+    private int play(ResolutionScaler scaler, int frames, long frameNanos) {
+        int changes = 0;
+        for (int i = 0; i < frames; i++) {
+            now += frameNanos;
+            if (scaler.recordFrame(now)) changes++;
+        }
+        return changes;
+    }
+
+    @Test
+    public void testSlowFramesLowerResolution() {
+        ResolutionScaler scaler = new ResolutionScaler(60);
+        play(scaler, 1, FRAME);
+
+        assertEquals(0, play(scaler, 10 * ResolutionScaler.WINDOW, FRAME), "Frames within the budget should keep the full resolution.");
+        assertEquals(1.0, scaler.getFactor(), "The scaler should start at the full resolution.");
+        assertEquals(1, play(scaler, ResolutionScaler.WINDOW, 2 * FRAME), "A window of slow frames should lower the resolution once.");
+        assertEquals(ResolutionScaler.FACTORS[1], scaler.getFactor(), "The next lower resolution should be picked.");
+        play(scaler, 10 * ResolutionScaler.WINDOW, 2 * FRAME);
+        assertEquals(ResolutionScaler.FACTORS.length - 1, scaler.getLevel(), "The resolution should not go below the lowest level.");
+    }
+
+    @Test
+    public void testPausesAreNotSlowFrames() {
+        ResolutionScaler scaler = new ResolutionScaler(60);
+        for (int i = 0; i < 5 * ResolutionScaler.WINDOW; i++) {
+            play(scaler, 1, FRAME);
+            play(scaler, 1, 1_000_000_000L);
+        }
+
+        assertEquals(0, scaler.getLevel(), "The time spent paused should not count as a slow frame.");
+    }
+
+    @Test
+    public void testFailedUpgradeBacksOff() {
+        ResolutionScaler scaler = new ResolutionScaler(60);
+        play(scaler, 1, FRAME);
+        play(scaler, ResolutionScaler.WINDOW, 2 * FRAME);
+        assertEquals(1, scaler.getLevel(), "The resolution should be lowered.");
+
+        play(scaler, ResolutionScaler.INITIAL_UPGRADE_DELAY - ResolutionScaler.WINDOW, FRAME);
+        assertEquals(1, scaler.getLevel(), "The resolution should not rise before the delay.");
+        play(scaler, ResolutionScaler.WINDOW, FRAME);
+        assertEquals(0, scaler.getLevel(), "The resolution should rise once the frames kept within the budget.");
+
+        play(scaler, ResolutionScaler.WINDOW, 2 * FRAME);
+        assertEquals(1, scaler.getLevel(), "The resolution should be lowered again.");
+        assertEquals(2 * ResolutionScaler.INITIAL_UPGRADE_DELAY, scaler.getUpgradeDelay(), "A failed upgrade should double the delay.");
+
+        assertEquals(0, play(scaler, ResolutionScaler.INITIAL_UPGRADE_DELAY, FRAME), "The resolution should not rise before the new delay.");
+        assertEquals(1, play(scaler, ResolutionScaler.INITIAL_UPGRADE_DELAY, FRAME), "The resolution should rise after the new delay.");
+        assertEquals(0, play(scaler, 10 * ResolutionScaler.INITIAL_UPGRADE_DELAY, FRAME), "A successful upgrade should stay.");
+        assertEquals(4, scaler.getChanges(), "Every change should be counted.");
+    }
+}
@@ -0,0 +1,137 @@
+package test;
+
+import game.ScoreStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoreStoreTest {
+
+    @Test
+    public void testLeaderboardsPerVehicle(@TempDir Path directory) {
+        ScoreStore store = new ScoreStore(directory.resolve("scores.log"));
+
+        for (int score = 1; score <= ScoreStore.TOP_N + 5; score++) {
+            store.submit("car", score, score);
+        }
+        assertEquals(0, store.submit("bike", 3, 0), "The first bike score should lead the bike leaderboard.");
+
+        assertEquals(ScoreStore.TOP_N, store.getTopScores("car").size(), "Only the best scores should be kept.");
+        assertEquals(ScoreStore.TOP_N + 5, store.getHighScore("car"), "The best car score should lead.");
+        assertEquals(6, store.getTopScores("car").get(ScoreStore.TOP_N - 1).getScore(), "The lowest scores should be dropped.");
+        assertEquals(3, store.getHighScore("bike"), "Vehicle types should have separate leaderboards.");
+        assertEquals(-1, store.submit("car", 1, 0), "A score below the leaderboard should not be ranked.");
+        assertEquals(0, store.getHighScore("truck"), "A vehicle type without runs should have no high score.");
+        store.close();
+    }
+
+    @Test
+    public void testScoresSurviveRestart(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("scores").resolve("scores.log");
+        ScoreStore store = new ScoreStore(file);
+        store.submit("truck", 12, 42);
+        store.submit("truck", 30, 43);
+        store.flush();
+        store.close();
+
+        ScoreStore reopened = new ScoreStore(file);
+        assertEquals(2, reopened.getLoadedRecords(), "Every saved score should be loaded.");
+        assertEquals(30, reopened.getHighScore("truck"), "The leaderboard should be rebuilt from the log.");
+        assertEquals(43, reopened.getTopScores("truck").get(0).getSeed(), "The seed of the run should be saved.");
+        reopened.close();
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("scores.log");
+        ScoreStore store = new ScoreStore(file);
+        store.submit("car", 8, 1);
+        store.submit("car", 9, 2);
+        store.flush();
+        store.close();
+
+        // Simulate a power cut in the middle of the second record.
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 7);
+        }
+
+        ScoreStore recovered = new ScoreStore(file);
+        assertEquals(1, recovered.getLoadedRecords(), "The records before the torn one should be kept.");
+        assertEquals(8, recovered.getHighScore("car"), "The torn record should be ignored.");
+        assertEquals(size / 2 - 7, recovered.getDiscardedBytes(), "The torn record should be cut from the log.");
+
+        recovered.submit("car", 10, 3);
+        recovered.flush();
+        recovered.close();
+        assertEquals(10, new ScoreStore(file).getHighScore("car"), "Scores appended after a recovery should be readable.");
+    }
+
+    @Test
+    public void testFailedWriteLeavesNoPartialRecord(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("scores.log");
+        boolean[] failNext = {false};
+        ScoreStore store = new ScoreStore(file) {
+            @Override
+            protected void write(FileChannel channel, ByteBuffer record) throws IOException {
+                if (failNext[0]) {
+                    failNext[0] = false;
+                    // Write half of the record, then fail like a full disk.
+                    ByteBuffer half = record.duplicate();
+                    half.limit(record.position() + record.remaining() / 2);
+                    channel.write(half);
+                    throw new IOException("No space left on device");
+                }
+                super.write(channel, record);
+            }
+        };
+        store.submit("car", 8, 1);
+        store.flush();
+        long size = Files.size(file);
+        failNext[0] = true;
+        store.submit("car", 9, 2);
+        store.flush();
+        assertEquals(size, Files.size(file), "The partial record should be cut from the log.");
+        store.submit("car", 10, 3);
+        store.flush();
+        store.close();
+
+        ScoreStore reopened = new ScoreStore(file);
+        assertEquals(2, reopened.getLoadedRecords(), "The scores around the failed write should be kept.");
+        assertEquals(0, reopened.getDiscardedBytes(), "No damaged bytes should be left in the log.");
+        assertEquals(10, reopened.getHighScore("car"), "The score appended after the failed write should be readable.");
+        reopened.close();
+    }
+
+    @Test
+    public void testDamagedRecordIsSkipped(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("scores.log");
+        ScoreStore store = new ScoreStore(file);
+        store.submit("car", 8, 1);
+        store.submit("car", 9, 2);
+        store.submit("car", 10, 3);
+        store.flush();
+        store.close();
+
+        // Damage the score of the second record.
+        long recordSize = Files.size(file) / 3;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), recordSize + 6);
+        }
+
+        ScoreStore recovered = new ScoreStore(file);
+        assertEquals(2, recovered.getLoadedRecords(), "The records after the damaged one should still be read.");
+        assertEquals(10, recovered.getHighScore("car"), "The last record should be kept.");
+        assertEquals(recordSize, recovered.getDiscardedBytes(), "Only the damaged record should be discarded.");
+        assertEquals(2 * recordSize, Files.size(file), "The log should be rewritten with the valid records.");
+        recovered.close();
+    }
+}
@@ -0,0 +1,202 @@
+package test;
+
+import game.GameSimulation;
+import game.InputQueue;
+import game.PlayerVehicle;
+import game.ReplayPlayer;
+import game.ReplayReader;
+import game.ReplayRecorder;
+import game.SimulationRunner;
+import game.TripleBuffer;
+import game.WorldSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationRunnerTest {
+
+    @Test
+    public void testTripleBufferNeverTears() throws InterruptedException {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[256]);
+        int publications = 200_000;
+        Thread writer = new Thread(() -> {
+            for (int value = 1; value <= publications; value++) {
+                Arrays.fill(buffer.getBack(), value);
+                buffer.publish();
+            }
+        });
+        writer.start();
+
+        int last = 0;
+        while (last < publications) {
+            int[] values = buffer.acquire();
+            int value = values[0];
+            for (int v : values) {
+                assertEquals(value, v, "The reader should never see a buffer being written.");
+            }
+            assertTrue(value >= last, "The reader should never go back to an older buffer.");
+            last = value;
+        }
+        writer.join();
+    }
+
+    @Test
+    public void testInputQueueKeepsOrderAcrossThreads() throws InterruptedException {
+        InputQueue queue = new InputQueue(8);
+        int commands = 100_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < commands; i++) {
+                while (!queue.offer(i % 4)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        for (int i = 0; i < commands; i++) {
+            int command;
+            while ((command = queue.poll()) == InputQueue.EMPTY) {
+                Thread.yield();
+            }
+            assertEquals(i % 4, command, "Commands should be taken in the order they were offered.");
+        }
+        producer.join();
+        assertEquals(InputQueue.EMPTY, queue.poll(), "The queue should be empty once every command is taken.");
+    }
+
+    @Test
+    public void testFullInputQueueDropsCommands() {
+        InputQueue queue = new InputQueue(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(InputQueue.LEFT), "The queue should accept commands up to its capacity.");
+        }
+        assertFalse(queue.offer(InputQueue.RIGHT), "A full queue should drop the command.");
+        assertEquals(4, queue.size(), "The dropped command should not be queued.");
+    }
+
+    @Test
+    public void testRunnerRecordsFaithfulReplay() {
+        GameSimulation simulation = new GameSimulation("truck", false, 11);
+        ReplayRecorder recorder = new ReplayRecorder(simulation, ReplayRecorder.DEFAULT_CHECKSUM_INTERVAL);
+        SimulationRunner runner = new SimulationRunner(simulation, recorder);
+
+        boolean ended = false;
+        while (!ended && simulation.getTick() < 100_000) {
+            if (simulation.getTick() % 41 == 0) {
+                runner.offer(simulation.getTick() % 2 == 0 ? InputQueue.LEFT : InputQueue.RIGHT);
+            }
+            runner.drainInputs();
+            ended = runner.stepOnce();
+        }
+
+        ReplayPlayer.Result result = ReplayPlayer.play(new ReplayReader(ByteBuffer.wrap(recorder.toByteArray())));
+        assertTrue(ended, "The run should end with a crash.");
+        assertTrue(result.isFaithful(), "The replay of a run driven through the input queue should not diverge.");
+        assertEquals(simulation.score, result.getScore(), "The replay should reach the recorded score.");
+    }
+
+    @Test
+    public void testPressTimeFollowsLaneChange() {
+        GameSimulation simulation = new GameSimulation("truck", false, 8);
+        SimulationRunner runner = new SimulationRunner(simulation, new ReplayRecorder(simulation, 1));
+
+        runner.offer(InputQueue.LEFT, 1_000);
+        runner.offer(InputQueue.RIGHT, 2_000);
+        runner.drainInputs();
+        assertEquals(0, simulation.getPlayerVehicle().getAppliedPressNanos(), "A lane change should not show before the next tick.");
+
+        runner.stepOnce();
+        runner.publish(0);
+        assertEquals(1_000, runner.acquireSnapshot().getAppliedPressNanos(), "The snapshot should carry the press of the lane change shown.");
+        while (simulation.getPlayerVehicle().getAppliedPressNanos() == 1_000 && simulation.getTick() < 1000) {
+            runner.stepOnce();
+        }
+        assertEquals(2_000, simulation.getPlayerVehicle().getAppliedPressNanos(), "The buffered press should show once the first slide ends.");
+        assertEquals(1, simulation.getPlayerVehicle().currentLane, "The buffered press should bring the vehicle back.");
+    }
+
+    @Test
+    public void testRestartIsFastAndAllocatesNothing() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (boolean useObstacleStore : new boolean[]{false, true}) {
+            GameSimulation simulation = new GameSimulation("car", useObstacleStore, 12);
+            SimulationRunner runner = new SimulationRunner(simulation, new ReplayRecorder(simulation, 1));
+            PlayerVehicle vehicle = simulation.getPlayerVehicle();
+            // As in the game window, the lookahead thread lives across restarts.
+            simulation.startTrackLookahead();
+            long[] nanos = new long[20];
+            for (int run = 0; run < 60; run++) {
+                while (!runner.stepOnce()) {
+                    if (simulation.getTick() % 97 == 0) runner.offer(InputQueue.RIGHT);
+                    runner.drainInputs();
+                }
+
+                long bytesBefore = threadBean.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                runner.offer(InputQueue.RESTART);
+                runner.drainInputs();
+                long elapsed = System.nanoTime() - start;
+                long allocated = threadBean.getCurrentThreadAllocatedBytes() - bytesBefore;
+
+                // The first runs warm up the code and grow the pools to the size of a run.
+                if (run >= 40) {
+                    nanos[run - 40] = elapsed;
+                    assertEquals(0, allocated, "A restart should allocate nothing.");
+                }
+                assertEquals(0, simulation.getTick(), "A restart should go back to the first tick.");
+                assertEquals(0, simulation.getObstacleCount(), "A restart should clear the road.");
+                assertSame(vehicle, simulation.getPlayerVehicle(), "A restart should keep the player vehicle.");
+                assertEquals(1, simulation.getPlayerVehicle().currentLane, "A restart should put the vehicle back in its lane.");
+            }
+            simulation.stopTrackLookahead();
+            Arrays.sort(nanos);
+            assertTrue(nanos[nanos.length / 2] < 1_000_000, "A restart should take less than a millisecond.");
+        }
+    }
+
+    @Test
+    public void testIdleThreadParksUntilResumed() throws InterruptedException {
+        GameSimulation simulation = new GameSimulation("car", false, 6);
+        SimulationRunner runner = new SimulationRunner(simulation, new ReplayRecorder(simulation, 1));
+        assertThrows(IllegalArgumentException.class, () -> runner.offer(InputQueue.EMPTY), "An unknown command should be rejected.");
+
+        runner.start();
+        Thread thread = Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("simulation")).findFirst().orElseThrow();
+        for (int i = 0; i < 200 && thread.getState() != Thread.State.WAITING; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.WAITING, thread.getState(), "A paused simulation thread should park, not poll.");
+
+        runner.setPaused(false);
+        for (int i = 0; i < 200 && runner.acquireSnapshot().getTick() == 0; i++) {
+            Thread.sleep(10);
+        }
+        runner.stop();
+        assertTrue(runner.acquireSnapshot().getTick() > 0, "Resuming should wake the simulation thread.");
+        assertFalse(thread.isAlive(), "Stopping the runner should end the simulation thread.");
+    }
+
+    @Test
+    public void testSnapshotCopiesSimulation() {
+        GameSimulation simulation = new GameSimulation("car", true, 3);
+        SimulationRunner runner = new SimulationRunner(simulation, new ReplayRecorder(simulation, 1));
+        for (int i = 0; i < 500 && !simulation.isGameOver(); i++) {
+            runner.stepOnce();
+        }
+        runner.publish(0);
+
+        WorldSnapshot snapshot = runner.acquireSnapshot();
+        assertEquals(simulation.getTick(), snapshot.getTick(), "The snapshot should hold the last tick.");
+        assertEquals(simulation.getObstacleCount(), snapshot.getObstacleCount(), "The snapshot should hold every obstacle.");
+        assertEquals(simulation.getPlayerVehicle().getX(), snapshot.getPlayerX(1.0), "The snapshot should hold the player position.");
+        for (int i = 0; i < snapshot.getObstacleCount(); i++) {
+            assertEquals(simulation.getObstacleStore().getY()[i], snapshot.getObstacleY()[i], "The snapshot should hold the obstacle positions.");
+        }
+        assertEquals(simulation.getRoadOffset(0.5), snapshot.getRoadOffset(0.5), "The snapshot should scroll the road like the simulation.");
+    }
+}
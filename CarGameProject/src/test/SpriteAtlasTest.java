@@ -0,0 +1,60 @@
+package test;
+
+import game.SpriteAtlas;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpriteAtlasTest {
+
+    @Test
+    public void testPackedRectanglesDoNotOverlap() {
+        int[] widths = {50, 30, 80, 50, 50, 50, 50, 50, 50, 50, 50};
+        int[] heights = {100, 60, 150, 100, 100, 100, 100, 100, 100, 100, 100};
+        int[] rects = SpriteAtlas.pack(widths, heights);
+
+        for (int i = 0; i < widths.length; i++) {
+            assertEquals(widths[i], rects[4 * i + 2], "The rectangle should keep the width of its sprite.");
+            assertEquals(heights[i], rects[4 * i + 3], "The rectangle should keep the height of its sprite.");
+            assertTrue(rects[4 * i] >= SpriteAtlas.GUTTER && rects[4 * i] + widths[i] + SpriteAtlas.GUTTER <= SpriteAtlas.MAX_WIDTH,
+                    "The rectangle should fit in the atlas with its gutter.");
+            for (int j = 0; j < i; j++) {
+                boolean apart = rects[4 * i] + widths[i] + SpriteAtlas.GUTTER <= rects[4 * j]
+                        || rects[4 * j] + widths[j] + SpriteAtlas.GUTTER <= rects[4 * i]
+                        || rects[4 * i + 1] + heights[i] + SpriteAtlas.GUTTER <= rects[4 * j + 1]
+                        || rects[4 * j + 1] + heights[j] + SpriteAtlas.GUTTER <= rects[4 * i + 1];
+                assertTrue(apart, "Sprites " + i + " and " + j + " should be kept apart by a gutter.");
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> SpriteAtlas.pack(new int[]{SpriteAtlas.MAX_WIDTH}, new int[]{1}),
+                "A sprite wider than the atlas should be rejected.");
+    }
+
+    @Test
+    public void testAtlasCopiesSpritePixels() {
+        WritableImage red = new WritableImage(4, 3);
+        WritableImage blue = new WritableImage(2, 5);
+        fill(red, 0xFFFF0000);
+        fill(blue, 0xFF0000FF);
+        SpriteAtlas atlas = new SpriteAtlas(new Image[]{red, blue});
+        int[] rects = atlas.getRects();
+
+        assertEquals(2, atlas.size(), "The atlas should index every sprite.");
+        assertEquals(0xFFFF0000, atlas.getImage().getPixelReader().getArgb(rects[0] + 3, rects[1] + 2), "The red sprite should be copied to its rectangle.");
+        assertEquals(0xFF0000FF, atlas.getImage().getPixelReader().getArgb(rects[4] + 1, rects[5] + 4), "The blue sprite should be copied to its rectangle.");
+        assertEquals(0, atlas.getImage().getPixelReader().getArgb(rects[0] - 1, rects[1]), "The gutter should stay transparent.");
+    }
+
+    private static void fill(WritableImage image, int argb) {
+        int w = (int) image.getWidth();
+        int h = (int) image.getHeight();
+        int[] pixels = new int[w * h];
+        Arrays.fill(pixels, argb);
+        image.getPixelWriter().setPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), pixels, 0, w);
+    }
+}
@@ -0,0 +1,68 @@
+package test;
+
+import game.SpriteAtlas;
+import game.SpriteBatch;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.transform.Affine;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpriteBatchTest {
+
+    @Test
+    public void testRotatedRunsShareTransformChanges() {
+        Canvas canvas = new Canvas(100, 100);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setTransform(2, 0, 0, 2, 0, 0);
+        SpriteBatch batch = new SpriteBatch(new Image[]{new WritableImage(5, 10)});
+        batch.add(0, 0, 0, 5, 10, 0);
+        batch.add(0, 10, 0, 5, 10, 15);
+        batch.add(0, 20, 0, 5, 10, -15);
+        batch.add(0, 30, 0, 5, 10, 0);
+        batch.add(0, 40, 0, 5, 10, 0);
+        batch.draw(gc, 2, 2);
+
+        assertEquals(3, batch.getTransformChanges(), "Each rotated sprite should set one transform, and the base one should be set back once.");
+        Affine transform = gc.getTransform();
+        assertArrayEquals(new double[]{2, 0, 0, 0, 2, 0},
+                new double[]{transform.getMxx(), transform.getMxy(), transform.getTx(), transform.getMyx(), transform.getMyy(), transform.getTy()},
+                "The base transform should be left on the context.");
+
+        batch.clear();
+        batch.add(0, 0, 0, 5, 10, 0);
+        batch.draw(gc, 2, 2);
+        assertEquals(3, batch.getTransformChanges(), "Sprites without rotation should not change the transform.");
+        assertEquals(1, batch.size(), "Clearing the batch should drop the sprites of the previous frame.");
+    }
+
+    @Test
+    public void testBoundsOfRotatedSprite() {
+        assertEquals(50, SpriteBatch.boundsWidth(50, 100, 0), 1e-9, "A straight sprite should fill its own box.");
+        assertEquals(100, SpriteBatch.boundsWidth(50, 100, 90), 1e-9, "A quarter turn should swap the width and height.");
+        assertEquals(50, SpriteBatch.boundsHeight(50, 100, -90), 1e-9, "A quarter turn should swap the width and height.");
+        double width = 50 * Math.cos(Math.toRadians(20)) + 100 * Math.sin(Math.toRadians(20));
+        assertEquals(width, SpriteBatch.boundsWidth(50, 100, -20), 1e-9, "A tilted sprite should widen its box.");
+    }
+
+    @Test
+    public void testAtlasDrawsWithoutTextureSwitches() {
+        Canvas canvas = new Canvas(100, 100);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        Image[] images = {new WritableImage(5, 10), new WritableImage(5, 10), new WritableImage(3, 6)};
+        SpriteBatch separate = new SpriteBatch(images);
+        SpriteBatch atlas = new SpriteBatch(new SpriteAtlas(images));
+        for (int i = 0; i < 30; i++) {
+            separate.add(i % images.length, i, i, 5, 10, i % 4 == 0 ? 10 : 0);
+            atlas.add(i % images.length, i, i, 5, 10, i % 4 == 0 ? 10 : 0);
+        }
+        separate.draw(gc, 1, 1);
+        atlas.draw(gc, 1, 1);
+
+        assertEquals(30, separate.getTextureSwitches(), "Alternating images should switch textures at every sprite.");
+        assertEquals(1, atlas.getTextureSwitches(), "The atlas should only bind its texture once per frame.");
+    }
+}
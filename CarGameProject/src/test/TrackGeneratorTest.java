@@ -0,0 +1,248 @@
+package test;
+
+import game.GameSimulation;
+import game.Obstacle;
+import game.PlayerVehicle;
+import game.ReplayPlayer;
+import game.ReplayReader;
+import game.ReplayRecorder;
+import game.TrackGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrackGeneratorTest {
+
+    private static final int HORIZON = 4000;
+
+    /**
+     * Reads the rows of a run spawned up to a tick, as {tick, blocked lanes} pairs.
+     */
+    private static List<long[]> readRows(TrackGenerator generator, long lastTick) {
+        List<long[]> rows = new ArrayList<>();
+        while (generator.getNextTick() <= lastTick) {
+            rows.add(new long[]{generator.getNextTick(), generator.getNextBlocked()});
+            generator.advance();
+        }
+        return rows;
+    }
+
+    /**
+     * Lays out a run the way a simulation does, and reads its rows.
+     */
+    private static List<long[]> layOut(GameSimulation simulation, double speed, int interval, boolean lookahead) {
+        TrackGenerator generator = new TrackGenerator();
+        if (lookahead) {
+            generator.startLookahead();
+        }
+        generator.restart(simulation.getSeed(), speed, interval, simulation.getPlayerVehicle(), simulation.getLaneWidth());
+        List<long[]> rows = readRows(generator, HORIZON);
+        generator.stopLookahead();
+        return rows;
+    }
+
+    /**
+     * Searches, tick by tick, for the lane changes that get the player vehicle through the rows without
+     * touching an obstacle, and returns each change as twice its tick, plus one for a change to the right,
+     * or {@code null} if there is none.
+     */
+    private static List<Long> findPath(List<long[]> rows, PlayerVehicle vehicle, double speed, double laneWidth, double slideSpeed) {
+        int lanes = GameSimulation.LANE_COUNT;
+        boolean[][] occupied = new boolean[HORIZON + 2][lanes];
+        double top = vehicle.getY() - 5;
+        double bottom = vehicle.getY() + vehicle.getHeight() + 5;
+        for (long[] row : rows) {
+            double v = GameSimulation.obstacleSpeedAt(speed, row[0]);
+            for (long t = row[0]; t <= HORIZON + 1; t++) {
+                double y = -Obstacle.HEIGHT + v * (t - row[0] + 1);
+                // The swept check covers the whole path travelled during the tick, plus a tick on each side.
+                if (y + Obstacle.HEIGHT + v <= top || y - 2 * v >= bottom) continue;
+                for (int lane = 0; lane < lanes; lane++) {
+                    if ((row[1] & (1L << lane)) != 0) occupied[(int) t][lane] = true;
+                }
+            }
+        }
+
+        int slideTicks = (int) Math.ceil(laneWidth / slideSpeed) + 1;
+        int[][] from = new int[HORIZON + 2][lanes];
+        for (int[] f : from) {
+            Arrays.fill(f, -1);
+        }
+        from[0][vehicle.currentLane] = vehicle.currentLane;
+        for (int t = 0; t < HORIZON; t++) {
+            for (int lane = 0; lane < lanes; lane++) {
+                if (from[t][lane] < 0) continue;
+                if (!occupied[t + 1][lane] && from[t + 1][lane] < 0) from[t + 1][lane] = lane;
+                for (int target = lane - 1; target <= lane + 1; target += 2) {
+                    int end = t + slideTicks;
+                    if (target < 0 || target >= lanes || end > HORIZON || from[end][target] >= 0) continue;
+                    boolean free = true;
+                    for (int k = t + 1; k <= end && free; k++) {
+                        free = !occupied[k][lane] && !occupied[k][target];
+                    }
+                    // A change is stored by the tick it ends at, with the lane it came from.
+                    if (free) from[end][target] = lanes + lane;
+                }
+            }
+        }
+
+        int lane = -1;
+        for (int k = 0; k < lanes; k++) {
+            if (from[HORIZON][k] >= 0) lane = k;
+        }
+        if (lane < 0) return null;
+        List<Long> changes = new ArrayList<>();
+        int t = HORIZON;
+        while (t > 0) {
+            int previous = from[t][lane];
+            if (previous >= lanes) {
+                previous -= lanes;
+                t -= slideTicks;
+                changes.add(0, 2L * t + (previous < lane ? 1 : 0));
+            } else {
+                t--;
+            }
+            lane = previous;
+        }
+        return changes;
+    }
+
+    /**
+     * Plays a run with the given lane changes.
+     */
+    private static void drive(GameSimulation simulation, List<Long> changes) {
+        int next = 0;
+        while (!simulation.isGameOver() && simulation.getTick() < HORIZON) {
+            while (next < changes.size() && changes.get(next) / 2 == simulation.getTick()) {
+                if (changes.get(next) % 2 == 0) {
+                    simulation.getPlayerVehicle().moveLeft();
+                } else {
+                    simulation.getPlayerVehicle().moveRight();
+                }
+                next++;
+            }
+            simulation.step();
+        }
+    }
+
+    @Test
+    public void testEveryRunHasPassablePath() {
+        double[][] difficulties = {
+                {GameSimulation.DEFAULT_OBSTACLE_SPEED, GameSimulation.DEFAULT_SPAWN_INTERVAL},
+                {4, 30}
+        };
+        for (String vehicleType : new String[]{"car", "bike", "truck"}) {
+            for (double[] difficulty : difficulties) {
+                for (long seed = 0; seed < 5; seed++) {
+                    GameSimulation simulation = new GameSimulation(vehicleType, false, seed);
+                    simulation.setDifficulty(difficulty[0], (int) difficulty[1]);
+                    PlayerVehicle vehicle = simulation.getPlayerVehicle();
+                    List<long[]> rows = layOut(simulation, difficulty[0], (int) difficulty[1], false);
+                    List<Long> changes = findPath(rows, vehicle, difficulty[0], simulation.getLaneWidth(), vehicle.getSlideSpeed());
+                    String run = vehicleType + " at " + difficulty[0] + "/" + (int) difficulty[1] + ", seed " + seed;
+
+                    assertNotNull(changes, "There should be a passable path for the " + run + ".");
+                    drive(simulation, changes);
+                    assertFalse(simulation.isGameOver(), "Following the path should not crash the " + run + ".");
+                    assertEquals(HORIZON, simulation.getTick(), "The " + run + " should last to the horizon.");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLookaheadLaysOutSameRows() {
+        for (String vehicleType : new String[]{"car", "bike", "truck"}) {
+            GameSimulation simulation = new GameSimulation(vehicleType, false, 21);
+            List<long[]> inline = layOut(simulation, GameSimulation.DEFAULT_OBSTACLE_SPEED, 10, false);
+            List<long[]> lookahead = layOut(simulation, GameSimulation.DEFAULT_OBSTACLE_SPEED, 10, true);
+
+            assertTrue(inline.size() > 2 * TrackGenerator.CAPACITY * TrackGenerator.ROWS_PER_CHUNK, "The run should wrap around the buffer.");
+            assertEquals(inline.size(), lookahead.size(), "The background thread should lay out as many rows.");
+            for (int i = 0; i < inline.size(); i++) {
+                assertArrayEquals(inline.get(i), lookahead.get(i), "The background thread should lay out the same rows.");
+            }
+        }
+    }
+
+    @Test
+    public void testRestartDiscardsBufferedRows() {
+        GameSimulation simulation = new GameSimulation("car", false, 5);
+        TrackGenerator generator = new TrackGenerator();
+        generator.startLookahead();
+        generator.restart(5, 3, 20, simulation.getPlayerVehicle(), simulation.getLaneWidth());
+        readRows(generator, 500);
+        generator.restart(5, 3, 20, simulation.getPlayerVehicle(), simulation.getLaneWidth());
+        List<long[]> restarted = readRows(generator, HORIZON);
+        generator.stopLookahead();
+
+        List<long[]> fresh = layOut(simulation, 3, 20, false);
+        assertEquals(fresh.size(), restarted.size(), "A restarted generator should start the run again.");
+        for (int i = 0; i < fresh.size(); i++) {
+            assertArrayEquals(fresh.get(i), restarted.get(i), "A restarted generator should lay out the rows of a new run.");
+        }
+    }
+
+    @Test
+    public void testLookaheadParksWhileBufferIsFull() throws InterruptedException {
+        GameSimulation simulation = new GameSimulation("car", false, 9);
+        TrackGenerator generator = new TrackGenerator();
+        generator.startLookahead();
+        generator.restart(9, 3, 20, simulation.getPlayerVehicle(), simulation.getLaneWidth());
+        Thread producer = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("track-generator")).findFirst().orElseThrow();
+        for (int i = 0; i < 200 && producer.getState() != Thread.State.WAITING; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.WAITING, producer.getState(), "The background thread should park, not poll, once the buffer is full.");
+
+        List<long[]> rows = readRows(generator, HORIZON);
+        assertTrue(rows.size() > TrackGenerator.CAPACITY * TrackGenerator.ROWS_PER_CHUNK, "The consumer should wake the background thread as it frees slots.");
+        generator.stopLookahead();
+        assertFalse(producer.isAlive(), "Stopping the lookahead should end the background thread.");
+    }
+
+    @Test
+    public void testLookaheadRunReplaysFaithfully() {
+        GameSimulation simulation = new GameSimulation("bike", false, 17);
+        simulation.startTrackLookahead();
+        ReplayRecorder recorder = new ReplayRecorder(simulation, ReplayRecorder.DEFAULT_CHECKSUM_INTERVAL);
+        while (!simulation.isGameOver() && simulation.getTick() < 100_000) {
+            if (simulation.getTick() % 53 == 0) {
+                recorder.recordInput(ReplayRecorder.RIGHT);
+                simulation.getPlayerVehicle().moveRight();
+            }
+            simulation.step();
+            recorder.afterStep();
+        }
+        recorder.finish();
+        simulation.stopTrackLookahead();
+
+        ReplayReader reader = new ReplayReader(ByteBuffer.wrap(recorder.toByteArray()));
+        assertTrue(reader.usesTrackGenerator(), "The log should record that the track generator laid out the run.");
+        ReplayPlayer.Result result = ReplayPlayer.play(reader);
+        assertTrue(result.isFaithful(), "The replay of a run laid out in the background should not diverge.");
+        assertEquals(simulation.score, result.getScore(), "The replay should reach the recorded score.");
+    }
+
+    @Test
+    public void testLegacySpawningReplaysFaithfully() {
+        GameSimulation simulation = new GameSimulation("car", false, 4);
+        simulation.setLegacySpawning(true);
+        ReplayRecorder recorder = new ReplayRecorder(simulation, ReplayRecorder.DEFAULT_CHECKSUM_INTERVAL);
+        while (!simulation.isGameOver() && simulation.getTick() < 100_000) {
+            simulation.step();
+            recorder.afterStep();
+        }
+        recorder.finish();
+
+        ReplayReader reader = new ReplayReader(ByteBuffer.wrap(recorder.toByteArray()));
+        assertFalse(reader.usesTrackGenerator(), "The log should record the legacy spawning.");
+        assertTrue(ReplayPlayer.play(reader).isFaithful(), "Runs spawned the legacy way should still replay.");
+    }
+}